@@ -1,5 +1,6 @@
 package com.flowhub.base.cache;
 
+import java.util.HashMap;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
@@ -96,4 +97,23 @@ public class CacheProperties {
    * </pre>
    */
   private Map<String, CacheBuilder> properties;
+
+  /**
+   * **Danh sách region L2 cache của Hibernate**
+   *
+   * <p>Mỗi phần tử tạo một cache JCache (Caffeine) có tên `cacheName` trùng với `region` khai báo
+   * trong `@Cache` của entity, hoặc với region mặc định của query cache
+   * (`default-query-results-region`, `default-update-timestamps-region`). Region timestamps không
+   * được đặt `expiredTime`.</p>
+   *
+   * <h3>Ví dụ cấu hình:</h3>
+   * <pre>
+   * {@code
+   * custom.properties.cache.hibernate.workflow-def.cache-name=workflow-def
+   * custom.properties.cache.hibernate.workflow-def.expired-time=10M
+   * custom.properties.cache.hibernate.workflow-def.maximum-size=10000
+   * }
+   * </pre>
+   */
+  private Map<String, CacheBuilder> hibernate = new HashMap<>();
 }
@@ -0,0 +1,89 @@
+package com.flowhub.base.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * **Cấu hình L2 cache của Hibernate bằng JCache/Caffeine (`HibernateCacheAutoConfiguration`)**
+ *
+ * <p>Chỉ bật khi `spring.jpa.properties.hibernate.cache.use_second_level_cache=true`. Mỗi region
+ * trong `custom.properties.cache.hibernate` được tạo sẵn thành một cache Caffeine có giới hạn kích
+ * thước và thời gian sống, rồi `CacheManager` này được truyền cho `hibernate-jcache`.</p>
+ *
+ * <h2>📌 Lưu ý:</h2>
+ * <ul>
+ *   <li>✅ Entity được cập nhật qua Hibernate (kể cả bulk JPQL) được invalidate tự động; câu lệnh
+ *   JDBC/native ghi vào bảng của entity phải tự evict qua `EntityManagerFactory#getCache()`.</li>
+ *   <li>✅ Cache nằm trong bộ nhớ của từng instance; `expiredTime` là thời gian tối đa một instance
+ *   khác có thể đọc định nghĩa cũ.</li>
+ *   <li>✅ Hit/miss theo region được xuất ra Micrometer qua `hibernate-micrometer` khi
+ *   `hibernate.generate_statistics=true`.</li>
+ * </ul>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(
+    name = "spring.jpa.properties.hibernate.cache.use_second_level_cache",
+    havingValue = "true")
+public class HibernateCacheAutoConfiguration {
+
+  /**
+   * **CacheManager JCache chứa các region của Hibernate**
+   *
+   * @param cacheProperties Cấu hình bộ nhớ đệm được lấy từ file cấu hình
+   * @return một {@code CacheManager} Caffeine đã tạo sẵn các region
+   */
+  @Bean(name = "hibernateCacheManager", destroyMethod = "close")
+  public CacheManager hibernateCacheManager(final CacheProperties cacheProperties) {
+    CacheManager cacheManager =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(
+                URI.create("flowhub-hibernate"),
+                HibernateCacheAutoConfiguration.class.getClassLoader());
+    cacheProperties
+        .getHibernate()
+        .forEach(
+            (key, cacheBuilder) -> {
+              String region = StringUtils.defaultIfBlank(cacheBuilder.getCacheName(), key);
+              if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, this.buildConfiguration(cacheBuilder));
+              }
+            });
+    return cacheManager;
+  }
+
+  /**
+   * **Truyền `CacheManager` cho Hibernate**
+   *
+   * @param hibernateCacheManager CacheManager chứa các region
+   * @return customizer thêm `hibernate.javax.cache.cache_manager`
+   */
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(
+      final CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+
+  private CaffeineConfiguration<Object, Object> buildConfiguration(
+      final CacheBuilder cacheBuilder) {
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    configuration.setMaximumSize(OptionalLong.of(cacheBuilder.getMaximumSize()));
+    if (cacheBuilder.getExpiredTime() != null) {
+      configuration.setExpireAfterWrite(
+          OptionalLong.of(cacheBuilder.getExpiredTime().toNanos()));
+    }
+    return configuration;
+  }
+}
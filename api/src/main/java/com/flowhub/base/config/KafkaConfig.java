@@ -12,14 +12,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
 import org.springframework.kafka.support.DefaultKafkaHeaderMapper;
 import org.springframework.kafka.support.KafkaHeaderMapper;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
@@ -56,6 +59,9 @@ public class KafkaConfig {
   @Value("${custom.properties.messaging.kafka.consumer.number.of.message.in.batch}")
   private int maxBatchRecordNapasTranfer;
 
+  @Value("${custom.properties.messaging.kafka.batch-consumer.number.of.message.in.batch:500}")
+  private int maxBatchRecordBatchConsumer;
+
   @Value("${custom.properties.messaging.consumer.pool.size}")
   private int kafkaConsumerThreadPoolSize;
 
@@ -95,16 +101,33 @@ public class KafkaConfig {
    */
   @Bean
   public ConsumerFactory<String, String> consumerFactory() {
+    return new DefaultKafkaConsumerFactory<>(consumerProps(maxBatchRecordNapasTranfer));
+  }
+
+  /**
+   * **Cấu hình Kafka Consumer theo lô**
+   *
+   * <p>Giống `consumerFactory()` nhưng mỗi lần poll lấy tối đa
+   * `custom.properties.messaging.kafka.batch-consumer.number.of.message.in.batch` tin nhắn.</p>
+   *
+   * @return Một `ConsumerFactory` cho Kafka Consumer theo lô.
+   */
+  @Bean
+  public ConsumerFactory<String, String> batchConsumerFactory() {
+    return new DefaultKafkaConsumerFactory<>(consumerProps(maxBatchRecordBatchConsumer));
+  }
+
+  private Map<String, Object> consumerProps(int maxPollRecords) {
     Map<String, Object> props = new HashMap<>();
     props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServerUrl);
-    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxBatchRecordNapasTranfer);
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
     props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
     props.put(ConsumerConfig.DEFAULT_ISOLATION_LEVEL, IsolationLevel.READ_COMMITTED);
     props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, consumerTimeout);
     props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
     props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
     props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-    return new DefaultKafkaConsumerFactory<>(props);
+    return props;
   }
 
   /**
@@ -126,6 +149,40 @@ public class KafkaConfig {
     return factory;
   }
 
+  /**
+   * **Cấu hình Kafka Listener Container Factory theo lô**
+   *
+   * <p>Listener nhận cả danh sách bản ghi của một lần poll và xác nhận offset một lần cho cả lô
+   * (`AckMode.MANUAL`).</p>
+   *
+   * @return Một `ConcurrentKafkaListenerContainerFactory` cho Kafka Consumer theo lô.
+   */
+  @Bean("batchKafkaListenerContainerFactory")
+  public ConcurrentKafkaListenerContainerFactory<String, String>
+      batchKafkaListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, String> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(batchConsumerFactory());
+    factory.setBatchListener(true);
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    factory.getContainerProperties().setListenerTaskExecutor(messageProcessorExecutor());
+    return factory;
+  }
+
+  /**
+   * **Dịch vụ tạm dừng phân vùng có thời hạn**
+   *
+   * <p>Dùng cho các topic retry theo tầng: phân vùng có bản ghi chưa đến hạn được tạm dừng và tự
+   * tiếp tục khi đến hạn, không chặn các phân vùng khác của cùng consumer.</p>
+   *
+   * @return Một `ListenerContainerPauseService`.
+   */
+  @Bean
+  public ListenerContainerPauseService listenerContainerPauseService(
+      KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry, TaskScheduler taskScheduler) {
+    return new ListenerContainerPauseService(kafkaListenerEndpointRegistry, taskScheduler);
+  }
+
   /**
    * **Cấu hình Header Mapper cho Kafka**
    *
@@ -0,0 +1,223 @@
+package com.flowhub.base.data;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.JavaType;
+import org.hibernate.type.descriptor.jdbc.BasicBinder;
+import org.hibernate.type.descriptor.jdbc.BasicExtractor;
+import org.hibernate.type.descriptor.jdbc.JsonJdbcType;
+
+/**
+ * **Kiểu JDBC lưu JSON dưới dạng nhị phân nén (`bytea`)**
+ *
+ * <p>Giá trị được chuyển sang JSON bằng `FormatMapper` của Hibernate (giống `SqlTypes.JSON`),
+ * sau đó nén bằng `Deflater` nếu đủ lớn. Mỗi giá trị bắt đầu bằng một header cố định:</p>
+ * <pre>
+ * | 'F' 'H' | version (1 byte) | codec (1 byte) | độ dài JSON gốc (4 byte) | dữ liệu |
+ * </pre>
+ * <p>Giá trị không có header được đọc như JSON UTF-8, nên cột `jsonb` cũ có thể chuyển sang
+ * `bytea` bằng `convert_to(column::text, 'UTF8')` mà không cần ghi lại dữ liệu.</p>
+ *
+ * <p>Thuộc tính dùng kiểu này khai báo `@JdbcTypeCode(CompressedJsonJdbcType.SQL_TYPE)`;
+ * {@link CompressedJsonTypeContributor} quyết định mã này là `jsonb` hay `bytea` nén.</p>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public class CompressedJsonJdbcType extends JsonJdbcType {
+
+  /** Mã kiểu SQL riêng cho các cột JSON có thể nén** */
+  public static final int SQL_TYPE = 9_001;
+
+  public static final CompressedJsonJdbcType INSTANCE = new CompressedJsonJdbcType();
+
+  static final byte VERSION = 1;
+
+  static final byte CODEC_NONE = 0;
+
+  static final byte CODEC_DEFLATE = 1;
+
+  /** JSON nhỏ hơn ngưỡng này được lưu không nén** */
+  static final int MIN_COMPRESS_BYTES = 1024;
+
+  private static final byte MAGIC_0 = 'F';
+
+  private static final byte MAGIC_1 = 'H';
+
+  private static final int HEADER_BYTES = 8;
+
+  protected CompressedJsonJdbcType() {
+    super(null);
+  }
+
+  @Override
+  public int getJdbcTypeCode() {
+    return Types.VARBINARY;
+  }
+
+  @Override
+  public int getDefaultSqlTypeCode() {
+    return SQL_TYPE;
+  }
+
+  @Override
+  public String toString() {
+    return "CompressedJsonJdbcType";
+  }
+
+  @Override
+  public <X> ValueBinder<X> getBinder(JavaType<X> javaType) {
+    return new BasicBinder<>(javaType, this) {
+      @Override
+      protected void doBind(PreparedStatement st, X value, int index, WrapperOptions options)
+          throws SQLException {
+        st.setBytes(index, encode(CompressedJsonJdbcType.this.toString(value, javaType, options)));
+      }
+
+      @Override
+      protected void doBind(CallableStatement st, X value, String name, WrapperOptions options)
+          throws SQLException {
+        st.setBytes(name, encode(CompressedJsonJdbcType.this.toString(value, javaType, options)));
+      }
+    };
+  }
+
+  @Override
+  public <X> ValueExtractor<X> getExtractor(JavaType<X> javaType) {
+    return new BasicExtractor<>(javaType, this) {
+      @Override
+      protected X doExtract(ResultSet rs, int paramIndex, WrapperOptions options)
+          throws SQLException {
+        return fromBytes(rs.getBytes(paramIndex), options);
+      }
+
+      @Override
+      protected X doExtract(CallableStatement statement, int index, WrapperOptions options)
+          throws SQLException {
+        return fromBytes(statement.getBytes(index), options);
+      }
+
+      @Override
+      protected X doExtract(CallableStatement statement, String name, WrapperOptions options)
+          throws SQLException {
+        return fromBytes(statement.getBytes(name), options);
+      }
+
+      private X fromBytes(byte[] bytes, WrapperOptions options) throws SQLException {
+        return bytes == null
+            ? null
+            : CompressedJsonJdbcType.this.fromString(decode(bytes), getJavaType(), options);
+      }
+    };
+  }
+
+  /**
+   * **Mã hóa chuỗi JSON thành giá trị nhị phân có header**
+   *
+   * <p>Chỉ nén khi JSON đủ lớn và nén thực sự làm giảm kích thước.</p>
+   *
+   * @param json Chuỗi JSON.
+   * @return Giá trị lưu vào cột `bytea`.
+   */
+  public static byte[] encode(String json) {
+    byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+    if (raw.length >= MIN_COMPRESS_BYTES) {
+      byte[] compressed = deflate(raw);
+      if (compressed.length < raw.length) {
+        return withHeader(CODEC_DEFLATE, raw.length, compressed);
+      }
+    }
+    return withHeader(CODEC_NONE, raw.length, raw);
+  }
+
+  /**
+   * **Giải mã giá trị nhị phân về chuỗi JSON**
+   *
+   * @param bytes Giá trị đọc từ cột `bytea`, có hoặc không có header.
+   * @return Chuỗi JSON.
+   * @throws IllegalArgumentException nếu version/codec không hỗ trợ hoặc dữ liệu hỏng.
+   */
+  public static String decode(byte[] bytes) {
+    if (bytes.length < HEADER_BYTES || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+      // giá trị được chuyển từ jsonb sang bytea
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+    ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_BYTES);
+    header.position(2);
+    byte version = header.get();
+    byte codec = header.get();
+    int length = header.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported compressed json version: " + version);
+    }
+    return switch (codec) {
+      case CODEC_NONE ->
+          new String(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES, StandardCharsets.UTF_8);
+      case CODEC_DEFLATE -> new String(inflate(bytes, length), StandardCharsets.UTF_8);
+      default -> throw new IllegalArgumentException("Unsupported compressed json codec: " + codec);
+    };
+  }
+
+  private static byte[] withHeader(byte codec, int length, byte[] payload) {
+    return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+        .put(MAGIC_0)
+        .put(MAGIC_1)
+        .put(VERSION)
+        .put(codec)
+        .putInt(length)
+        .put(payload)
+        .array();
+  }
+
+  private static byte[] deflate(byte[] raw) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(raw);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 16);
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] bytes, int length) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES);
+      byte[] raw = new byte[length];
+      int read = 0;
+      while (read < length && !inflater.finished()) {
+        int inflated = inflater.inflate(raw, read, length - read);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        read += inflated;
+      }
+      if (read != length) {
+        throw new IllegalArgumentException("Corrupted compressed json value");
+      }
+      return raw;
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupted compressed json value", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.flowhub.base.data;
+
+import org.hibernate.boot.model.TypeContributions;
+import org.hibernate.boot.model.TypeContributor;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.jdbc.spi.JdbcTypeRegistry;
+import org.hibernate.type.descriptor.sql.DdlType;
+import org.hibernate.type.descriptor.sql.spi.DdlTypeRegistry;
+
+/**
+ * **Đăng ký kiểu {@link CompressedJsonJdbcType#SQL_TYPE} cho Hibernate**
+ *
+ * <p>Mặc định mã kiểu này dùng đúng kiểu JSON của dialect (`jsonb` trên PostgreSQL). Khi bật
+ * `spring.jpa.properties.flowhub.compressed-json.enabled=true`, các cột được lưu dưới dạng
+ * `bytea` nén bằng {@link CompressedJsonJdbcType}.</p>
+ *
+ * <p>Được nạp qua `META-INF/services/org.hibernate.boot.model.TypeContributor`. Khi khởi tạo qua
+ * JPA, Hibernate gọi contributor hai lần: lần đầu trước khi dialect đăng ký kiểu của nó (bỏ qua),
+ * lần sau khi dựng metadata, lúc kiểu JSON và `VARBINARY` của dialect đã có.</p>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public class CompressedJsonTypeContributor implements TypeContributor {
+
+  /** Tên setting Hibernate bật lưu trữ nén** */
+  public static final String ENABLED = "flowhub.compressed-json.enabled";
+
+  @Override
+  public void contribute(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+    boolean enabled =
+        serviceRegistry
+            .requireService(ConfigurationService.class)
+            .getSetting(ENABLED, StandardConverters.BOOLEAN, false);
+    JdbcTypeRegistry jdbcTypeRegistry =
+        typeContributions.getTypeConfiguration().getJdbcTypeRegistry();
+    DdlTypeRegistry ddlTypeRegistry = typeContributions.getTypeConfiguration().getDdlTypeRegistry();
+    DdlType ddlType = ddlTypeRegistry.getDescriptor(enabled ? SqlTypes.VARBINARY : SqlTypes.JSON);
+    if (ddlType == null) {
+      // dialect chưa đăng ký kiểu, contributor sẽ được gọi lại sau
+      return;
+    }
+    jdbcTypeRegistry.addDescriptor(
+        CompressedJsonJdbcType.SQL_TYPE,
+        enabled ? CompressedJsonJdbcType.INSTANCE : jdbcTypeRegistry.getDescriptor(SqlTypes.JSON));
+    ddlTypeRegistry.addDescriptor(CompressedJsonJdbcType.SQL_TYPE, ddlType);
+  }
+}
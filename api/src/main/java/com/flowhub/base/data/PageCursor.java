@@ -0,0 +1,106 @@
+package com.flowhub.base.data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.flowhub.base.exception.BaseException;
+import com.flowhub.base.exception.CommonErrorDef;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.ScrollPosition.Direction;
+
+/**
+ * **Mã hóa / giải mã cursor của phân trang keyset (`PageCursor`)**
+ *
+ * <p>Cursor là chuỗi Base64 URL-safe của một JSON nhỏ chứa chuỗi `sort`, hướng cuộn và giá trị
+ * các khóa sắp xếp của bản ghi cuối trang (luôn gồm `id`, do Spring Data tự thêm để thứ tự là
+ * duy nhất). Client chỉ cần gửi lại nguyên chuỗi, không cần hiểu nội dung.</p>
+ *
+ * <pre>
+ * 📌 Lưu ý:
+ * - Cursor gắn với chuỗi `sort` tạo ra nó; gửi cursor với `sort` khác sẽ bị từ chối.
+ * - Giá trị khóa được chuyển lại đúng kiểu của field trong entity (ví dụ `LocalDateTime`).
+ * </pre>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@UtilityClass
+public class PageCursor {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper()
+          .registerModule(new JavaTimeModule())
+          .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+  private static final String SORT = "s";
+
+  private static final String DIRECTION = "d";
+
+  private static final String KEYS = "k";
+
+  /**
+   * **Tạo cursor từ vị trí keyset**
+   *
+   * @param position Vị trí keyset, thường là `window.positionAt(window.size() - 1)`.
+   * @param sort     Chuỗi `sort` của request tạo ra trang hiện tại.
+   * @return Cursor dạng chuỗi Base64 URL-safe.
+   * @throws IllegalArgumentException nếu `position` không phải vị trí keyset.
+   */
+  public static String encode(ScrollPosition position, String sort) {
+    if (!(position instanceof KeysetScrollPosition keyset)) {
+      throw new IllegalArgumentException("Only keyset positions can be encoded: " + position);
+    }
+    ObjectNode node = MAPPER.createObjectNode();
+    node.put(SORT, sort);
+    node.put(DIRECTION, keyset.getDirection().name());
+    node.set(KEYS, MAPPER.valueToTree(keyset.getKeys()));
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(node.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * **Giải mã cursor thành vị trí keyset**
+   *
+   * @param cursor Cursor do {@link #encode(ScrollPosition, String)} tạo ra.
+   * @param sort   Chuỗi `sort` của request hiện tại.
+   * @param clazz  Class của entity để xác định kiểu của các khóa.
+   * @return Vị trí keyset để truyền vào repository.
+   * @throws BaseException `BAD_REQUEST` nếu cursor hỏng, khác `sort` hoặc chứa field lạ.
+   */
+  public static KeysetScrollPosition decode(String cursor, String sort, Class<?> clazz) {
+    try {
+      JsonNode node = MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+      if (!Objects.equals(node.path(SORT).asText(null), sort)) {
+        throw new BaseException(CommonErrorDef.BAD_REQUEST, "Cursor does not match sort: " + sort);
+      }
+      Map<String, Object> keys = new LinkedHashMap<>();
+      Iterator<Map.Entry<String, JsonNode>> fields = node.path(KEYS).fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> key = fields.next();
+        keys.put(
+            key.getKey(),
+            MAPPER.treeToValue(
+                key.getValue(), PagingParameter.field(clazz, key.getKey()).getType()));
+      }
+      if (keys.isEmpty()) {
+        throw new IllegalArgumentException("Cursor has no keys");
+      }
+      return ScrollPosition.of(keys, Direction.valueOf(node.path(DIRECTION).asText()));
+    } catch (BaseException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new BaseException(CommonErrorDef.BAD_REQUEST, e, "Invalid cursor");
+    }
+  }
+}
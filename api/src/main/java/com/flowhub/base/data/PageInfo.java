@@ -31,6 +31,16 @@ import lombok.Getter;
  *     "totalPage": 5
  * }
  * </pre>
+ * <p>
+ * **📌 Với phân trang keyset (cursor)**, `pageNo`/`totalPage` không được trả về, `totalCount` chỉ
+ * có khi client yêu cầu (`withTotal=true`):</p>
+ * <pre>
+ * {
+ *     "pageSize": 20,
+ *     "nextCursor": "eyJzIjoiY3JlYXRlZEF0OmRlc2MiLC...",
+ *     "hasNext": true
+ * }
+ * </pre>
  *
  * @author haidv
  * @version 1.0
@@ -40,14 +50,32 @@ import lombok.Getter;
 public class PageInfo {
 
   @Schema(description = "Số trang hiện tại (bắt đầu từ 1)")
-  private int pageNo;
+  private Integer pageNo;
 
   @Schema(description = "Số bản ghi trên mỗi trang")
-  private int pageSize;
+  private Integer pageSize;
 
   @Schema(description = "Tổng số bản ghi trong kết quả tìm kiếm")
-  private long totalCount;
+  private Long totalCount;
 
   @Schema(description = "Tổng số trang cần thiết để hiển thị toàn bộ dữ liệu")
-  private int totalPage;
+  private Integer totalPage;
+
+  @Schema(description = "Cursor để lấy trang tiếp theo (phân trang keyset)")
+  private String nextCursor;
+
+  @Schema(description = "Còn trang tiếp theo hay không (phân trang keyset)")
+  private Boolean hasNext;
+
+  /**
+   * **Constructor cho phân trang theo offset**
+   *
+   * @param pageNo     Số trang hiện tại.
+   * @param pageSize   Số bản ghi trên mỗi trang.
+   * @param totalCount Tổng số bản ghi.
+   * @param totalPage  Tổng số trang.
+   */
+  public PageInfo(int pageNo, int pageSize, long totalCount, int totalPage) {
+    this(pageNo, pageSize, totalCount, totalPage, null, null);
+  }
 }
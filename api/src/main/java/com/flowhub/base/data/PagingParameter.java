@@ -4,11 +4,16 @@ import jakarta.persistence.Column;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 
 /**
@@ -20,7 +25,8 @@ import org.springframework.data.domain.Sort;
  * 📌 Chức năng chính:
  * - Cung cấp các tham số cơ bản cho phân trang như `pageSize`, `pageNo`, `sort`.
  * - Hỗ trợ chuyển đổi thành `Pageable` để sử dụng với Spring Data JPA.
- * - Hỗ trợ lấy tên cột tương ứng khi sử dụng native query.
+ * - Hỗ trợ lấy tên cột tương ứng khi sử dụng native query (được cache theo class entity).
+ * - Hỗ trợ phân trang keyset (cursor) qua `scrollPosition`, `sort()` và `limit`.
  * </pre>
  * <p>
  * **📌 Cách sử dụng:**
@@ -28,6 +34,13 @@ import org.springframework.data.domain.Sort;
  * {@code
  * PagingParameter pagingParameter = new PagingParameter();
  * Pageable pageable = pagingParameter.pageable();
+ *
+ * // Phân trang keyset: không cần COUNT(*), không bỏ qua bản ghi ở các trang sâu
+ * Window<WorkflowDef> window = workflowDefRepository.findByDeletedFalse(
+ *     pagingParameter.scrollPosition(WorkflowDef.class),
+ *     pagingParameter.sort(),
+ *     pagingParameter.limit());
+ * ResponsePage<WorkflowDef> page = new ResponsePage<>(window, pagingParameter);
  * }
  * </pre>
  *
@@ -38,6 +51,9 @@ import org.springframework.data.domain.Sort;
 @Setter
 public class PagingParameter {
 
+  /** Field của entity theo tên thuộc tính, được tính một lần cho mỗi class** */
+  private static final Map<Class<?>, Map<String, Field>> FIELDS = new ConcurrentHashMap<>();
+
   @Schema(example = "20", description = "Số lượng bản ghi trên mỗi trang")
   protected Integer pageSize = 20;
 
@@ -47,6 +63,12 @@ public class PagingParameter {
   @Schema(example = "createdAt:desc", description = "Sắp xếp dữ liệu")
   protected String sort = BaseEntity.Fields.createdAt + ":" + Sort.Direction.DESC;
 
+  @Schema(description = "Cursor trả về ở `pageInfo.nextCursor` của trang trước (phân trang keyset)")
+  protected String cursor;
+
+  @Schema(example = "false", description = "Có trả về tổng số bản ghi khi phân trang keyset không")
+  protected boolean withTotal;
+
   public Pageable pageable() {
     return pageable(false);
   }
@@ -73,6 +95,41 @@ public class PagingParameter {
     return PageRequest.of(pageNo - 1, pageSize, srt);
   }
 
+  /**
+   * **Lấy vị trí bắt đầu của trang keyset**
+   *
+   * @param clazz Class của entity để xác định kiểu của các khóa trong cursor.
+   * @return Vị trí đầu tiên nếu không có `cursor`, ngược lại là vị trí được giải mã từ `cursor`.
+   */
+  public ScrollPosition scrollPosition(Class<?> clazz) {
+    return StringUtils.isBlank(cursor)
+        ? ScrollPosition.keyset()
+        : PageCursor.decode(cursor, sort, clazz);
+  }
+
+  /**
+   * **Lấy thứ tự sắp xếp cho phân trang keyset**
+   *
+   * <p>Spring Data tự thêm `id` vào cuối thứ tự này, nên các trang không chồng lên nhau kể cả khi
+   * khóa sắp xếp bị trùng.</p>
+   *
+   * @return Đối tượng `Sort` chứa thông tin sắp xếp.
+   */
+  public Sort sort() {
+    Sort srt = this.getSort(sort, false, BaseEntity.class);
+    return srt == null ? Sort.unsorted() : srt;
+  }
+
+  /**
+   * **Lấy số bản ghi tối đa của một trang keyset**
+   *
+   * @return `Limit` theo `pageSize`.
+   */
+  public Limit limit() {
+    pageSize = (pageSize == null || pageSize <= 0) ? 200 : pageSize;
+    return Limit.of(pageSize);
+  }
+
   /**
    * **Chuyển đổi chuỗi `sort` thành `Sort` object**
    *
@@ -89,18 +146,19 @@ public class PagingParameter {
     String[] part = sort.split("_");
     for (String s : part) {
       String[] tmp = s.split(":");
-      String property = tmp[0].trim();
-      String direction = tmp[1].trim();
       if (tmp.length == 2) {
+        String property = tmp[0].trim();
+        String direction = tmp[1].trim();
         String column = nativeQuery ? getColumnName(clazz, property) : property;
         if (srt == null) {
           srt =
               Sort.by(
                   Sort.Direction.fromString(direction), column);
         } else {
-          srt.and(
-              Sort.by(
-                  Sort.Direction.fromString(direction), column));
+          srt =
+              srt.and(
+                  Sort.by(
+                      Sort.Direction.fromString(direction), column));
         }
       }
     }
@@ -116,31 +174,45 @@ public class PagingParameter {
    * @throws IllegalArgumentException Nếu không tìm thấy field trong entity.
    */
   private String getColumnName(Class<?> clazz, String fieldName) {
-    Field field = findField(clazz, fieldName);
-    if (field == null) {
-      throw new IllegalArgumentException("Field không tồn tại: " + fieldName);
-    }
-    Column column = field.getAnnotation(Column.class);
+    Column column = field(clazz, fieldName).getAnnotation(Column.class);
     return (column != null)
         ? column.name()
         : fieldName; // Nếu không có @Column, dùng chính tên field
   }
 
   /**
-   * **Tìm kiếm field trong class hoặc các class cha**
+   * **Tìm field trong class hoặc các class cha**
+   *
+   * <p>Danh sách field của mỗi class được duyệt một lần rồi cache lại, nên mỗi request chỉ tốn
+   * một lần tra cứu `Map`.</p>
    *
    * @param clazz     Class của entity.
    * @param fieldName Tên thuộc tính cần tìm.
-   * @return Đối tượng `Field` nếu tìm thấy, ngược lại trả về `null`.
+   * @return Đối tượng `Field` tương ứng.
+   * @throws IllegalArgumentException Nếu không tìm thấy field trong entity.
+   */
+  static Field field(Class<?> clazz, String fieldName) {
+    Field field = FIELDS.computeIfAbsent(clazz, PagingParameter::findFields).get(fieldName);
+    if (field == null) {
+      throw new IllegalArgumentException("Field không tồn tại: " + fieldName);
+    }
+    return field;
+  }
+
+  /**
+   * **Lấy toàn bộ field của class và các class cha**
+   *
+   * @param clazz Class của entity.
+   * @return Map tên thuộc tính → `Field`; field của class con che field cùng tên của class cha.
    */
-  private Field findField(Class<?> clazz, String fieldName) {
+  private static Map<String, Field> findFields(Class<?> clazz) {
+    Map<String, Field> fields = new HashMap<>();
     while (clazz != null) {
-      try {
-        return clazz.getDeclaredField(fieldName);
-      } catch (NoSuchFieldException e) {
-        clazz = clazz.getSuperclass();
+      for (Field field : clazz.getDeclaredFields()) {
+        fields.putIfAbsent(field.getName(), field);
       }
+      clazz = clazz.getSuperclass();
     }
-    return null;
+    return fields;
   }
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 
 /**
  * **Lớp `ResponsePage` - Định dạng phản hồi phân trang cho API**
@@ -124,4 +125,51 @@ public class ResponsePage<T> {
   public ResponsePage(Page page, List<T> data) {
     this(page.getNumber() + 1, page.getSize(), page.getTotalElements(), page.getTotalPages(), data);
   }
+
+  /**
+   * **Constructor khởi tạo `ResponsePage` từ một trang keyset (`Window<T>`)**
+   *
+   * <p>Không chạy `COUNT(*)`; `pageInfo.nextCursor` là cursor để client lấy trang tiếp theo.</p>
+   * <p>
+   * **📌 Ví dụ sử dụng:**
+   * <pre>
+   * {@code
+   * Window<WorkflowDef> window = workflowDefRepository.findByDeletedFalse(
+   *     pagingParameter.scrollPosition(WorkflowDef.class),
+   *     pagingParameter.sort(),
+   *     pagingParameter.limit());
+   * ResponsePage<WorkflowDef> response = new ResponsePage<>(window, pagingParameter);
+   * }
+   * </pre>
+   *
+   * @param window          Trang keyset trả về từ repository.
+   * @param pagingParameter Tham số phân trang của request.
+   */
+  public ResponsePage(Window<T> window, PagingParameter pagingParameter) {
+    this(window, window.getContent(), pagingParameter, null);
+  }
+
+  /**
+   * **Constructor hỗ trợ khởi tạo từ `Window<T>`, danh sách dữ liệu tùy chỉnh và tổng số bản ghi**
+   *
+   * <p>`totalCount` là tùy chọn: truyền `null` để bỏ qua, kết quả `COUNT(*)` khi
+   * `pagingParameter.isWithTotal()`, hoặc giá trị ước lượng từ thống kê của planner
+   * ({@link RowCountEstimator}).</p>
+   *
+   * @param window          Trang keyset trả về từ repository.
+   * @param data            Danh sách dữ liệu tùy chỉnh (có thể đã qua ánh xạ DTO).
+   * @param pagingParameter Tham số phân trang của request.
+   * @param totalCount      Tổng số bản ghi, có thể `null`.
+   */
+  public ResponsePage(
+      Window<?> window, List<T> data, PagingParameter pagingParameter, Long totalCount) {
+    String nextCursor =
+        window.hasNext() && !window.isEmpty()
+            ? PageCursor.encode(window.positionAt(window.size() - 1), pagingParameter.getSort())
+            : null;
+    this.pageInfo =
+        new PageInfo(
+            null, pagingParameter.getPageSize(), totalCount, null, nextCursor, window.hasNext());
+    this.data = data;
+  }
 }
@@ -0,0 +1,44 @@
+package com.flowhub.base.data;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * **Ước lượng số bản ghi của bảng từ thống kê của planner (`RowCountEstimator`)**
+ *
+ * <p>Đọc `pg_class.reltuples` (được `ANALYZE`/autovacuum cập nhật) thay vì chạy `COUNT(*)`, nên
+ * chi phí không phụ thuộc kích thước bảng. Bảng partition được cộng dồn `reltuples` của các
+ * partition con, vì bảng cha không có thống kê riêng.</p>
+ *
+ * <pre>
+ * 📌 Lưu ý:
+ * - Giá trị là ước lượng toàn bảng, không áp dụng điều kiện lọc của câu truy vấn.
+ * - Bảng chưa từng được `ANALYZE` trả về 0.
+ * </pre>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class RowCountEstimator {
+
+  private static final String ESTIMATE_QUERY =
+      "select coalesce(sum(greatest(c.reltuples, 0)), 0)::bigint from pg_class c "
+          + "where c.oid = to_regclass(?) "
+          + "or c.oid in (select i.inhrelid from pg_inherits i where i.inhparent = to_regclass(?))";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * **Ước lượng số bản ghi của một bảng**
+   *
+   * @param table Tên bảng, có thể kèm schema.
+   * @return Số bản ghi ước lượng.
+   */
+  public long estimate(String table) {
+    Long rows = jdbcTemplate.queryForObject(ESTIMATE_QUERY, Long.class, table, table);
+    return rows == null ? 0 : rows;
+  }
+}
@@ -0,0 +1,106 @@
+package com.flowhub.base.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * **Cấu hình tách đọc/ghi với read replica (`ReplicaDataSourceConfig`)**
+ *
+ * <p>Chỉ bật khi `custom.properties.datasource.replica.enabled=true`; mặc định Spring Boot vẫn
+ * tạo một pool duy nhất từ `spring.datasource.*`.</p>
+ *
+ * <ul>
+ *   <li>✅ `primaryDataSource`: pool Hikari từ `spring.datasource.*`, nhận mọi giao dịch ghi.</li>
+ *   <li>✅ `replicaDataSource`: pool Hikari riêng từ `custom.properties.datasource.replica.*`, có
+ *   metric `hikaricp.*` riêng theo `poolName`.</li>
+ *   <li>✅ `dataSource` (`@Primary`): `LazyConnectionDataSourceProxy` chỉ lấy kết nối thật ở câu
+ *   lệnh đầu tiên, sau khi giao dịch `@Transactional(readOnly = true)` đã đặt cờ `readOnly`, và
+ *   chuyển các kết nối đó sang {@link ReplicaRoutingDataSource}.</li>
+ * </ul>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(
+    prefix = "custom.properties.datasource.replica",
+    name = "enabled",
+    havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+    return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @ConfigurationProperties("custom.properties.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties dataSourceProperties,
+      @Value("${custom.properties.datasource.replica.url}") String url,
+      @Value("${custom.properties.datasource.replica.username}") String username,
+      @Value("${custom.properties.datasource.replica.password}") String password) {
+    return DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .driverClassName(dataSourceProperties.getDriverClassName())
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+  }
+
+  @Bean
+  public ReplicaLagGuard replicaLagGuard(
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${custom.properties.datasource.replica.lag-query:}") String lagQuery,
+      @Value("${custom.properties.datasource.replica.max-lag:5S}") Duration maxLag,
+      MeterRegistry meterRegistry) {
+    ReplicaLagGuard replicaLagGuard =
+        new ReplicaLagGuard(
+            replicaDataSource,
+            StringUtils.isBlank(lagQuery) ? ReplicaLagGuard.POSTGRES_LAG_QUERY : lagQuery,
+            maxLag,
+            meterRegistry);
+    replicaLagGuard.check();
+    return replicaLagGuard;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReplicaLagGuard replicaLagGuard) {
+    return routingDataSource(primaryDataSource, replicaDataSource, replicaLagGuard);
+  }
+
+  /**
+   * **Tạo DataSource tách đọc/ghi**
+   *
+   * @param primaryDataSource DataSource ghi.
+   * @param replicaDataSource DataSource của replica.
+   * @param replicaLagGuard   Bộ kiểm tra độ trễ của replica.
+   * @return DataSource định tuyến theo cờ `readOnly` của kết nối.
+   */
+  public static DataSource routingDataSource(
+      DataSource primaryDataSource, DataSource replicaDataSource, ReplicaLagGuard replicaLagGuard) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(
+        new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagGuard));
+    return dataSource;
+  }
+}
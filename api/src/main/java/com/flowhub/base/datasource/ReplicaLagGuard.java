@@ -0,0 +1,92 @@
+package com.flowhub.base.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * **Theo dõi độ trễ của replica (`ReplicaLagGuard`)**
+ *
+ * <p>Định kỳ đo độ trễ replay của replica bằng `lagQuery` (trả về số giây). Replica chỉ được dùng
+ * khi lần đo gần nhất thành công và độ trễ không vượt quá `maxLag`; nếu không, các giao dịch
+ * `readOnly` quay về primary cho tới lần đo kế tiếp.</p>
+ *
+ * <p>Metric: `flowhub.datasource.replica.lag` (giây) và `flowhub.datasource.replica.usable`
+ * (1/0).</p>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+public class ReplicaLagGuard {
+
+  /**
+   * Độ trễ mặc định trên PostgreSQL; bằng 0 khi replica đã replay hết WAL nhận được, để primary
+   * rảnh không bị tính là trễ.
+   */
+  public static final String POSTGRES_LAG_QUERY =
+      "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+          + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+  private final JdbcTemplate replicaJdbcTemplate;
+
+  private final String lagQuery;
+
+  private final Duration maxLag;
+
+  private volatile double lagSeconds = -1;
+
+  private volatile boolean replicaUsable;
+
+  public ReplicaLagGuard(
+      DataSource replicaDataSource, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+    this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+    this.replicaJdbcTemplate.setQueryTimeout(1);
+    this.lagQuery = lagQuery;
+    this.maxLag = maxLag;
+    Gauge.builder("flowhub.datasource.replica.lag", this, guard -> guard.lagSeconds)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("flowhub.datasource.replica.usable", this, guard -> guard.replicaUsable ? 1 : 0)
+        .register(meterRegistry);
+  }
+
+  /**
+   * **Replica có được dùng cho giao dịch chỉ đọc hay không**
+   *
+   * @return `true` nếu lần đo gần nhất thành công và độ trễ nằm trong giới hạn.
+   */
+  public boolean isReplicaUsable() {
+    return replicaUsable;
+  }
+
+  /**
+   * **Đo lại độ trễ của replica**
+   *
+   * <p>Replica không truy cập được cũng bị coi là không dùng được.</p>
+   */
+  @Scheduled(fixedDelayString = "${custom.properties.datasource.replica.lag-check-interval:1000}")
+  public void check() {
+    boolean usable;
+    try {
+      Double lag = replicaJdbcTemplate.queryForObject(lagQuery, Double.class);
+      lagSeconds = lag == null ? 0 : lag;
+      usable = lagSeconds * 1000 <= maxLag.toMillis();
+    } catch (Exception e) {
+      lagSeconds = -1;
+      usable = false;
+      log.debug("Failed to check replica lag", e);
+    }
+    if (usable != replicaUsable) {
+      log.warn(
+          "Replica {} for read-only transactions (lag: {}s)",
+          usable ? "enabled" : "disabled",
+          lagSeconds);
+    }
+    replicaUsable = usable;
+  }
+}
@@ -0,0 +1,39 @@
+package com.flowhub.base.datasource;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * **DataSource cho giao dịch chỉ đọc (`ReplicaRoutingDataSource`)**
+ *
+ * <p>Trả về kết nối tới replica khi {@link ReplicaLagGuard} cho phép, ngược lại tới primary.
+ * Được dùng làm `readOnlyDataSource` của `LazyConnectionDataSourceProxy`, nên chỉ được hỏi khi
+ * giao dịch đã được đánh dấu `readOnly`.</p>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final ReplicaLagGuard replicaLagGuard;
+
+  public ReplicaRoutingDataSource(
+      DataSource primaryDataSource, DataSource replicaDataSource, ReplicaLagGuard replicaLagGuard) {
+    this.replicaLagGuard = replicaLagGuard;
+    setTargetDataSources(
+        Map.of(Target.PRIMARY, primaryDataSource, Target.REPLICA, replicaDataSource));
+    setDefaultTargetDataSource(primaryDataSource);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return replicaLagGuard.isReplicaUsable() ? Target.REPLICA : Target.PRIMARY;
+  }
+
+  enum Target {
+    PRIMARY,
+    REPLICA
+  }
+}
@@ -58,6 +58,9 @@ public class MessageInterceptor {
   @SuppressWarnings("rawtypes")
   private final KafkaTemplate kafkaTemplate;
 
+  /** Các topic retry theo tầng** */
+  private final RetriesTopics retriesTopics;
+
   /** Tên topic Kafka cho các sự kiện retry (lấy từ file cấu hình)** */
   @Value("${custom.properties.kafka.topic.retries-event.name}")
   private String retriesEventTopic;
@@ -93,14 +96,41 @@ public class MessageInterceptor {
   public void convertAndSendRetriesEvent(RetriesMessageData payload) {
     log.info(LOG_START, retriesEventTopic, payload.getMessageId(), JsonUtils.toJson(payload));
     if (payload.getStatus().equals(RetriesMessageData.RetriesMessageDataStatus.INSERT)) {
-      payload.setSource(BusinessApplication.getApplicationName().toUpperCase());
-      payload.setDestination(
-          String.format("%s.%s.%s", payload.getTopic(), payload.getSource(), "RETRIES"));
+      this.setRetriesDestination(payload);
     }
     kafkaTemplate.send(retriesEventTopic, payload.getMessageId(), JsonUtils.toJson(payload));
     log.info(LOG_END, retriesEventTopic, payload.getMessageId());
   }
 
+  /**
+   * **Gửi lần thử tiếp theo vào topic retry theo tầng (`convertAndSendRetriesTier`)**
+   *
+   * <p>Không qua topic `RETRIES_EVENT`: tin nhắn được gửi thẳng vào topic tầng ứng với độ trễ của
+   * lần thử, hoặc vào topic dead-letter khi đã vượt `repeatCount` (xem {@link RetriesTopics}).</p>
+   *
+   * @param payload Tin nhắn retry giữ đầy đủ nội dung.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void convertAndSendRetriesTier(RetriesMessageData payload) {
+    if (payload.getDestination() == null) {
+      this.setRetriesDestination(payload);
+    }
+    String queueName = retriesTopics.route(payload);
+    var payloadJson = JsonUtils.toJson(payload);
+    log.info(LOG_START, queueName, payload.getMessageId(), payloadJson);
+    kafkaTemplate.send(
+        queueName,
+        payload.getMessageKey() != null ? payload.getMessageKey() : payload.getOriginMessageId(),
+        payloadJson);
+    log.info(LOG_END, queueName, payload.getMessageId());
+  }
+
+  private void setRetriesDestination(RetriesMessageData<?> payload) {
+    payload.setSource(BusinessApplication.getApplicationName().toUpperCase());
+    payload.setDestination(
+        String.format("%s.%s.%s", payload.getTopic(), payload.getSource(), "RETRIES"));
+  }
+
   /**
    * **Gửi tin nhắn tới Kafka topic (`convertAndSend`)**
    *
@@ -180,7 +210,10 @@ public class MessageInterceptor {
   public void convertAndSend(RetriesMessageData payload) {
     var payloadJson = JsonUtils.toJson(payload);
     log.info(LOG_START, payload.getDestination(), payload.getMessageId(), payloadJson);
-    kafkaTemplate.send(payload.getDestination(), payload.getOriginMessageId(), payloadJson);
+    kafkaTemplate.send(
+        payload.getDestination(),
+        payload.getMessageKey() != null ? payload.getMessageKey() : payload.getOriginMessageId(),
+        payloadJson);
     log.info(LOG_END, payload.getDestination(), payload.getMessageId());
   }
 }
\ No newline at end of file
@@ -3,7 +3,15 @@ package com.flowhub.base.event;
 import jakarta.annotation.PostConstruct;
 
 import java.lang.reflect.ParameterizedType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.ThreadContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,6 +65,12 @@ public abstract class MessageListener<T> {
   /** Interceptor để gửi tin nhắn retry khi có lỗi xảy ra** */
   protected MessageInterceptor messageInterceptor;
 
+  /** Các topic retry theo tầng; `null` thì retry qua topic `RETRIES_EVENT`** */
+  protected RetriesTopics retriesTopics;
+
+  /** Offset của bản ghi chưa đến hạn mà mỗi phân vùng tầng đang chờ** */
+  private final Map<TopicPartition, Long> deferredOffsets = new ConcurrentHashMap<>();
+
   /**
    * **Inject `MessageInterceptor` để hỗ trợ gửi tin nhắn retry**
    *
@@ -77,6 +91,16 @@ public abstract class MessageListener<T> {
     this.historyMessageRepository = historyMessageRepository;
   }
 
+  /**
+   * **Inject `RetriesTopics` để retry qua các topic theo tầng**
+   *
+   * @param retriesTopics Các topic retry theo tầng.
+   */
+  @Autowired
+  public final void setRetriesTopics(RetriesTopics retriesTopics) {
+    this.retriesTopics = retriesTopics;
+  }
+
   /**
    * **Kiểm tra kiểu dữ liệu generic được hỗ trợ**
    *
@@ -131,6 +155,33 @@ public abstract class MessageListener<T> {
       Acknowledgment acknowledgment,
       long delayTime,
       Integer repeatCount) {
+    messageListener(data, null, topic, partition, offset, acknowledgment, delayTime, repeatCount);
+  }
+
+  /**
+   * **Lắng nghe và xử lý tin nhắn từ Kafka kèm khóa phân vùng (`messageListener`)**
+   *
+   * <p>Khóa của bản ghi gốc được giữ lại trong tin nhắn retry để lần xử lý lại vẫn rơi vào cùng
+   * phân vùng với các sự kiện khác của cùng một thực thể (ví dụ cùng một luồng công việc).</p>
+   *
+   * @param data           Dữ liệu tin nhắn từ Kafka.
+   * @param key            Khóa phân vùng của bản ghi (có thể `null`).
+   * @param topic          Tên Kafka topic.
+   * @param partition      Phân vùng Kafka.
+   * @param offset         Vị trí tin nhắn trong Kafka.
+   * @param acknowledgment Đối tượng xác nhận tin nhắn đã nhận.
+   * @param delayTime      Thời gian delay nếu cần retry.
+   * @param repeatCount    Số lần thử lại khi gặp lỗi.
+   */
+  public void messageListener(
+      String data,
+      String key,
+      String topic,
+      String partition,
+      String offset,
+      Acknowledgment acknowledgment,
+      long delayTime,
+      Integer repeatCount) {
     this.initListener(topic, partition, offset, data);
     MessageData<T> input =
         JsonUtils.fromJson(data, MessageData.class, this.getMessageContentType());
@@ -149,7 +200,83 @@ public abstract class MessageListener<T> {
       log.info("[KafkaConsumer][{}][{}][{}] Processed successfully!", topic, partition, offset);
     } catch (Exception e) {
       log.error("[KafkaConsumer][{}][{}][{}] Exception occurred: ", topic, partition, offset, e);
-      handleRetry(input, topic, delayTime, repeatCount);
+      handleRetry(input, key, topic, delayTime, repeatCount);
+    } finally {
+      acknowledgment.acknowledge();
+      ThreadContext.clearAll();
+    }
+  }
+
+  /**
+   * **Lắng nghe và xử lý một lô tin nhắn từ Kafka (`batchMessageListener`)**
+   *
+   * <p>Toàn bộ lô được giao cho `handleMessageEvents()` để xử lý trong một lần. Nếu lớp con không
+   * hỗ trợ xử lý theo lô hoặc lô bị lỗi, từng tin nhắn được xử lý lại riêng lẻ qua
+   * `handleMessageEvent()`, tin nhắn lỗi được đưa vào hàng đợi retry mà không ảnh hưởng tới các tin
+   * nhắn khác. Offset chỉ được xác nhận một lần cho cả lô.</p>
+   *
+   * @param records        Các bản ghi Kafka trong lần poll.
+   * @param acknowledgment Đối tượng xác nhận tin nhắn đã nhận.
+   * @param delayTime      Thời gian delay nếu cần retry.
+   * @param repeatCount    Số lần thử lại khi gặp lỗi.
+   */
+  public void batchMessageListener(
+      List<ConsumerRecord<String, String>> records,
+      Acknowledgment acknowledgment,
+      long delayTime,
+      Integer repeatCount) {
+    List<ConsumerRecord<String, String>> accepted = new ArrayList<>(records.size());
+    List<MessageData<T>> inputs = new ArrayList<>(records.size());
+    try {
+      for (ConsumerRecord<String, String> consumerRecord : records) {
+        String topic = consumerRecord.topic();
+        String partition = String.valueOf(consumerRecord.partition());
+        String offset = String.valueOf(consumerRecord.offset());
+        this.initListener(topic, partition, offset, consumerRecord.value());
+        MessageData<T> input =
+            JsonUtils.fromJson(
+                consumerRecord.value(), MessageData.class, this.getMessageContentType());
+        if (input == null) {
+          log.info("[KafkaConsumer][{}][{}][{}] Ignored invalid message", topic, partition, offset);
+          continue;
+        }
+        if (StringUtils.isBlank(input.getMessageId())) {
+          input.updateMessageId(String.format("%s_%s_%s", topic, partition, offset));
+        }
+        if (isDuplicateMessage(input.getMessageId(), topic)) {
+          continue;
+        }
+        accepted.add(consumerRecord);
+        inputs.add(input);
+      }
+      if (inputs.isEmpty()) {
+        return;
+      }
+      String topic = accepted.get(0).topic();
+      try {
+        if (this.handleMessageEvents(topic, inputs)) {
+          log.info("[KafkaConsumer][{}] Processed batch of {} successfully!", topic, inputs.size());
+          return;
+        }
+      } catch (Exception e) {
+        log.error("[KafkaConsumer][{}] Batch of {} failed, processing one by one: ",
+                  topic,
+                  inputs.size(),
+                  e);
+      }
+      for (int i = 0; i < inputs.size(); i++) {
+        ConsumerRecord<String, String> consumerRecord = accepted.get(i);
+        String partition = String.valueOf(consumerRecord.partition());
+        String offset = String.valueOf(consumerRecord.offset());
+        try {
+          this.handleMessageEvent(topic, partition, offset, inputs.get(i));
+          log.info("[KafkaConsumer][{}][{}][{}] Processed successfully!", topic, partition, offset);
+        } catch (Exception e) {
+          log.error("[KafkaConsumer][{}][{}][{}] Exception occurred: ", topic, partition, offset,
+                    e);
+          handleRetry(inputs.get(i), consumerRecord.key(), topic, delayTime, repeatCount);
+        }
+      }
     } finally {
       acknowledgment.acknowledge();
       ThreadContext.clearAll();
@@ -190,6 +317,81 @@ public abstract class MessageListener<T> {
     }
   }
 
+  /**
+   * **Xử lý tin nhắn retry, kể cả từ các topic retry theo tầng**
+   *
+   * <p>Tin nhắn từ topic tầng đến hạn tại `timestamp` cộng độ trễ của tầng. Chưa đến hạn thì
+   * consumer `seek` lại bản ghi và chỉ phân vùng này bị tạm dừng tới hạn, bản ghi không được xác
+   * nhận. Các bản ghi sau nó trong cùng lần poll vẫn được giao tới đây; chúng bị bỏ qua và vị trí
+   * được `seek` lại về bản ghi đang chờ, nên không bản ghi nào bị mất. Lỗi thì lần thử tiếp theo
+   * được gửi vào tầng kế tiếp hoặc topic dead-letter. Tin nhắn từ topic retry thường được xử lý như
+   * `messageRetriesListener()` ở trên.</p>
+   *
+   * @param data           Dữ liệu tin nhắn từ Kafka.
+   * @param topic          Tên Kafka topic.
+   * @param partition      Phân vùng Kafka.
+   * @param offset         Vị trí tin nhắn trong Kafka.
+   * @param timestamp      Thời điểm bản ghi được ghi vào topic (epoch milliseconds).
+   * @param acknowledgment Đối tượng xác nhận tin nhắn đã nhận.
+   * @param consumer       Consumer đang xử lý bản ghi, dùng để `seek` lại bản ghi chưa đến hạn.
+   */
+  public void messageRetriesListener(
+      String data,
+      String topic,
+      String partition,
+      String offset,
+      long timestamp,
+      Acknowledgment acknowledgment,
+      Consumer<?, ?> consumer) {
+    long tierDelay = retriesTopics == null ? -1 : retriesTopics.delayOf(topic);
+    if (tierDelay < 0) {
+      messageRetriesListener(data, topic, partition, offset, acknowledgment);
+      return;
+    }
+    TopicPartition topicPartition = new TopicPartition(topic, Integer.parseInt(partition));
+    long recordOffset = Long.parseLong(offset);
+    Long deferredOffset = deferredOffsets.get(topicPartition);
+    if (deferredOffset != null && recordOffset > deferredOffset) {
+      // phần còn lại của lần poll: seek về bản ghi đang chờ thay vì ghi đè vị trí đã seek
+      consumer.seek(topicPartition, deferredOffset);
+      return;
+    }
+    long wait = timestamp + tierDelay - System.currentTimeMillis();
+    if (wait > 0) {
+      consumer.seek(topicPartition, recordOffset);
+      deferredOffsets.put(topicPartition, recordOffset);
+      retriesTopics.pause(topicPartition, Duration.ofMillis(wait));
+      return;
+    }
+    deferredOffsets.remove(topicPartition);
+    this.initListener(topic, partition, offset, data);
+    RetriesMessageData<T> retryMessage =
+        JsonUtils.fromJson(data, RetriesMessageData.class, this.getMessageContentType());
+    if (isNotValidMessage(retryMessage, topic, partition, offset, acknowledgment)) {
+      return;
+    }
+    MessageData<T> retryData = retryMessage.getData();
+    if (isNotValidMessage(retryData, topic, partition, offset, acknowledgment)) {
+      return;
+    }
+    try {
+      if (isDuplicateMessage(retryMessage.getMessageId(), topic)) {
+        return;
+      }
+      handleMessageEvent(topic, partition, offset, retryData);
+      log.info("[KafkaConsumer][{}][{}][{}] Retries processed successfully!",
+               topic,
+               partition,
+               offset);
+    } catch (Exception e) {
+      log.error("[KafkaConsumer][{}][{}][{}] Retry failed", topic, partition, offset, e);
+      messageInterceptor.convertAndSendRetriesTier(retryMessage.nextAttempt());
+    } finally {
+      acknowledgment.acknowledge();
+      ThreadContext.clearAll();
+    }
+  }
+
   /**
    * **Kiểm tra tin nhắn có hợp lệ không**
    */
@@ -220,14 +422,20 @@ public abstract class MessageListener<T> {
   /**
    * **Xử lý retry khi gặp lỗi**
    */
-  private void handleRetry(MessageData<T> input, String topic, long delayTime,
+  private void handleRetry(MessageData<T> input, String key, String topic, long delayTime,
                            Integer repeatCount) {
     if (repeatCount > 0) {
-      messageInterceptor.convertAndSendRetriesEvent(new RetriesMessageData<>(input.getMessageId(),
-                                                                             input,
-                                                                             topic,
-                                                                             delayTime,
-                                                                             repeatCount));
+      RetriesMessageData<T> retriesMessage = new RetriesMessageData<>(input.getMessageId(),
+                                                                      input,
+                                                                      topic,
+                                                                      delayTime,
+                                                                      repeatCount);
+      retriesMessage.setMessageKey(key);
+      if (retriesTopics != null && retriesTopics.isEnabled()) {
+        messageInterceptor.convertAndSendRetriesTier(retriesMessage);
+      } else {
+        messageInterceptor.convertAndSendRetriesEvent(retriesMessage);
+      }
     }
   }
 
@@ -259,6 +467,21 @@ public abstract class MessageListener<T> {
   protected abstract void handleMessageEvent(
       String topic, String partition, String offset, MessageData<T> input);
 
+  /**
+   * **Xử lý một lô tin nhắn trong một lần (`handleMessageEvents`)**
+   *
+   * <p>Lớp con ghi đè phương thức này khi có thể xử lý cả lô một cách nguyên tử (ví dụ trong một
+   * transaction). Nếu phương thức ném ngoại lệ thì không được để lại thay đổi nào, vì từng tin nhắn
+   * sẽ được xử lý lại riêng lẻ.</p>
+   *
+   * @param topic  Tên Kafka topic.
+   * @param inputs Các tin nhắn cần xử lý, theo thứ tự nhận được.
+   * @return `true` nếu cả lô đã được xử lý, `false` để xử lý từng tin nhắn riêng lẻ.
+   */
+  protected boolean handleMessageEvents(String topic, List<MessageData<T>> inputs) {
+    return false;
+  }
+
   /**
    * **Lấy kiểu dữ liệu của tin nhắn (`T`)**
    *
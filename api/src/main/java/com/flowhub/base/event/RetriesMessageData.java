@@ -49,6 +49,9 @@ public class RetriesMessageData<T> {
   /** Tên Kafka topic chứa tin nhắn cần retry** */
   private String topic;
 
+  /** Khóa phân vùng Kafka của tin nhắn gốc, dùng lại khi gửi retry để giữ thứ tự** */
+  private String messageKey;
+
   /** Nguồn phát sinh tin nhắn (service name hoặc module name)** */
   private String source;
 
@@ -151,6 +154,21 @@ public class RetriesMessageData<T> {
     return this;
   }
 
+  /**
+   * **Chuyển sang lần thử tiếp theo mà vẫn giữ nội dung (`nextAttempt`)**
+   *
+   * <p>Khác với `incrementRetriesNo()`, tin nhắn giữ nguyên dữ liệu và điểm đến vì nó được gửi
+   * thẳng sang topic retry theo tầng, không qua dịch vụ retry.</p>
+   *
+   * @return Đối tượng `RetriesMessageData` đã được cập nhật.
+   */
+  public RetriesMessageData<T> nextAttempt() {
+    this.messageId = String.valueOf(Snowflake.getInstance().nextId());
+    this.retriesNo = this.retriesNo + 1;
+    this.preExecuteAt = LocalDateTime.now();
+    return this;
+  }
+
   /**
    * **Xóa tin nhắn retry (`deleteRetries`)**
    *
@@ -0,0 +1,143 @@
+package com.flowhub.base.event;
+
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * **Lưu trữ bền vững các tin nhắn retry (`RetriesMessageStore`)**
+ *
+ * <p>Mỗi tin nhắn gốc cần retry là một dòng của `tbl_retries_message`, khóa theo
+ * `origin_message_id`. Dòng giữ nguyên JSON của bản ghi `INSERT`, lần thử hiện tại và thời điểm
+ * gửi lại (`due_at`, epoch milliseconds).</p>
+ * <p>
+ * **📌 Nhận dòng đến hạn giữa nhiều instance:**
+ * <ul>
+ *   <li>📌 `claim()` khóa các dòng đến hạn bằng `FOR UPDATE SKIP LOCKED` và ghi `lease_owner`,
+ *   `lease_until`, nên các instance nhận các dòng khác nhau.</li>
+ *   <li>📌 Lease hết hạn (instance dừng) thì dòng được instance khác nhận lại.</li>
+ *   <li>📌 Sau khi gửi, `due_at` được lùi tới hạn chờ kết quả: nếu listener không báo `UPDATE`
+ *   hay `DELETE` trước hạn đó, tin nhắn được gửi lại.</li>
+ * </ul>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public class RetriesMessageStore {
+
+  static final String TABLE = "tbl_retries_message";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public RetriesMessageStore(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** **Tạo bảng và chỉ mục theo `due_at` nếu chưa có** */
+  public void createTable() {
+    jdbcTemplate.execute(
+        "create table if not exists " + TABLE + " (origin_message_id varchar(255) primary key, "
+            + "destination varchar(255) not null, retries_no int not null, "
+            + "repeat_count int not null, delay_time bigint not null, due_at bigint not null, "
+            + "lease_owner varchar(255), lease_until bigint, payload text not null, "
+            + "created_at timestamp not null default now())");
+    jdbcTemplate.execute(
+        "create index if not exists idx_retries_message_due_at on " + TABLE + " (due_at)");
+  }
+
+  /**
+   * **Lưu tin nhắn retry mới; bản ghi `INSERT` nhận lại lần hai không thay đổi gì**
+   */
+  public void insert(RetriesMessageData<?> retries, String payload, long dueAt) {
+    jdbcTemplate.update(
+        "insert into " + TABLE + " (origin_message_id, destination, retries_no, repeat_count, "
+            + "delay_time, due_at, payload) values (?, ?, ?, ?, ?, ?, ?) "
+            + "on conflict (origin_message_id) do nothing",
+        retries.getOriginMessageId(),
+        retries.getDestination(),
+        retries.getRetriesNo(),
+        retries.getRepeatCount(),
+        retries.getDelayTime(),
+        dueAt,
+        payload);
+  }
+
+  /**
+   * **Tìm giới hạn retry của một tin nhắn gốc**
+   *
+   * @return `null` nếu tin nhắn không còn được lưu
+   */
+  public Scheduled find(String originMessageId) {
+    List<Scheduled> rows =
+        jdbcTemplate.query(
+            "select retries_no, repeat_count, delay_time from " + TABLE
+                + " where origin_message_id = ?",
+            (rs, i) ->
+                new Scheduled(
+                    rs.getInt("retries_no"), rs.getInt("repeat_count"), rs.getLong("delay_time")),
+            originMessageId);
+    return rows.isEmpty() ? null : rows.get(0);
+  }
+
+  /**
+   * **Đặt lịch cho lần thử `retriesNo`; kết quả cũ hơn lần thử đã lưu bị bỏ qua**
+   */
+  public void reschedule(String originMessageId, int retriesNo, long dueAt) {
+    jdbcTemplate.update(
+        "update " + TABLE + " set retries_no = ?, due_at = ?, lease_owner = null, "
+            + "lease_until = null where origin_message_id = ? and retries_no < ?",
+        retriesNo,
+        dueAt,
+        originMessageId,
+        retriesNo);
+  }
+
+  public void delete(String originMessageId) {
+    jdbcTemplate.update("delete from " + TABLE + " where origin_message_id = ?", originMessageId);
+  }
+
+  /**
+   * **Nhận tối đa `limit` dòng đến hạn trước `dueBefore` mà không còn lease hiệu lực**
+   */
+  public List<Claimed> claim(String owner, long now, long dueBefore, long leaseUntil, int limit) {
+    return jdbcTemplate.query(
+        "update " + TABLE + " r set lease_owner = ?, lease_until = ? "
+            + "where r.origin_message_id in (select c.origin_message_id from " + TABLE + " c "
+            + "where c.due_at < ? and (c.lease_until is null or c.lease_until < ?) "
+            + "order by c.due_at limit ? for update skip locked) "
+            + "returning r.origin_message_id, r.destination, r.retries_no, r.due_at, r.payload",
+        (rs, i) ->
+            new Claimed(
+                rs.getString("origin_message_id"),
+                rs.getString("destination"),
+                rs.getInt("retries_no"),
+                rs.getLong("due_at"),
+                rs.getString("payload")),
+        owner,
+        leaseUntil,
+        dueBefore,
+        now,
+        limit);
+  }
+
+  /**
+   * **Ghi nhận đã gửi lần thử `retriesNo` và chờ kết quả tới `resultDeadline`**
+   *
+   * @return `false` nếu dòng đã bị xóa hoặc đã chuyển sang lần thử khác
+   */
+  public boolean markSent(String originMessageId, int retriesNo, long resultDeadline) {
+    return jdbcTemplate.update(
+            "update " + TABLE + " set due_at = ?, lease_owner = null, lease_until = null "
+                + "where origin_message_id = ? and retries_no = ?",
+            resultDeadline,
+            originMessageId,
+            retriesNo)
+        > 0;
+  }
+
+  /** Lần thử hiện tại, giới hạn và độ trễ gốc của một tin nhắn retry. */
+  public record Scheduled(int retriesNo, int repeatCount, long delayTime) {}
+
+  /** Dòng đã nhận, chờ tới `dueAt` để gửi lại. */
+  public record Claimed(
+      String originMessageId, String destination, int retriesNo, long dueAt, String payload) {}
+}
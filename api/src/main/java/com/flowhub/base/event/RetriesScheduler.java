@@ -0,0 +1,299 @@
+package com.flowhub.base.event;
+
+import com.flowhub.base.event.RetriesMessageStore.Claimed;
+import com.flowhub.base.event.RetriesMessageStore.Scheduled;
+import com.flowhub.base.utils.JsonUtils;
+import com.flowhub.base.utils.Snowflake;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * **Bộ lập lịch retry tích hợp (`RetriesScheduler`)**
+ *
+ * <p>Thay cho dịch vụ retry bên ngoài: lắng nghe topic `RETRIES_EVENT` mà
+ * {@link MessageInterceptor#convertAndSendRetriesEvent} ghi vào, lưu bền vững từng tin nhắn retry
+ * trong {@link RetriesMessageStore} và gửi lại về `destination` khi tới hạn.</p>
+ * <p>
+ * **📌 Cách hoạt động:**
+ * <ul>
+ *   <li>📌 `INSERT`: lưu tin nhắn, hạn gửi là `preExecuteAt` cộng độ trễ của lần thử đầu.</li>
+ *   <li>📌 `UPDATE`: lần thử trước lỗi; đặt lịch lần thử `retriesNo`, hoặc xóa khi đã vượt
+ *   `repeatCount`.</li>
+ *   <li>📌 `DELETE`: lần thử đã thành công, xóa tin nhắn.</li>
+ *   <li>📌 Độ trễ tăng theo cấp số nhân (`delayTime * 2^(retriesNo - 1)`, tối đa `max-delay`) và
+ *   được cộng jitter ngẫu nhiên trong nửa sau của khoảng, để các tin nhắn lỗi cùng lúc không
+ *   quay lại cùng lúc.</li>
+ * </ul>
+ * <p>
+ * **📌 Heap trong bộ nhớ:**
+ * <p>Chỉ các tin nhắn đến hạn trong `horizon` được nhận về một heap giới hạn `heap-capacity`
+ * phần tử, sắp theo hạn gửi; một luồng riêng ngủ tới hạn sớm nhất rồi gửi. Khi downstream lỗi
+ * hàng loạt, số dòng đọc từ DB mỗi lần nhận không vượt quá chỗ trống của heap.</p>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "custom.properties.retries.scheduler.enabled", havingValue = "true")
+public class RetriesScheduler implements ApplicationRunner, SmartLifecycle {
+
+  private final RetriesMessageStore retriesMessageStore;
+
+  private final MessageInterceptor messageInterceptor;
+
+  private final String owner;
+
+  private final Duration horizon;
+
+  private final Duration lease;
+
+  private final Duration resultTimeout;
+
+  private final Duration maxDelay;
+
+  private final int heapCapacity;
+
+  private final PriorityQueue<Claimed> heap =
+      new PriorityQueue<>(Comparator.comparingLong(Claimed::dueAt));
+
+  /** Tin nhắn đang nằm trong heap hoặc đang được gửi, để một lần nhận không thêm trùng** */
+  private final Set<String> held = new HashSet<>();
+
+  private volatile Thread thread;
+
+  public RetriesScheduler(
+      JdbcTemplate jdbcTemplate,
+      MessageInterceptor messageInterceptor,
+      @Value("${spring.application.name}") String applicationName,
+      @Value("${custom.properties.retries.scheduler.horizon:30S}") Duration horizon,
+      @Value("${custom.properties.retries.scheduler.lease:30S}") Duration lease,
+      @Value("${custom.properties.retries.scheduler.result-timeout:5M}") Duration resultTimeout,
+      @Value("${custom.properties.retries.scheduler.max-delay:1H}") Duration maxDelay,
+      @Value("${custom.properties.retries.scheduler.heap-capacity:10000}") int heapCapacity) {
+    this.retriesMessageStore = new RetriesMessageStore(jdbcTemplate);
+    this.messageInterceptor = messageInterceptor;
+    this.owner = applicationName + ":" + UUID.randomUUID();
+    this.horizon = horizon;
+    this.lease = lease;
+    this.resultTimeout = resultTimeout;
+    this.maxDelay = maxDelay;
+    this.heapCapacity = Math.max(1, heapCapacity);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    retriesMessageStore.createTable();
+  }
+
+  /**
+   * **Ghi nhận sự kiện retry**
+   *
+   * <p>Lỗi khi ghi DB được ném ra để Kafka giao lại bản ghi, vì mất bản ghi `INSERT` là mất luôn
+   * lần retry.</p>
+   */
+  @KafkaListener(
+      topics = "${custom.properties.kafka.topic.retries-event.name}",
+      groupId = "${custom.properties.messaging.kafka.groupId}",
+      containerFactory = "kafkaListenerContainerFactory")
+  public void retriesEventListener(
+      String data,
+      @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+      @Header(KafkaHeaders.RECEIVED_PARTITION) String partition,
+      @Header(KafkaHeaders.OFFSET) String offset,
+      Acknowledgment acknowledgment) {
+    RetriesMessageData<?> retries = JsonUtils.fromJson(data, RetriesMessageData.class);
+    if (retries == null
+        || retries.getOriginMessageId() == null
+        || retries.getStatus() == null) {
+      log.info("[RetriesScheduler][{}][{}][{}] Ignored invalid message", topic, partition, offset);
+    } else {
+      this.record(retries, data);
+    }
+    acknowledgment.acknowledge();
+  }
+
+  private void record(RetriesMessageData<?> retries, String data) {
+    String originMessageId = retries.getOriginMessageId();
+    switch (retries.getStatus()) {
+      case INSERT -> {
+        long delayTime = retries.getDelayTime() == null ? 0 : retries.getDelayTime();
+        retriesMessageStore.insert(
+            retries, data, dueAt(retries.getPreExecuteAt(), this.backoff(delayTime, 1)));
+      }
+      case UPDATE -> {
+        Scheduled scheduled = retriesMessageStore.find(originMessageId);
+        if (scheduled == null || retries.getRetriesNo() == null) {
+          return;
+        }
+        if (retries.getRetriesNo() > scheduled.repeatCount()) {
+          log.error(
+              "[RetriesScheduler] Message: {} failed after {} retries",
+              originMessageId,
+              scheduled.repeatCount());
+          retriesMessageStore.delete(originMessageId);
+          return;
+        }
+        retriesMessageStore.reschedule(
+            originMessageId,
+            retries.getRetriesNo(),
+            dueAt(
+                retries.getPreExecuteAt(),
+                this.backoff(scheduled.delayTime(), retries.getRetriesNo())));
+      }
+      case DELETE -> retriesMessageStore.delete(originMessageId);
+    }
+  }
+
+  /**
+   * **Nhận các tin nhắn đến hạn trong `horizon` vào heap, trong giới hạn chỗ trống của heap**
+   */
+  @org.springframework.scheduling.annotation.Scheduled(
+      fixedDelayString = "${custom.properties.retries.scheduler.claim.fixed-delay:1000}")
+  public void claim() {
+    int free;
+    synchronized (heap) {
+      free = heapCapacity - heap.size();
+    }
+    if (free <= 0) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    long dueBefore = now + horizon.toMillis();
+    List<Claimed> claimed =
+        retriesMessageStore.claim(owner, now, dueBefore, dueBefore + lease.toMillis(), free);
+    synchronized (heap) {
+      for (Claimed retries : claimed) {
+        if (held.add(retries.originMessageId())) {
+          heap.add(retries);
+        }
+      }
+      heap.notifyAll();
+    }
+  }
+
+  private void fire() {
+    while (!Thread.currentThread().isInterrupted()) {
+      List<Claimed> due = new ArrayList<>();
+      try {
+        synchronized (heap) {
+          long now = System.currentTimeMillis();
+          while (!heap.isEmpty() && heap.peek().dueAt() <= now) {
+            due.add(heap.poll());
+          }
+          if (due.isEmpty()) {
+            long next = heap.isEmpty() ? Long.MAX_VALUE : heap.peek().dueAt();
+            heap.wait(Math.clamp(next - now, 1, horizon.toMillis()));
+            continue;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      due.forEach(this::send);
+    }
+  }
+
+  /**
+   * **Gửi lại một tin nhắn về `destination` với `messageId` mới cho lần thử này**
+   */
+  @SuppressWarnings("rawtypes")
+  private void send(Claimed claimed) {
+    try {
+      RetriesMessageData retries = JsonUtils.fromJson(claimed.payload(), RetriesMessageData.class);
+      long now = System.currentTimeMillis();
+      if (retriesMessageStore.markSent(
+          claimed.originMessageId(), claimed.retriesNo(), now + resultTimeout.toMillis())) {
+        retries.setMessageId(String.valueOf(Snowflake.getInstance().nextId()));
+        retries.setRetriesNo(claimed.retriesNo());
+        retries.setPreExecuteAt(LocalDateTime.now());
+        messageInterceptor.convertAndSend(retries);
+      }
+    } catch (Exception e) {
+      log.error("[RetriesScheduler] Failed to send message: {}", claimed.originMessageId(), e);
+    } finally {
+      synchronized (heap) {
+        held.remove(claimed.originMessageId());
+      }
+    }
+  }
+
+  private long backoff(long delayTime, int retriesNo) {
+    return backoff(
+        delayTime, retriesNo, maxDelay.toMillis(), ThreadLocalRandom.current().nextDouble());
+  }
+
+  /**
+   * **Độ trễ của lần thử `retriesNo`: lũy thừa 2 có giới hạn, jitter trong nửa sau khoảng**
+   *
+   * @param random số ngẫu nhiên trong `[0, 1)`
+   */
+  static long backoff(long delayTime, int retriesNo, long maxDelay, double random) {
+    long capped = exponential(delayTime, retriesNo, maxDelay);
+    long half = capped / 2;
+    return half + (long) (random * (capped - half));
+  }
+
+  /**
+   * **Độ trễ `delayTime * 2^(retriesNo - 1)` của lần thử `retriesNo`, tối đa `maxDelay`**
+   */
+  static long exponential(long delayTime, int retriesNo, long maxDelay) {
+    int exponent = Math.min(Math.max(0, retriesNo - 1), 62);
+    long exponential = Math.max(0, delayTime) << exponent;
+    return exponential < 0 || (exponential >> exponent) != Math.max(0, delayTime)
+        ? maxDelay
+        : Math.min(maxDelay, exponential);
+  }
+
+  private static long dueAt(LocalDateTime preExecuteAt, long delay) {
+    long from =
+        preExecuteAt == null
+            ? System.currentTimeMillis()
+            : preExecuteAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    return from + delay;
+  }
+
+  @Override
+  public void start() {
+    Thread scheduler = new Thread(this::fire, "retries-scheduler");
+    scheduler.setDaemon(true);
+    scheduler.start();
+    this.thread = scheduler;
+  }
+
+  @Override
+  public void stop() {
+    Thread scheduler = this.thread;
+    this.thread = null;
+    if (scheduler != null) {
+      scheduler.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return thread != null;
+  }
+}
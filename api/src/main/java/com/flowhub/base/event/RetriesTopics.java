@@ -0,0 +1,151 @@
+package com.flowhub.base.event;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * **Các topic retry theo tầng (`RetriesTopics`)**
+ *
+ * <p>Mỗi topic retry của một listener (`destination`, dạng `<topic>.<SOURCE>.RETRIES`) được tách
+ * thành một topic cho mỗi tầng độ trễ (mặc định `1S`, `10S`, `1M`, `10M`), ví dụ
+ * `WORKFLOW_EVENT.FLOWHUB.RETRIES.10S`, cùng một topic dead-letter `<destination>.DLT`.</p>
+ * <p>
+ * **📌 Cách hoạt động:**
+ * <ul>
+ *   <li>📌 Lần thử `retriesNo` có độ trễ `delayTime * 2^(retriesNo - 1)` và được gửi vào tầng
+ *   nhỏ nhất không ngắn hơn độ trễ đó (tầng lớn nhất nếu độ trễ vượt mọi tầng), nên không lần thử
+ *   nào chạy sớm hơn độ trễ của nó.</li>
+ *   <li>📌 Trong một tầng mọi bản ghi có cùng độ trễ, nên bản ghi đầu phân vùng chưa đến hạn thì
+ *   các bản ghi sau cũng chưa: chỉ phân vùng đó được tạm dừng tới hạn, các phân vùng và tầng khác
+ *   vẫn được xử lý.</li>
+ *   <li>📌 Vượt quá `repeatCount` thì tin nhắn được gửi vào topic dead-letter.</li>
+ * </ul>
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class RetriesTopics {
+
+  private static final String DEAD_LETTER = "DLT";
+
+  private final String source;
+
+  private final boolean enabled;
+
+  private final List<Tier> tiers;
+
+  private final ListenerContainerRegistry listenerContainerRegistry;
+
+  private final ListenerContainerPauseService listenerContainerPauseService;
+
+  public RetriesTopics(
+      @Value("${spring.application.name}") String applicationName,
+      @Value("${custom.properties.retries.tiered.enabled:true}") boolean enabled,
+      @Value("${custom.properties.retries.tiered.tiers:1S,10S,1M,10M}") List<String> tiers,
+      ListenerContainerRegistry listenerContainerRegistry,
+      ListenerContainerPauseService listenerContainerPauseService) {
+    this.source = applicationName.toUpperCase();
+    this.enabled = enabled;
+    this.tiers =
+        tiers.stream()
+            .map(String::trim)
+            .map(name -> new Tier(name, DurationStyle.detectAndParse(name).toMillis()))
+            .sorted(Comparator.comparingLong(Tier::delay))
+            .toList();
+    if (this.tiers.isEmpty()) {
+      throw new IllegalArgumentException("At least one retries tier is required");
+    }
+    this.listenerContainerRegistry = listenerContainerRegistry;
+    this.listenerContainerPauseService = listenerContainerPauseService;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * **Các topic tầng nhận retry của một topic, dùng trong `@KafkaListener(topics = ...)`**
+   *
+   * @param topic Topic gốc mà listener lắng nghe.
+   * @return mảng rỗng khi retry theo tầng bị tắt
+   */
+  public String[] topics(String topic) {
+    if (!enabled) {
+      return new String[0];
+    }
+    String retriesTopic = String.format("%s.%s.%s", topic, source, "RETRIES");
+    return tiers.stream().map(tier -> retriesTopic + "." + tier.name()).toArray(String[]::new);
+  }
+
+  /**
+   * **Topic nhận lần thử tiếp theo của tin nhắn: topic tầng, hoặc dead-letter khi đã hết lượt**
+   */
+  public String route(RetriesMessageData<?> retries) {
+    if (retries.getRetriesNo() > retries.getRepeatCount()) {
+      return retries.getDestination() + "." + DEAD_LETTER;
+    }
+    Tier last = tiers.get(tiers.size() - 1);
+    long delay =
+        RetriesScheduler.exponential(
+            retries.getDelayTime() == null ? 0 : retries.getDelayTime(),
+            retries.getRetriesNo(),
+            last.delay());
+    Tier selected =
+        tiers.stream().filter(tier -> tier.delay() >= delay).findFirst().orElse(last);
+    return retries.getDestination() + "." + selected.name();
+  }
+
+  /**
+   * **Độ trễ của tầng mà topic thuộc về**
+   *
+   * @return `-1` nếu topic không phải topic tầng
+   */
+  public long delayOf(String topic) {
+    if (enabled) {
+      for (Tier tier : tiers) {
+        if (topic.endsWith("." + tier.name())) {
+          return tier.delay();
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * **Tạm dừng một phân vùng tới khi bản ghi đầu của nó đến hạn**
+   *
+   * <p>Gọi từ luồng của consumer sau khi đã `seek` lại bản ghi chưa đến hạn.</p>
+   */
+  public void pause(TopicPartition topicPartition, Duration duration) {
+    MessageListenerContainer container =
+        listenerContainerRegistry.getListenerContainers().stream()
+            .map(c -> c.getContainerFor(topicPartition.topic(), topicPartition.partition()))
+            .filter(c -> isAssigned(c, topicPartition))
+            .findFirst()
+            .orElse(null);
+    if (container == null) {
+      log.warn("[RetriesTopics] Not found container of partition: {}", topicPartition);
+      return;
+    }
+    listenerContainerPauseService.pausePartition(container, topicPartition, duration);
+  }
+
+  private static boolean isAssigned(
+      MessageListenerContainer container, TopicPartition topicPartition) {
+    return container.getAssignedPartitions() != null
+        && container.getAssignedPartitions().contains(topicPartition);
+  }
+
+  private record Tier(String name, long delay) {}
+}
@@ -57,7 +57,7 @@ public class Snowflake {
   /** Mốc thời gian tùy chỉnh (Epoch mặc định: 01-01-2015 00:00:00 UTC). */
   private static final long DEFAULT_CUSTOM_EPOCH = 1420070400000L;
 
-  private static Snowflake instance;
+  private static volatile Snowflake instance;
 
   /** Node ID đại diện cho máy chủ hiện tại. */
   private long nodeId;
@@ -78,10 +78,14 @@ public class Snowflake {
   /**
    * **Lấy Snowflake instance (Singleton), tự động tạo node ID.**
    *
+   * <p>Node ID chỉ được tính khi instance chưa tồn tại: việc duyệt các network interface tốn hàng
+   * mili giây, mà hàm này được gọi cho mỗi ID.</p>
+   *
    * @return Instance của Snowflake.
    */
   public static Snowflake getInstance() {
-    return getInstance(createNodeId());
+    Snowflake snowflake = instance;
+    return snowflake != null ? snowflake : getInstance(createNodeId());
   }
 
 
@@ -238,6 +242,19 @@ public class Snowflake {
     return new long[]{timestamp, extractNodeId, extractSequence};
   }
 
+  /**
+   * **Lấy ID nhỏ nhất có thể sinh ra tại một thời điểm.**
+   *
+   * <p>ID tăng theo thời gian nên giá trị này dùng được làm cận của một khoảng thời gian, ví dụ
+   * cận của partition theo range ID.</p>
+   *
+   * @param instant Thời điểm cần tính.
+   * @return ID nhỏ nhất tại `instant` (node ID và sequence bằng 0).
+   */
+  public long minIdAt(Instant instant) {
+    return (instant.toEpochMilli() - customEpoch) << (NODE_ID_BITS + SEQUENCE_BITS);
+  }
+
   @Override
   public String toString() {
     return "Snowflake Settings [EPOCH_BITS="
@@ -14,6 +14,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import com.flowhub.base.config.PersistenceConfig;
 import com.flowhub.base.utils.Snowflake;
 
@@ -29,6 +30,7 @@ import com.flowhub.base.utils.Snowflake;
 @ConfigurationPropertiesScan(basePackages = "com.flowhub")
 @EnableJpaRepositories(basePackages = "com.flowhub.business")
 @EnableSpringDataWebSupport
+@EnableScheduling
 @Import({PersistenceConfig.class})
 @SpringBootApplication
 public class BusinessApplication {
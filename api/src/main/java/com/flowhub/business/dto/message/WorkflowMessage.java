@@ -37,4 +37,13 @@ public class WorkflowMessage {
   private TaskStatus taskStatus;
 
   private String workerName;
+
+  /**
+   * Kafka key of every event of one workflow instance. Producers of START_WORKFLOW and FINISH_TASK
+   * events key their records with it so that all events of an instance land on the same partition
+   * and are decided by a single consumer thread, in order.
+   */
+  public static String partitionKey(String workflowDefName, String correlationId) {
+    return String.format("%s:%s", workflowDefName, correlationId);
+  }
 }
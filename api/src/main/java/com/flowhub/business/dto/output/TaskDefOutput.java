@@ -4,8 +4,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
-import com.flowhub.base.data.BaseEntity;
 import com.flowhub.business.enums.TaskType;
+import com.flowhub.business.enums.TimeoutPolicy;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,7 +24,7 @@ import lombok.Setter;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class TaskDefOutput extends BaseEntity {
+public class TaskDefOutput {
 
   @Schema(description = "ID của công việc", example = "1")
   private String id;
@@ -46,6 +46,16 @@ public class TaskDefOutput extends BaseEntity {
   @Schema(description = "Thời gian chờ của công việc (tính bằng giây)", example = "60")
   private Long waiting;
 
+  @Schema(description = "Thời gian tối đa để worker hoàn thành hoặc gửi heartbeat (ms)",
+          example = "30000")
+  private Long responseTimeout;
+
+  @Schema(description = "Cách xử lý công việc quá hạn (RETRY, FAIL)", example = "RETRY")
+  private TimeoutPolicy timeoutPolicy;
+
+  @Schema(description = "Số lần giao lại tối đa khi công việc quá hạn", example = "3")
+  private Integer timeoutRetryCount;
+
   @Schema(description = "Mô tả của công việc", example = "This task processes orders")
   private String description;
 
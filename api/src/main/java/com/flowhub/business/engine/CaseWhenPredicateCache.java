@@ -0,0 +1,66 @@
+package com.flowhub.business.engine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parsed CASE_WHEN expressions keyed by TaskDef id and version. Expressions are parsed once in
+ * SpEL {@link SpelCompilerMode#MIXED} mode: they are compiled to bytecode after the first
+ * evaluation and silently revert to interpreted mode when compilation or a compiled evaluation
+ * fails. Task outputs are plain maps, so the shared evaluation context resolves properties through
+ * {@link MapAccessor} ({@code amount > 100} as well as {@code ['amount'] > 100}). Entries of
+ * older definition versions are never hit again and age out of the bounded cache.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+public class CaseWhenPredicateCache {
+
+  private static final int MAXIMUM_SIZE = 10_000;
+
+  private final SpelExpressionParser parser =
+      new SpelExpressionParser(
+          new SpelParserConfiguration(
+              SpelCompilerMode.MIXED, CaseWhenPredicateCache.class.getClassLoader()));
+
+  private final EvaluationContext evaluationContext = buildEvaluationContext();
+
+  private final Cache<PredicateKey, Expression> expressions =
+      Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+  public boolean test(TaskNode taskNode, Map<String, Object> outputParameters) {
+    Expression expression =
+        expressions.get(
+            new PredicateKey(taskNode.getId(), taskNode.getVersion()),
+            key -> parser.parseExpression(taskNode.getExpressionDef()));
+    return Boolean.TRUE.equals(
+        expression.getValue(evaluationContext, outputParameters, Boolean.class));
+  }
+
+  private static EvaluationContext buildEvaluationContext() {
+    StandardEvaluationContext context = new StandardEvaluationContext();
+    context.addPropertyAccessor(new MapAccessor());
+    return context;
+  }
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static final class PredicateKey {
+
+    private final Long taskDefId;
+
+    private final Long version;
+  }
+}
@@ -0,0 +1,137 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.ForkDynamic;
+import com.flowhub.business.entity.ForkDynamicChunk;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.repository.db.ForkDynamicChunkRepository;
+import com.flowhub.business.repository.db.ForkDynamicRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Materializes the children of FORK_DYNAMIC tasks. The item list is split into chunk rows when the
+ * fork starts; chunks are turned into child tasks only while fewer than the window size of children
+ * are in flight, and every batch of finished children releases as many further chunks as the window
+ * allows. The fork is done when its finished-children counter reaches the number of items.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ForkDynamicCoordinator {
+
+  /** Input key of a child task holding its item. */
+  public static final String FORK_ITEM = "forkItem";
+
+  /** Input key of a child task holding the position of its item in the list. */
+  public static final String FORK_ITEM_INDEX = "forkItemIndex";
+
+  /** Output key of a completed fork holding the number of children. */
+  public static final String FORKED_TASKS = "forkedTasks";
+
+  /** Output key of a completed fork holding the number of children that did not succeed. */
+  public static final String FAILED_TASKS = "failedTasks";
+
+  private final ForkDynamicRepository forkDynamicRepository;
+
+  private final ForkDynamicChunkRepository forkDynamicChunkRepository;
+
+  private final int chunkSize;
+
+  private final int windowSize;
+
+  public ForkDynamicCoordinator(
+      ForkDynamicRepository forkDynamicRepository,
+      ForkDynamicChunkRepository forkDynamicChunkRepository,
+      @Value("${custom.properties.fork-dynamic.chunk-size:100}") int chunkSize,
+      @Value("${custom.properties.fork-dynamic.window-size:1000}") int windowSize) {
+    this.forkDynamicRepository = forkDynamicRepository;
+    this.forkDynamicChunkRepository = forkDynamicChunkRepository;
+    this.chunkSize = Math.max(1, chunkSize);
+    // a window smaller than a chunk would never release anything
+    this.windowSize = Math.max(this.chunkSize, windowSize);
+  }
+
+  /**
+   * Registers the items of a persisted fork task and returns the first window of children. Only the
+   * items beyond the first window are stored as chunks.
+   */
+  public ForkDynamicRelease start(Task forkTask, List<?> items) {
+    int total = items.size();
+    int released = Math.min(total, windowSize / chunkSize * chunkSize);
+    forkDynamicRepository.save(
+        ForkDynamic.builder()
+            .workflowId(forkTask.getWorkflowId())
+            .forkTaskId(forkTask.getId())
+            .total(total)
+            .chunkSize(chunkSize)
+            .windowSize(windowSize)
+            .released(released)
+            .completed(0)
+            .failed(0)
+            .build());
+    List<ForkDynamicChunk> chunks = new ArrayList<>((total - released) / chunkSize + 1);
+    for (int from = released; from < total; from += chunkSize) {
+      chunks.add(
+          ForkDynamicChunk.builder()
+              .forkTaskId(forkTask.getId())
+              .chunkNo(from / chunkSize)
+              .items(new ArrayList<>(items.subList(from, Math.min(total, from + chunkSize))))
+              .build());
+    }
+    forkDynamicChunkRepository.saveAll(chunks);
+    log.info(
+        "Fork task: {} of workflow: {} released {} of {} items",
+        forkTask.getId(),
+        forkTask.getWorkflowId(),
+        released,
+        total);
+    return new ForkDynamicRelease(
+        new ArrayList<>(items.subList(0, released)), 0, total == 0, total, 0);
+  }
+
+  /**
+   * Counts finished children of a fork and returns the children released in exchange. The fork
+   * row is locked for the rest of the transaction, so concurrent batches never release the same
+   * chunk twice.
+   */
+  public Optional<ForkDynamicRelease> finish(Long forkTaskId, int finished, int failed) {
+    return forkDynamicRepository
+        .findByDeletedFalseAndForkTaskId(forkTaskId)
+        .map(
+            fork -> {
+              fork.setCompleted(fork.getCompleted() + finished);
+              fork.setFailed(fork.getFailed() + failed);
+              return release(fork);
+            });
+  }
+
+  private ForkDynamicRelease release(ForkDynamic fork) {
+    int released = fork.getReleased();
+    int target = released;
+    while (target < fork.getTotal()
+        && target - fork.getCompleted() + fork.getChunkSize() <= fork.getWindowSize()) {
+      target = Math.min(fork.getTotal(), target + fork.getChunkSize());
+    }
+    if (target == released) {
+      return ForkDynamicRelease.none(fork.getTotal(), fork.getFailed(), fork.isDone());
+    }
+    int fromChunkNo = released / fork.getChunkSize();
+    int toChunkNo = (target - 1) / fork.getChunkSize();
+    List<Object> items = new ArrayList<>(target - released);
+    for (ForkDynamicChunk chunk :
+        forkDynamicChunkRepository.findByForkTaskIdAndChunkNoBetweenOrderByChunkNo(
+            fork.getForkTaskId(), fromChunkNo, toChunkNo)) {
+      items.addAll(chunk.getItems());
+    }
+    forkDynamicChunkRepository.deleteByForkTaskIdAndChunkNoBetween(
+        fork.getForkTaskId(), fromChunkNo, toChunkNo);
+    fork.setReleased(target);
+    return new ForkDynamicRelease(items, released, false, fork.getTotal(), fork.getFailed());
+  }
+}
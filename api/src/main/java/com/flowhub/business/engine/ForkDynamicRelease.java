@@ -0,0 +1,32 @@
+package com.flowhub.business.engine;
+
+import java.util.Collections;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a FORK_DYNAMIC state change: the items whose child tasks must be created now, the
+ * index of the first of them, and whether every child of the fork has finished.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class ForkDynamicRelease {
+
+  private final List<Object> items;
+
+  private final int fromIndex;
+
+  private final boolean done;
+
+  private final int total;
+
+  private final int failed;
+
+  static ForkDynamicRelease none(int total, int failed, boolean done) {
+    return new ForkDynamicRelease(Collections.emptyList(), 0, done, total, failed);
+  }
+}
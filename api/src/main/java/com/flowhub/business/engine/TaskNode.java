@@ -0,0 +1,59 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.TaskDef;
+import com.flowhub.business.enums.TaskType;
+import com.flowhub.business.enums.TimeoutPolicy;
+import java.util.List;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Immutable view of a {@link TaskDef} inside a compiled {@link WorkflowGraph}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Getter
+@Builder
+public class TaskNode {
+
+  private final Long id;
+
+  private final Long version;
+
+  private final Long workflowDefId;
+
+  private final String workflowDefName;
+
+  private final String taskDefName;
+
+  private final TaskType type;
+
+  private final String sink;
+
+  private final String expressionDef;
+
+  private final Long waiting;
+
+  private final Long responseTimeout;
+
+  private final TimeoutPolicy timeoutPolicy;
+
+  private final int timeoutRetryCount;
+
+  private final List<String> requiredInputParameters;
+
+  private final List<String> requiredOutputParameters;
+
+  private final Set<Long> predecessors;
+
+  public boolean isJoin() {
+    return TaskType.JOIN.equals(type);
+  }
+
+  /** Whether tasks of this node sent to a worker must finish or heartbeat within a timeout. */
+  public boolean hasResponseTimeout() {
+    return responseTimeout != null && responseTimeout > 0 && !TaskType.WAIT.equals(type);
+  }
+}
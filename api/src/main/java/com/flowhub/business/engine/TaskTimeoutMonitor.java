@@ -0,0 +1,213 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.service.DeciderService;
+import com.flowhub.business.store.ExecutionStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Times out tasks whose worker neither finished nor heartbeated them within the response timeout
+ * of their definition. Deadlines are held in a {@link TimingWheel} and leased like the waits of the
+ * {@link WaitTimer}: the decider leases the deadlines it creates and schedules them once committed,
+ * {@link #claim()} leases the rest from the partial index {@code idx_task_deadline}, so no instance
+ * ever scans the task table.
+ *
+ * <p>A heartbeat moves the deadline and frees the lease. The next claim leases the task again and
+ * schedules the new deadline, and the entry left in the wheel is dropped when it fires, so a task
+ * heartbeated close to its timeout may time out up to one claim interval late.
+ *
+ * <p>Due tasks are timed out in batches; the {@link DeciderService} transitions each batch with one
+ * statement and applies the timeout policies in the same transaction. A batch that fails is claimed
+ * again once its lease expired.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class TaskTimeoutMonitor implements SmartLifecycle {
+
+  private final ExecutionStore executionStore;
+
+  private final DeciderService deciderService;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Duration horizon;
+
+  private final Duration lease;
+
+  private final String owner;
+
+  private final int batchSize;
+
+  private final TimingWheel<Deadline> wheel;
+
+  /**
+   * Deadline of every task held by the wheel or being timed out, so a claim never schedules one
+   * twice and a deadline moved by a heartbeat replaces the one scheduled before.
+   */
+  private final Map<Long, Long> scheduled = new ConcurrentHashMap<>();
+
+  /** Deadlines found due when scheduled, handed to the firing thread. */
+  private final List<Deadline> ready = new ArrayList<>();
+
+  private volatile Thread thread;
+
+  public TaskTimeoutMonitor(
+      ExecutionStore executionStore,
+      @Lazy DeciderService deciderService,
+      TransactionTemplate transactionTemplate,
+      @Value("${spring.application.name}") String applicationName,
+      @Value("${custom.properties.timeout.monitor.tick:10MS}") Duration tick,
+      @Value("${custom.properties.timeout.monitor.wheel-size:512}") int wheelSize,
+      @Value("${custom.properties.timeout.monitor.horizon:60S}") Duration horizon,
+      @Value("${custom.properties.timeout.monitor.lease:30S}") Duration lease,
+      @Value("${custom.properties.timeout.monitor.batch-size:500}") int batchSize) {
+    this.executionStore = executionStore;
+    this.deciderService = deciderService;
+    this.transactionTemplate = transactionTemplate;
+    this.horizon = horizon;
+    this.lease = lease;
+    this.owner = applicationName + ":" + UUID.randomUUID();
+    this.batchSize = Math.max(1, batchSize);
+    this.wheel =
+        new TimingWheel<>(Math.max(1, tick.toMillis()), wheelSize, System.currentTimeMillis());
+  }
+
+  /** Leases the new deadlines due within the horizon to this instance, before they are stored. */
+  public void lease(List<Task> tasks) {
+    long dueBefore = System.currentTimeMillis() + horizon.toMillis();
+    for (Task task : tasks) {
+      if (task.getDeadline() != null && task.getDeadline() < dueBefore) {
+        task.setLeaseOwner(owner);
+        task.setLeaseUntil(task.getDeadline() + lease.toMillis());
+      }
+    }
+  }
+
+  /**
+   * Schedules new deadlines leased by {@link #lease}. Inside a transaction they are scheduled after
+   * commit, so a task never times out before it is visible.
+   */
+  public void scheduleAfterCommit(List<Task> tasks) {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              schedule(tasks);
+            }
+          });
+    } else {
+      this.schedule(tasks);
+    }
+  }
+
+  /** Leases deadlines due within the horizon that no live lease holds, in batches. */
+  public void claim() {
+    long now = System.currentTimeMillis();
+    long dueBefore = now + horizon.toMillis();
+    long leaseUntil = dueBefore + lease.toMillis();
+    List<Task> claimed;
+    do {
+      claimed =
+          transactionTemplate.execute(
+              status ->
+                  executionStore.claimDueTimeouts(dueBefore, owner, now, leaseUntil, batchSize));
+      this.schedule(claimed == null ? List.of() : claimed);
+    } while (claimed != null && claimed.size() == batchSize);
+  }
+
+  private void schedule(List<Task> tasks) {
+    synchronized (wheel) {
+      for (Task task : tasks) {
+        if (!owner.equals(task.getLeaseOwner())
+            || task.getDeadline().equals(scheduled.put(task.getId(), task.getDeadline()))) {
+          continue;
+        }
+        Deadline deadline = new Deadline(task.getId(), task.getDeadline());
+        if (!wheel.schedule(deadline.at(), deadline)) {
+          ready.add(deadline);
+        }
+      }
+      wheel.notifyAll();
+    }
+  }
+
+  private void fire() {
+    while (!Thread.currentThread().isInterrupted()) {
+      List<Deadline> due = new ArrayList<>();
+      try {
+        synchronized (wheel) {
+          long now = System.currentTimeMillis();
+          wheel.advance(now, due::add);
+          due.addAll(ready);
+          ready.clear();
+          // entries whose deadline was moved since they were scheduled
+          due.removeIf(deadline -> !deadline.at().equals(scheduled.get(deadline.taskId())));
+          if (due.isEmpty()) {
+            wheel.wait(Math.clamp(wheel.nextExpiration() - now, 1, horizon.toMillis()));
+            continue;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      for (int from = 0; from < due.size(); from += batchSize) {
+        this.timeOut(due.subList(from, Math.min(from + batchSize, due.size())));
+      }
+    }
+  }
+
+  private void timeOut(List<Deadline> deadlines) {
+    try {
+      deciderService.timeOutTasks(deadlines.stream().map(Deadline::taskId).toList());
+    } catch (Exception e) {
+      log.error("Failed to time out {} tasks", deadlines.size(), e);
+    } finally {
+      deadlines.forEach(deadline -> scheduled.remove(deadline.taskId(), deadline.at()));
+    }
+  }
+
+  @Override
+  public void start() {
+    Thread monitor = new Thread(this::fire, "task-timeout-monitor");
+    monitor.setDaemon(true);
+    monitor.start();
+    this.thread = monitor;
+  }
+
+  @Override
+  public void stop() {
+    Thread monitor = this.thread;
+    this.thread = null;
+    if (monitor != null) {
+      monitor.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return thread != null;
+  }
+
+  private record Deadline(Long taskId, Long at) {}
+}
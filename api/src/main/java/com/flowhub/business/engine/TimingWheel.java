@@ -0,0 +1,152 @@
+package com.flowhub.business.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: each level has {@code wheelSize} buckets of one tick of the level
+ * below, so insertion is O(1) whatever the delay and only non-empty buckets are ever visited. A
+ * bucket of an upper level is redistributed to the finer levels when its time comes, which keeps
+ * the firing precision at {@code tickMs}. Non-empty buckets are ordered by expiration in one queue
+ * shared by every level, telling the caller how long it may sleep.
+ *
+ * <p>Not thread-safe; the owner serializes access.
+ *
+ * @param <T> value scheduled in the wheel
+ * @author haidv
+ * @version 1.0
+ */
+public final class TimingWheel<T> {
+
+  private final PriorityQueue<Bucket<T>> queue =
+      new PriorityQueue<>((a, b) -> Long.compare(a.expiration, b.expiration));
+
+  private final Level<T> root;
+
+  private int size;
+
+  public TimingWheel(long tickMs, int wheelSize, long startMs) {
+    if (tickMs <= 0 || wheelSize <= 1) {
+      throw new IllegalArgumentException("tickMs must be positive and wheelSize greater than 1");
+    }
+    this.root = new Level<>(tickMs, wheelSize, startMs, queue);
+  }
+
+  /**
+   * Schedules a value at {@code dueAt}.
+   *
+   * @return false when {@code dueAt} lies within the current tick, the value is then due already
+   */
+  public boolean schedule(long dueAt, T value) {
+    if (!root.add(new Entry<>(dueAt, value))) {
+      return false;
+    }
+    size++;
+    return true;
+  }
+
+  /** Advances the wheel to {@code now} and hands every value due by then to {@code expired}. */
+  public void advance(long now, Consumer<T> expired) {
+    Bucket<T> bucket = queue.peek();
+    while (bucket != null && bucket.expiration <= now) {
+      queue.poll();
+      root.advanceClock(bucket.expiration);
+      for (Entry<T> entry : bucket.flush()) {
+        // entries of an upper level move down a level, entries of the finest level are due
+        if (!root.add(entry)) {
+          size--;
+          expired.accept(entry.value);
+        }
+      }
+      bucket = queue.peek();
+    }
+    root.advanceClock(now);
+  }
+
+  /** Expiration of the earliest non-empty bucket, {@link Long#MAX_VALUE} for an empty wheel. */
+  public long nextExpiration() {
+    Bucket<T> bucket = queue.peek();
+    return bucket == null ? Long.MAX_VALUE : bucket.expiration;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private static final class Level<T> {
+
+    private final long tickMs;
+
+    private final int wheelSize;
+
+    private final long interval;
+
+    private final List<Bucket<T>> buckets;
+
+    private final PriorityQueue<Bucket<T>> queue;
+
+    private long currentTime;
+
+    private Level<T> overflow;
+
+    private Level(long tickMs, int wheelSize, long startMs, PriorityQueue<Bucket<T>> queue) {
+      this.tickMs = tickMs;
+      this.wheelSize = wheelSize;
+      this.interval = tickMs * wheelSize;
+      this.queue = queue;
+      this.currentTime = startMs - (startMs % tickMs);
+      this.buckets = new ArrayList<>(wheelSize);
+      for (int i = 0; i < wheelSize; i++) {
+        buckets.add(new Bucket<>());
+      }
+    }
+
+    private boolean add(Entry<T> entry) {
+      if (entry.dueAt < currentTime + tickMs) {
+        return false;
+      }
+      if (entry.dueAt >= currentTime + interval) {
+        if (overflow == null) {
+          overflow = new Level<>(interval, wheelSize, currentTime, queue);
+        }
+        return overflow.add(entry);
+      }
+      long virtualId = entry.dueAt / tickMs;
+      Bucket<T> bucket = buckets.get((int) (virtualId % wheelSize));
+      bucket.entries.add(entry);
+      if (bucket.expiration != virtualId * tickMs) {
+        // the bucket was flushed before and now serves a later round
+        bucket.expiration = virtualId * tickMs;
+        queue.add(bucket);
+      }
+      return true;
+    }
+
+    private void advanceClock(long time) {
+      if (time >= currentTime + tickMs) {
+        currentTime = time - (time % tickMs);
+        if (overflow != null) {
+          overflow.advanceClock(currentTime);
+        }
+      }
+    }
+  }
+
+  private static final class Bucket<T> {
+
+    private List<Entry<T>> entries = new ArrayList<>();
+
+    private long expiration = -1;
+
+    private List<Entry<T>> flush() {
+      List<Entry<T>> flushed = entries;
+      entries = new ArrayList<>();
+      expiration = -1;
+      return flushed;
+    }
+  }
+
+  private record Entry<T>(long dueAt, T value) {}
+}
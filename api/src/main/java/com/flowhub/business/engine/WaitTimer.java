@@ -0,0 +1,257 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.base.event.MessageData;
+import com.flowhub.business.dto.message.WorkflowMessage;
+import com.flowhub.business.entity.OutboxMessage;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.event.OutboxPublisher;
+import com.flowhub.business.payload.PayloadExternalizer;
+import com.flowhub.business.store.ExecutionStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fires WAIT tasks from a {@link TimingWheel} instead of polling the execution store. Every wait
+ * held in memory is leased to this instance: the decider leases the waits it creates and schedules
+ * them once committed, {@link #claim()} leases the rest with {@code SKIP LOCKED}, so instances
+ * share the waits instead of all firing each of them. Only waits due within {@code horizon} are
+ * leased; a lease runs until {@code lease} after the wait is due, and a wait whose owner stopped
+ * is claimed by another instance once its lease expired.
+ *
+ * <p>Due waits are marked dispatched in batches and queued in the outbox in the same transaction.
+ * Only waits marked by this instance are sent, so a wait claimed twice is still sent once, and a
+ * batch that fails is claimed again once its lease expired.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class WaitTimer implements SmartLifecycle {
+
+  private final ExecutionStore executionStore;
+
+  private final WorkflowGraphRegistry workflowGraphRegistry;
+
+  private final OutboxPublisher outboxPublisher;
+
+  private final PayloadExternalizer payloadExternalizer;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final String applicationName;
+
+  private final Duration horizon;
+
+  private final Duration lease;
+
+  private final String owner;
+
+  private final int batchSize;
+
+  private final TimingWheel<Task> wheel;
+
+  /** Waits held by the wheel or being dispatched, so a claim never schedules one twice. */
+  private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+  /** Waits found due when scheduled, handed to the firing thread. */
+  private final List<Task> ready = new ArrayList<>();
+
+  private volatile Thread thread;
+
+  public WaitTimer(
+      ExecutionStore executionStore,
+      WorkflowGraphRegistry workflowGraphRegistry,
+      OutboxPublisher outboxPublisher,
+      PayloadExternalizer payloadExternalizer,
+      TransactionTemplate transactionTemplate,
+      @Value("${spring.application.name}") String applicationName,
+      @Value("${custom.properties.wait.timer.tick:1MS}") Duration tick,
+      @Value("${custom.properties.wait.timer.wheel-size:512}") int wheelSize,
+      @Value("${custom.properties.wait.timer.horizon:60S}") Duration horizon,
+      @Value("${custom.properties.wait.timer.lease:30S}") Duration lease,
+      @Value("${custom.properties.wait.timer.batch-size:500}") int batchSize) {
+    this.executionStore = executionStore;
+    this.workflowGraphRegistry = workflowGraphRegistry;
+    this.outboxPublisher = outboxPublisher;
+    this.payloadExternalizer = payloadExternalizer;
+    this.transactionTemplate = transactionTemplate;
+    this.applicationName = applicationName;
+    this.horizon = horizon;
+    this.lease = lease;
+    this.owner = applicationName + ":" + UUID.randomUUID();
+    this.batchSize = Math.max(1, batchSize);
+    this.wheel =
+        new TimingWheel<>(Math.max(1, tick.toMillis()), wheelSize, System.currentTimeMillis());
+  }
+
+  /** Leases the new waits due within the horizon to this instance, before they are stored. */
+  public void lease(List<Task> tasks) {
+    long dueBefore = System.currentTimeMillis() + horizon.toMillis();
+    for (Task task : tasks) {
+      if (task.getWaiting() != null && task.getWaiting() < dueBefore) {
+        task.setLeaseOwner(owner);
+        task.setLeaseUntil(task.getWaiting() + lease.toMillis());
+      }
+    }
+  }
+
+  /**
+   * Schedules new waits leased by {@link #lease}. Inside a transaction they are scheduled after
+   * commit, so a wait never fires before its task is visible.
+   */
+  public void scheduleAfterCommit(List<Task> waits) {
+    if (waits.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              schedule(waits);
+            }
+          });
+    } else {
+      this.schedule(waits);
+    }
+  }
+
+  /** Leases undispatched waits due within the horizon that no live lease holds, in batches. */
+  public void claim() {
+    long now = System.currentTimeMillis();
+    long dueBefore = now + horizon.toMillis();
+    long leaseUntil = dueBefore + lease.toMillis();
+    List<Task> claimed;
+    do {
+      claimed =
+          transactionTemplate.execute(
+              status ->
+                  executionStore.claimDueWaits(dueBefore, owner, now, leaseUntil, batchSize));
+      this.schedule(claimed == null ? List.of() : claimed);
+    } while (claimed != null && claimed.size() == batchSize);
+  }
+
+  private void schedule(List<Task> waits) {
+    synchronized (wheel) {
+      for (Task task : waits) {
+        if (!owner.equals(task.getLeaseOwner()) || !scheduled.add(task.getId())) {
+          continue;
+        }
+        if (!wheel.schedule(task.getWaiting(), task)) {
+          ready.add(task);
+        }
+      }
+      wheel.notifyAll();
+    }
+  }
+
+  private void fire() {
+    while (!Thread.currentThread().isInterrupted()) {
+      List<Task> due = new ArrayList<>();
+      try {
+        synchronized (wheel) {
+          long now = System.currentTimeMillis();
+          wheel.advance(now, due::add);
+          due.addAll(ready);
+          ready.clear();
+          if (due.isEmpty()) {
+            wheel.wait(Math.clamp(wheel.nextExpiration() - now, 1, horizon.toMillis()));
+            continue;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      for (int from = 0; from < due.size(); from += batchSize) {
+        this.dispatch(due.subList(from, Math.min(from + batchSize, due.size())));
+      }
+    }
+  }
+
+  private void dispatch(List<Task> waits) {
+    List<Long> taskIds = waits.stream().map(Task::getId).toList();
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            Set<Long> marked = new HashSet<>(executionStore.markWaitsDispatched(taskIds));
+            List<OutboxMessage> messages = new ArrayList<>(marked.size());
+            for (Task task : waits) {
+              if (marked.contains(task.getId())) {
+                this.toMessage(task).ifPresent(messages::add);
+              }
+            }
+            outboxPublisher.convertAndSendAll(messages);
+          });
+    } catch (Exception e) {
+      log.error("Failed to dispatch {} wait tasks", waits.size(), e);
+    } finally {
+      taskIds.forEach(scheduled::remove);
+    }
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Optional<OutboxMessage> toMessage(Task task) {
+    TaskNode taskDef =
+        workflowGraphRegistry
+            .get(task.getWorkflowDefId())
+            .map(graph -> graph.getNode(task.getTaskDefId()))
+            .orElse(null);
+    if (taskDef == null) {
+      log.error("Not found taskDef with id: {}", task.getTaskDefId());
+      return Optional.empty();
+    }
+    return Optional.of(
+        outboxPublisher.toOutboxMessage(
+            taskDef.getSink(),
+            WorkflowMessage.partitionKey(taskDef.getWorkflowDefName(), task.getCorrelationId()),
+            new MessageData(
+                String.format("%s:%s", taskDef.getWorkflowDefName(), task.getCorrelationId()),
+                WorkflowMessage.builder()
+                    .taskId(task.getId())
+                    .taskDefName(taskDef.getTaskDefName())
+                    .inputParameters(payloadExternalizer.forDispatch(task.getInputParameters()))
+                    .requiredOutputParameters(taskDef.getRequiredOutputParameters())
+                    .correlationId(task.getCorrelationId())
+                    .taskStatus(TaskStatus.COMPLETED)
+                    .workerName(applicationName)
+                    .build())));
+  }
+
+  @Override
+  public void start() {
+    Thread timer = new Thread(this::fire, "wait-timer");
+    timer.setDaemon(true);
+    timer.start();
+    this.thread = timer;
+  }
+
+  @Override
+  public void stop() {
+    Thread timer = this.thread;
+    this.thread = null;
+    if (timer != null) {
+      timer.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return thread != null;
+  }
+}
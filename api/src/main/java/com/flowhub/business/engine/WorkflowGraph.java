@@ -0,0 +1,155 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.TaskDef;
+import com.flowhub.business.entity.TaskDefEdge;
+import com.flowhub.business.entity.WorkflowDef;
+import com.flowhub.business.enums.TimeoutPolicy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Pre-compiled, immutable DAG of a {@link WorkflowDef} built from its {@link TaskDefEdge} rows.
+ * Successor lists, join predecessor sets, start nodes and sinks are resolved once at build time so
+ * the decider never has to query the definition tables while routing.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Getter
+public class WorkflowGraph {
+
+  private final Long workflowDefId;
+
+  private final Long version;
+
+  private final String workflowDefName;
+
+  private final Map<String, Object> inputTemplate;
+
+  private final Map<Long, TaskNode> nodes;
+
+  private final Map<Long, List<TaskNode>> successors;
+
+  private final List<TaskNode> startNodes;
+
+  private final List<TaskNode> sinkNodes;
+
+  private WorkflowGraph(
+      WorkflowDef workflowDef,
+      Map<Long, TaskNode> nodes,
+      Map<Long, List<TaskNode>> successors,
+      List<TaskNode> startNodes,
+      List<TaskNode> sinkNodes) {
+    this.workflowDefId = workflowDef.getId();
+    this.version = workflowDef.getVersion();
+    this.workflowDefName = workflowDef.getWorkflowDefName();
+    this.inputTemplate =
+        CollectionUtils.isEmpty(workflowDef.getInputTemplate())
+            ? Collections.emptyMap()
+            : Collections.unmodifiableMap(new HashMap<>(workflowDef.getInputTemplate()));
+    this.nodes = nodes;
+    this.successors = successors;
+    this.startNodes = startNodes;
+    this.sinkNodes = sinkNodes;
+  }
+
+  public static WorkflowGraph compile(
+      WorkflowDef workflowDef, Collection<TaskDef> taskDefs, Collection<TaskDefEdge> edges) {
+    Map<Long, Set<Long>> predecessors = new HashMap<>();
+    for (TaskDefEdge edge : edges) {
+      predecessors
+          .computeIfAbsent(edge.getToTaskDefId(), k -> new LinkedHashSet<>())
+          .add(edge.getFromTaskDefId());
+    }
+    Map<Long, TaskNode> nodes = new LinkedHashMap<>();
+    for (TaskDef taskDef : taskDefs) {
+      nodes.put(
+          taskDef.getId(),
+          toNode(taskDef, predecessors.getOrDefault(taskDef.getId(), Collections.emptySet())));
+    }
+    Map<Long, List<TaskNode>> successors = new HashMap<>();
+    List<TaskNode> startNodes = new ArrayList<>();
+    for (TaskNode node : nodes.values()) {
+      if (node.getPredecessors().isEmpty()) {
+        startNodes.add(node);
+      }
+      for (Long predecessor : node.getPredecessors()) {
+        if (nodes.containsKey(predecessor)) {
+          successors.computeIfAbsent(predecessor, k -> new ArrayList<>()).add(node);
+        } else {
+          log.warn(
+              "TaskDef: {} of workflowDef: {} refers to unknown previous task: {}",
+              node.getId(),
+              workflowDef.getId(),
+              predecessor);
+        }
+      }
+    }
+    List<TaskNode> sinkNodes = new ArrayList<>();
+    Map<Long, List<TaskNode>> frozenSuccessors = new HashMap<>();
+    for (TaskNode node : nodes.values()) {
+      List<TaskNode> next = successors.get(node.getId());
+      if (CollectionUtils.isEmpty(next)) {
+        sinkNodes.add(node);
+      } else {
+        frozenSuccessors.put(node.getId(), List.copyOf(next));
+      }
+    }
+    return new WorkflowGraph(
+        workflowDef,
+        Collections.unmodifiableMap(nodes),
+        Collections.unmodifiableMap(frozenSuccessors),
+        List.copyOf(startNodes),
+        List.copyOf(sinkNodes));
+  }
+
+  public TaskNode getNode(Long taskDefId) {
+    return nodes.get(taskDefId);
+  }
+
+  public List<TaskNode> getSuccessors(Long taskDefId) {
+    return successors.getOrDefault(taskDefId, Collections.emptyList());
+  }
+
+  public Set<Long> getJoinPredecessors(Long joinTaskDefId) {
+    TaskNode node = nodes.get(joinTaskDefId);
+    return node == null ? Collections.emptySet() : node.getPredecessors();
+  }
+
+  private static TaskNode toNode(TaskDef taskDef, Set<Long> predecessors) {
+    return TaskNode.builder()
+        .id(taskDef.getId())
+        .version(taskDef.getVersion())
+        .workflowDefId(taskDef.getWorkflowDefId())
+        .workflowDefName(taskDef.getWorkflowDefName())
+        .taskDefName(taskDef.getTaskDefName())
+        .type(taskDef.getType())
+        .sink(taskDef.getSink())
+        .expressionDef(taskDef.getExpressionDef())
+        .waiting(taskDef.getWaiting())
+        .responseTimeout(taskDef.getResponseTimeout())
+        .timeoutPolicy(
+            taskDef.getTimeoutPolicy() == null ? TimeoutPolicy.FAIL : taskDef.getTimeoutPolicy())
+        .timeoutRetryCount(
+            taskDef.getTimeoutRetryCount() == null ? 0 : taskDef.getTimeoutRetryCount())
+        .requiredInputParameters(copyOf(taskDef.getRequiredInputParameters()))
+        .requiredOutputParameters(copyOf(taskDef.getRequiredOutputParameters()))
+        .predecessors(Collections.unmodifiableSet(new LinkedHashSet<>(predecessors)))
+        .build();
+  }
+
+  private static List<String> copyOf(List<String> values) {
+    return CollectionUtils.isEmpty(values) ? Collections.emptyList() : List.copyOf(values);
+  }
+}
@@ -0,0 +1,201 @@
+package com.flowhub.business.engine;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import com.flowhub.business.entity.TaskDef;
+import com.flowhub.business.entity.TaskDefEdge;
+import com.flowhub.business.entity.WorkflowDef;
+import com.flowhub.business.repository.db.TaskDefEdgeRepository;
+import com.flowhub.business.repository.db.TaskDefRepository;
+import com.flowhub.business.repository.db.WorkflowDefRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds one compiled {@link WorkflowGraph} per workflow definition. Graphs are loaded on first use
+ * and swapped atomically when a definition changes, so readers always see a complete snapshot.
+ *
+ * <p>Definitions changed on another instance are picked up on lookup: at most once per {@code
+ * revalidate-interval} a graph's version is compared with the definition row, bypassing the L2
+ * cache, and a graph of another version is rebuilt after evicting the definition from that cache.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class WorkflowGraphRegistry {
+
+  static final String VERSION_QUERY =
+      "select version from tbl_workflow_def where id = ? and is_deleted = false";
+
+  private final WorkflowDefRepository workflowDefRepository;
+
+  private final TaskDefRepository taskDefRepository;
+
+  private final TaskDefEdgeRepository taskDefEdgeRepository;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final long revalidateIntervalNanos;
+
+  private final Map<Long, CachedGraph> graphs = new ConcurrentHashMap<>();
+
+  private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+  public WorkflowGraphRegistry(
+      WorkflowDefRepository workflowDefRepository,
+      TaskDefRepository taskDefRepository,
+      TaskDefEdgeRepository taskDefEdgeRepository,
+      JdbcTemplate jdbcTemplate,
+      EntityManagerFactory entityManagerFactory,
+      @Value("${custom.properties.workflow-graph.revalidate-interval:5S}")
+      Duration revalidateInterval) {
+    this.workflowDefRepository = workflowDefRepository;
+    this.taskDefRepository = taskDefRepository;
+    this.taskDefEdgeRepository = taskDefEdgeRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManagerFactory = entityManagerFactory;
+    this.revalidateIntervalNanos = revalidateInterval.toNanos();
+  }
+
+  public Optional<WorkflowGraph> get(Long workflowDefId) {
+    CachedGraph cached = graphs.get(workflowDefId);
+    if (cached != null) {
+      return revalidate(cached);
+    }
+    return workflowDefRepository.findByDeletedFalseAndId(workflowDefId).map(this::register);
+  }
+
+  public Optional<WorkflowGraph> getByName(String workflowDefName) {
+    Long workflowDefId = idsByName.get(workflowDefName);
+    if (workflowDefId != null) {
+      CachedGraph cached = graphs.get(workflowDefId);
+      if (cached != null) {
+        return revalidate(cached);
+      }
+    }
+    return workflowDefRepository
+        .findByDeletedFalseAndWorkflowDefName(workflowDefName)
+        .map(this::register);
+  }
+
+  /**
+   * Rebuilds the graph of the given definition. When called inside a transaction the rebuild is
+   * deferred until commit so the snapshot never reflects uncommitted definition rows.
+   */
+  public void refresh(Long workflowDefId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              reload(workflowDefId);
+            }
+          });
+    } else {
+      reload(workflowDefId);
+    }
+  }
+
+  public void evict(Long workflowDefId) {
+    CachedGraph removed = graphs.remove(workflowDefId);
+    if (removed != null) {
+      idsByName.remove(removed.graph().getWorkflowDefName(), workflowDefId);
+    }
+  }
+
+  /**
+   * Returns the cached graph, first comparing its version with the definition row when the last
+   * check is older than the interval. Only the caller that renews the check runs the query.
+   */
+  private Optional<WorkflowGraph> revalidate(CachedGraph cached) {
+    WorkflowGraph graph = cached.graph();
+    long now = System.nanoTime();
+    if (now - cached.checkedAt() < revalidateIntervalNanos
+        || !graphs.replace(graph.getWorkflowDefId(), cached, new CachedGraph(graph, now))) {
+      return Optional.of(graph);
+    }
+    List<Long> versions =
+        jdbcTemplate.queryForList(VERSION_QUERY, Long.class, graph.getWorkflowDefId());
+    if (!versions.isEmpty() && Objects.equals(versions.get(0), graph.getVersion())) {
+      return Optional.of(graph);
+    }
+    log.info(
+        "Workflow definition: {} changed since version: {}",
+        graph.getWorkflowDefName(),
+        graph.getVersion());
+    evictDefinition(graph.getWorkflowDefId());
+    if (versions.isEmpty()) {
+      evict(graph.getWorkflowDefId());
+      return Optional.empty();
+    }
+    reload(graph.getWorkflowDefId());
+    return Optional.ofNullable(graphs.get(graph.getWorkflowDefId())).map(CachedGraph::graph);
+  }
+
+  /** Drops the definition rows cached by Hibernate on this instance, they predate the change. */
+  private void evictDefinition(Long workflowDefId) {
+    entityManagerFactory.getCache().evict(WorkflowDef.class, workflowDefId);
+    entityManagerFactory.getCache().evict(TaskDef.class);
+    entityManagerFactory.getCache().evict(TaskDefEdge.class);
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+  }
+
+  private void reload(Long workflowDefId) {
+    workflowDefRepository
+        .findByDeletedFalseAndId(workflowDefId)
+        .ifPresentOrElse(this::register, () -> this.evict(workflowDefId));
+  }
+
+  private WorkflowGraph register(WorkflowDef workflowDef) {
+    WorkflowGraph compiled =
+        WorkflowGraph.compile(
+            workflowDef,
+            taskDefRepository.findByDeletedFalseAndWorkflowDefId(workflowDef.getId()),
+            taskDefEdgeRepository.findByDeletedFalseAndWorkflowDefId(workflowDef.getId()));
+    CachedGraph cached = graphs.get(workflowDef.getId());
+    WorkflowGraph previous = cached == null ? null : cached.graph();
+    WorkflowGraph current =
+        graphs.merge(
+                workflowDef.getId(),
+                new CachedGraph(compiled, System.nanoTime()),
+                (existing, candidate) ->
+                    isNewer(candidate.graph(), existing.graph()) ? candidate : existing)
+            .graph();
+    if (current == compiled) {
+      if (previous != null) {
+        idsByName.remove(previous.getWorkflowDefName(), previous.getWorkflowDefId());
+      }
+      idsByName.put(current.getWorkflowDefName(), current.getWorkflowDefId());
+      log.info(
+          "Compiled workflow graph: {} version: {} with {} tasks",
+          current.getWorkflowDefName(),
+          current.getVersion(),
+          current.getNodes().size());
+    }
+    return current;
+  }
+
+  private static boolean isNewer(WorkflowGraph candidate, WorkflowGraph existing) {
+    if (candidate.getVersion() == null || existing.getVersion() == null) {
+      return true;
+    }
+    return candidate.getVersion() >= existing.getVersion();
+  }
+
+  private record CachedGraph(WorkflowGraph graph, long checkedAt) {}
+}
@@ -0,0 +1,62 @@
+package com.flowhub.business.entity;
+
+import com.flowhub.base.data.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of one FORK_DYNAMIC task. Children are released in chunks while no more than {@code
+ * windowSize} of them are in flight; {@code completed} counts finished children so the fork never
+ * has to scan {@code tbl_task}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Entity
+@Table(
+    name = "tbl_fork_dynamic",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_fork_dynamic_fork_task", columnNames = {"fork_task_id"})
+    })
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForkDynamic extends BaseEntity {
+
+  @Column(name = "workflow_id", nullable = false)
+  private Long workflowId;
+
+  @Column(name = "fork_task_id", nullable = false)
+  private Long forkTaskId;
+
+  @Column(name = "total", nullable = false)
+  private Integer total;
+
+  @Column(name = "chunk_size", nullable = false)
+  private Integer chunkSize;
+
+  @Column(name = "window_size", nullable = false)
+  private Integer windowSize;
+
+  @Column(name = "released", nullable = false)
+  private Integer released;
+
+  @Column(name = "completed", nullable = false)
+  private Integer completed;
+
+  @Column(name = "failed", nullable = false)
+  private Integer failed;
+
+  public boolean isDone() {
+    return completed >= total;
+  }
+}
@@ -0,0 +1,50 @@
+package com.flowhub.business.entity;
+
+import com.flowhub.base.data.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Items of a FORK_DYNAMIC task that have not been released as child tasks yet. A chunk is deleted
+ * once its children are created.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Entity
+@Table(
+    name = "tbl_fork_dynamic_chunk",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_fork_dynamic_chunk_fork_task_chunk",
+            columnNames = {"fork_task_id", "chunk_no"})
+    })
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForkDynamicChunk extends BaseEntity {
+
+  @Column(name = "fork_task_id", nullable = false)
+  private Long forkTaskId;
+
+  @Column(name = "chunk_no", nullable = false)
+  private Integer chunkNo;
+
+  @Builder.Default
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "items")
+  private List<Object> items = new ArrayList<>();
+}
@@ -0,0 +1,65 @@
+package com.flowhub.business.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import com.flowhub.base.data.BaseEntity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Arrival record of a JOIN task inside one workflow. It is only written through {@link
+ * com.flowhub.business.repository.db.JoinArrivalRepository#arrive}, which increments the counter
+ * and merges the member output atomically.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Entity
+@Table(
+    name = "tbl_join_arrival",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_join_arrival_workflow_join",
+            columnNames = {"workflow_id", "join_task_def_id"})
+    })
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JoinArrival extends BaseEntity {
+
+  @Column(name = "workflow_id", nullable = false)
+  private Long workflowId;
+
+  @Column(name = "join_task_def_id", nullable = false)
+  private Long joinTaskDefId;
+
+  @Column(name = "arity", nullable = false)
+  private Integer arity;
+
+  @Column(name = "arrived_count", nullable = false)
+  private Integer arrivedCount;
+
+  @Builder.Default
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "arrived_members")
+  private List<Long> arrivedMembers = new ArrayList<>();
+
+  @Builder.Default
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "merged_output")
+  private Map<String, Object> mergedOutput = new HashMap<>();
+}
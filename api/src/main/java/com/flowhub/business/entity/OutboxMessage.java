@@ -0,0 +1,42 @@
+package com.flowhub.business.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import com.flowhub.base.data.BaseEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Message written in the same transaction as the state change that produced it and published to
+ * Kafka afterwards by {@link com.flowhub.business.job.OutboxRelay}. Snowflake ids are time-ordered,
+ * so draining by id preserves the write order.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Entity
+@Table(name = "tbl_outbox_message")
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage extends BaseEntity {
+
+  @Column(name = "topic", nullable = false)
+  private String topic;
+
+  @Column(name = "message_key")
+  private String messageKey;
+
+  @Column(name = "message_id")
+  private String messageId;
+
+  @Column(name = "payload", nullable = false, columnDefinition = "text")
+  private String payload;
+}
@@ -4,9 +4,11 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 import com.flowhub.base.data.BaseEntity;
+import com.flowhub.base.data.CompressedJsonJdbcType;
 import com.flowhub.business.enums.TaskStatus;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -18,14 +20,15 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.Type;
-import org.hibernate.type.SqlTypes;
 
 /**
  * @author haidv
  * @version 1.0
  */
 @Entity
-@Table(name = "tbl_task")
+@Table(name = "tbl_task", indexes = {
+    @Index(name = "idx_task_workflow_id", columnList = "workflow_id")
+})
 @Setter
 @Getter
 @Builder
@@ -42,6 +45,9 @@ public class Task extends BaseEntity {
   @Column(name = "workflow_id")
   private Long workflowId;
 
+  @Column(name = "parent_task_id")
+  private Long parentTaskId;
+
   @Column(name = "task_def_id")
   private Long taskDefId;
 
@@ -61,11 +67,31 @@ public class Task extends BaseEntity {
   @Column(name = "waiting")
   private Long waiting;
 
-  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "dispatched_at")
+  private LocalDateTime dispatchedAt;
+
+  /** Epoch millis by which the worker must finish or heartbeat the task, none when null. */
+  @Column(name = "deadline")
+  private Long deadline;
+
+  @Column(name = "response_timeout")
+  private Long responseTimeout;
+
+  /** Times the task was scheduled again after timing out. */
+  @Column(name = "timeout_count")
+  private Integer timeoutCount;
+
+  @Column(name = "lease_owner")
+  private String leaseOwner;
+
+  @Column(name = "lease_until")
+  private Long leaseUntil;
+
+  @JdbcTypeCode(CompressedJsonJdbcType.SQL_TYPE)
   @Column(name = "input_parameters")
   private Map<String, Object> inputParameters = new HashMap<>();
 
-  @JdbcTypeCode(SqlTypes.JSON)
+  @JdbcTypeCode(CompressedJsonJdbcType.SQL_TYPE)
   @Column(name = "output_parameters")
   private Map<String, Object> outputParameters = new HashMap<>();
 
@@ -1,15 +1,15 @@
 package com.flowhub.business.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
-import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Table;
 
 import com.flowhub.base.data.BaseEntity;
-import com.flowhub.base.data.StringListConverter;
 import com.flowhub.business.enums.TaskType;
+import com.flowhub.business.enums.TimeoutPolicy;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -17,6 +17,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -25,6 +27,8 @@ import org.hibernate.type.SqlTypes;
  * @version 1.0
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task-def")
 @Table(name = "tbl_task_def")
 @Setter
 @Getter
@@ -48,6 +52,17 @@ public class TaskDef extends BaseEntity {
   @Column(name = "waiting")
   private Long waiting;
 
+  /** Milliseconds a worker has to finish or heartbeat a dispatched task, none when null. */
+  @Column(name = "response_timeout")
+  private Long responseTimeout;
+
+  @Column(name = "timeout_policy")
+  @Enumerated(EnumType.STRING)
+  private TimeoutPolicy timeoutPolicy;
+
+  @Column(name = "timeout_retry_count")
+  private Integer timeoutRetryCount;
+
   @Column(name = "description")
   private String description;
 
@@ -65,8 +80,4 @@ public class TaskDef extends BaseEntity {
 
   @Column(name = "sink")
   private String sink;
-
-  @Column(name = "previous_task_id")
-  @Convert(converter = StringListConverter.class)
-  private List<String> previousTaskId = new ArrayList<>();
 }
@@ -0,0 +1,55 @@
+package com.flowhub.business.entity;
+
+import com.flowhub.base.data.BaseEntity;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * Directed edge of a workflow definition: {@code toTaskDefId} runs after {@code fromTaskDefId}.
+ * The unique key covers successor lookups and the reverse index covers predecessor lookups of
+ * JOIN tasks, both without touching {@code tbl_task_def}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task-def-edge")
+@Table(
+    name = "tbl_task_def_edge",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_task_def_edge_from_to",
+            columnNames = {"workflow_def_id", "from_task_def_id", "to_task_def_id"})
+    },
+    indexes = {
+        @Index(name = "idx_task_def_edge_from", columnList = "from_task_def_id, to_task_def_id"),
+        @Index(name = "idx_task_def_edge_to", columnList = "to_task_def_id, from_task_def_id")
+    })
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDefEdge extends BaseEntity {
+
+  @Column(name = "workflow_def_id", nullable = false)
+  private Long workflowDefId;
+
+  @Column(name = "from_task_def_id", nullable = false)
+  private Long fromTaskDefId;
+
+  @Column(name = "to_task_def_id", nullable = false)
+  private Long toTaskDefId;
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.Table;
 
 import com.flowhub.base.data.BaseEntity;
+import com.flowhub.base.data.CompressedJsonJdbcType;
 import com.flowhub.business.enums.WorkflowStatus;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -18,7 +19,6 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.Type;
-import org.hibernate.type.SqlTypes;
 
 /**
  * @author haidv
@@ -46,10 +46,16 @@ public class Workflow extends BaseEntity {
   @Enumerated(EnumType.STRING)
   private WorkflowStatus workflowStatus;
 
-  @JdbcTypeCode(SqlTypes.JSON)
+  @JdbcTypeCode(CompressedJsonJdbcType.SQL_TYPE)
   @Column(name = "input_parameters")
   private Map<String, Object> inputParameters = new HashMap<>();
 
+  @Column(name = "pending_tasks")
+  private Integer pendingTasks;
+
+  @Column(name = "finished_tasks")
+  private Integer finishedTasks;
+
   @Column(name = "started_at")
   private LocalDateTime startedAt;
 
@@ -0,0 +1,106 @@
+package com.flowhub.business.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+
+import com.flowhub.base.data.CompressedJsonJdbcType;
+import com.flowhub.business.enums.WorkflowEventType;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Append-only record of one execution transition. Rows are never updated, so the entity carries
+ * none of the audit, version or soft-delete columns of {@link com.flowhub.base.data.BaseEntity};
+ * the Snowflake id orders events by creation time.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Entity
+@Table(
+    name = "tbl_workflow_event",
+    indexes = {@Index(name = "idx_workflow_event_workflow_id", columnList = "workflow_id")},
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_workflow_event_task_type",
+            columnNames = {"task_id", "event_type"})
+    })
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowEvent implements Persistable<Long> {
+
+  @Id
+  @Column(name = "id")
+  private Long id;
+
+  @Column(name = "workflow_id", nullable = false)
+  private Long workflowId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "event_type", nullable = false, length = 32)
+  private WorkflowEventType eventType;
+
+  @Column(name = "task_id")
+  private Long taskId;
+
+  @Column(name = "parent_task_id")
+  private Long parentTaskId;
+
+  @Column(name = "task_def_id")
+  private Long taskDefId;
+
+  @Column(name = "workflow_def_id")
+  private Long workflowDefId;
+
+  @Column(name = "correlation_id")
+  private String correlationId;
+
+  @Column(name = "status", length = 32)
+  private String status;
+
+  @Column(name = "worker_name")
+  private String workerName;
+
+  @Column(name = "waiting")
+  private Long waiting;
+
+  @Column(name = "deadline")
+  private Long deadline;
+
+  @Column(name = "timeout_count")
+  private Integer timeoutCount;
+
+  @Column(name = "pending_delta")
+  private Integer pendingDelta;
+
+  @JdbcTypeCode(CompressedJsonJdbcType.SQL_TYPE)
+  @Column(name = "payload")
+  private Map<String, Object> payload;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  /** Events are only ever inserted, so saving never needs to look the row up first. */
+  @Override
+  @Transient
+  public boolean isNew() {
+    return true;
+  }
+}
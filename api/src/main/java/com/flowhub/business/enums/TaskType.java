@@ -10,5 +10,6 @@ public enum TaskType {
   BROADCAST,
   CASE_WHEN,
   WAIT,
-  TERMINATE;
+  TERMINATE,
+  FORK_DYNAMIC;
 }
@@ -0,0 +1,15 @@
+package com.flowhub.business.enums;
+
+/**
+ * What the engine does with a task that its worker did not finish within the response timeout of
+ * its definition.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public enum TimeoutPolicy {
+  /** Schedules the task again with the same input, up to {@code timeoutRetryCount} times. */
+  RETRY,
+  /** Fails the workflow; a FORK_DYNAMIC child counts as a failed child of its fork instead. */
+  FAIL
+}
@@ -0,0 +1,26 @@
+package com.flowhub.business.enums;
+
+/**
+ * Transition recorded in {@code tbl_workflow_event}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public enum WorkflowEventType {
+  /** A workflow was created; {@code pendingDelta} holds its number of start tasks. */
+  WORKFLOW_STARTED,
+  /** A task was created in progress; the payload holds its input. */
+  TASK_SCHEDULED,
+  /** A due WAIT task was handed to its sink. */
+  TASK_DISPATCHED,
+  /** A task reached {@code status}; the payload holds its output. */
+  TASK_FINISHED,
+  /** Every member of a JOIN arrived and the JOIN task was scheduled. */
+  JOIN_FIRED,
+  /** A decide batch changed the outstanding tasks of a workflow by {@code pendingDelta}. */
+  WORKFLOW_PROGRESSED,
+  /** No task of the workflow is outstanding any more. */
+  WORKFLOW_COMPLETED,
+  /** The workflow failed. A workflow ends with either this event or {@code WORKFLOW_COMPLETED}. */
+  WORKFLOW_FAILED
+}
@@ -11,4 +11,5 @@ public class MessageSubject {
 
   public static final String FINISH_TASK = "FINISH_TASK";
   public static final String START_WORKFLOW = "START_WORKFLOW";
+  public static final String HEARTBEAT = "HEARTBEAT";
 }
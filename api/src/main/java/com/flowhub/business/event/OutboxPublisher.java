@@ -0,0 +1,53 @@
+package com.flowhub.business.event;
+
+import com.flowhub.base.event.MessageData;
+import com.flowhub.base.utils.JsonUtils;
+import com.flowhub.business.entity.OutboxMessage;
+import com.flowhub.business.repository.db.OutboxMessageRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Transactional counterpart of {@link com.flowhub.base.event.MessageInterceptor}: messages are
+ * stored in the outbox of the caller's transaction and only reach Kafka once it commits, so a
+ * rollback can never leak a message.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+  private final OutboxMessageRepository outboxMessageRepository;
+
+  @SuppressWarnings("rawtypes")
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void convertAndSend(String queueName, String key, MessageData payload) {
+    this.convertAndSendAll(List.of(toOutboxMessage(queueName, key, payload)));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void convertAndSendAll(List<OutboxMessage> messages) {
+    if (messages.isEmpty()) {
+      return;
+    }
+    outboxMessageRepository.saveAll(messages);
+    log.info("Stored {} outbox messages", messages.size());
+  }
+
+  @SuppressWarnings("rawtypes")
+  public OutboxMessage toOutboxMessage(String queueName, String key, MessageData payload) {
+    return OutboxMessage.builder()
+        .topic(queueName)
+        .messageKey(key)
+        .messageId(payload.getMessageId())
+        .payload(JsonUtils.toJson(payload))
+        .build();
+  }
+}
@@ -4,7 +4,11 @@ import com.flowhub.base.event.MessageData;
 import com.flowhub.base.event.MessageListener;
 import com.flowhub.business.dto.message.WorkflowMessage;
 import com.flowhub.business.service.DeciderService;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -12,6 +16,15 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 /**
+ * Consumes workflow events. Events are keyed by {@link WorkflowMessage#partitionKey}, so one
+ * workflow instance is always handled by the same consumer thread; the record key is carried into
+ * retries to keep that affinity on the retry path as well. With {@code
+ * workflow-event.batch.enabled} a whole poll, heartbeats included, is decided in one transaction
+ * and committed once, falling back to one record at a time when the batch fails. {@code HEARTBEAT}
+ * events of workers move the deadline of their task. Failures are retried through the delay tiers
+ * of {@code RetriesTopics}, whose partitions pause until due, so one slow retry never holds back
+ * the others.
+ *
  * @author haidv
  * @version 1.0
  */
@@ -25,28 +38,67 @@ public class WorkflowEventListener extends MessageListener<WorkflowMessage> {
       topics = "${custom.properties.kafka.topic.workflow-event.name}",
       groupId = "${custom.properties.messaging.kafka.groupId}",
       concurrency = "${custom.properties.kafka.topic.workflow-event.concurrent.thread}",
-      containerFactory = "kafkaListenerContainerFactory")
+      containerFactory = "kafkaListenerContainerFactory",
+      autoStartup = "#{!${custom.properties.kafka.topic.workflow-event.batch.enabled}}")
   public void workflowEventListener(
       String data,
+      @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String key,
       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
       @Header(KafkaHeaders.RECEIVED_PARTITION) String partition,
       @Header(KafkaHeaders.OFFSET) String offset,
       Acknowledgment acknowledgment) {
-    super.messageListener(data, topic, partition, offset, acknowledgment, 300, 10);
+    super.messageListener(data, key, topic, partition, offset, acknowledgment, 300, 10);
+  }
+
+  @KafkaListener(
+      topics = "${custom.properties.kafka.topic.workflow-event.name}",
+      groupId = "${custom.properties.messaging.kafka.groupId}",
+      concurrency = "${custom.properties.kafka.topic.workflow-event.concurrent.thread}",
+      containerFactory = "batchKafkaListenerContainerFactory",
+      autoStartup = "${custom.properties.kafka.topic.workflow-event.batch.enabled}")
+  public void workflowEventBatchListener(
+      List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+    super.batchMessageListener(records, acknowledgment, 300, 10);
   }
 
   @KafkaListener(
-      topics = "${custom.properties.kafka.topic.workflow-event-retries.name}",
-      groupId = "${custom.properties.messaging.kafka.groupid}",
-      concurrency = "1",
+      topics = {
+        "${custom.properties.kafka.topic.workflow-event-retries.name}",
+        "#{@retriesTopics.topics('${custom.properties.kafka.topic.workflow-event.name}')}"
+      },
+      groupId = "${custom.properties.messaging.kafka.groupId}",
+      concurrency = "${custom.properties.kafka.topic.workflow-event-retries.concurrent.thread}",
       containerFactory = "kafkaListenerContainerFactory")
   public void workflowEventRetriesListener(
       String data,
       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
       @Header(KafkaHeaders.RECEIVED_PARTITION) String partition,
       @Header(KafkaHeaders.OFFSET) String offset,
-      Acknowledgment acknowledgment) {
-    super.messageRetriesListener(data, topic, partition, offset, acknowledgment);
+      @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp,
+      Acknowledgment acknowledgment,
+      Consumer<?, ?> consumer) {
+    super.messageRetriesListener(
+        data, topic, partition, offset, timestamp, acknowledgment, consumer);
+  }
+
+  @Override
+  protected boolean handleMessageEvents(String topic, List<MessageData<WorkflowMessage>> inputs) {
+    List<WorkflowMessage> startWorkflowMessages = new ArrayList<>();
+    List<WorkflowMessage> finishTaskMessages = new ArrayList<>();
+    List<WorkflowMessage> heartbeatMessages = new ArrayList<>();
+    for (MessageData<WorkflowMessage> input : inputs) {
+      if (MessageSubject.FINISH_TASK.equals(input.getSubject())) {
+        finishTaskMessages.add(input.getContent());
+      }
+      if (MessageSubject.START_WORKFLOW.equals(input.getSubject())) {
+        startWorkflowMessages.add(input.getContent());
+      }
+      if (MessageSubject.HEARTBEAT.equals(input.getSubject())) {
+        heartbeatMessages.add(input.getContent());
+      }
+    }
+    deciderService.decide(startWorkflowMessages, finishTaskMessages, heartbeatMessages);
+    return true;
   }
 
   @Override
@@ -58,5 +110,8 @@ public class WorkflowEventListener extends MessageListener<WorkflowMessage> {
     if (MessageSubject.START_WORKFLOW.equals(input.getSubject())) {
       deciderService.startWorkflow(input.getContent());
     }
+    if (MessageSubject.HEARTBEAT.equals(input.getSubject())) {
+      deciderService.heartbeat(List.of(input.getContent()));
+    }
   }
 }
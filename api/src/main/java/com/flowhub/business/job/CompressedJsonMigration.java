@@ -0,0 +1,68 @@
+package com.flowhub.business.job;
+
+import com.flowhub.base.data.CompressedJsonTypeContributor;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts the {@code jsonb} parameter columns to {@code bytea} once compressed storage is enabled.
+ * {@code ddl-auto=update} never changes the type of an existing column. The stored JSON text is
+ * kept as is: {@link com.flowhub.base.data.CompressedJsonJdbcType} reads values without a header
+ * as plain JSON, and rows are compressed the next time they are written.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class CompressedJsonMigration implements ApplicationRunner {
+
+  private static final List<String[]> COLUMNS =
+      List.of(
+          new String[] {"tbl_workflow", "input_parameters"},
+          new String[] {"tbl_task", "input_parameters"},
+          new String[] {"tbl_task", "output_parameters"},
+          new String[] {"tbl_workflow_event", "payload"});
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final boolean enabled;
+
+  public CompressedJsonMigration(
+      JdbcTemplate jdbcTemplate,
+      @Value("${spring.jpa.properties." + CompressedJsonTypeContributor.ENABLED + ":false}")
+          boolean enabled) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      return;
+    }
+    for (String[] column : COLUMNS) {
+      Integer jsonColumns =
+          jdbcTemplate.queryForObject(
+              "select count(*) from information_schema.columns "
+                  + "where table_schema = current_schema() and table_name = ? "
+                  + "and column_name = ? and data_type = 'jsonb'",
+              Integer.class,
+              column[0],
+              column[1]);
+      if (jsonColumns == null || jsonColumns == 0) {
+        continue;
+      }
+      // rewrites the table (every attached partition) under an exclusive lock
+      jdbcTemplate.execute(
+          "alter table " + column[0] + " alter column " + column[1] + " type bytea "
+              + "using convert_to(" + column[1] + "::text, 'UTF8')");
+      log.info("Converted {}.{} to compressed storage", column[0], column[1]);
+    }
+  }
+}
@@ -0,0 +1,328 @@
+package com.flowhub.business.job;
+
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.enums.WorkflowStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@code tbl_workflow} and {@code tbl_task} range partitioned by Snowflake id, which encodes
+ * the creation time, so hot queries only touch recent partitions.
+ *
+ * <p>Hibernate creates both tables as plain tables; on the first run each one is renamed to
+ * {@code <table>_legacy} and attached as the {@code MINVALUE} partition of a new partitioned table.
+ * The indexes of the plain table are recreated on the partitioned table under their own names, so
+ * every partition gets them and the startup runners creating indexes find them; the legacy copies
+ * are renamed to {@code <index>_legacy} and attached to them. Rows outside every range land in the
+ * {@code <table>_default} partition and move to their partition once it is created.
+ *
+ * <p>Every run creates partitions {@code premake-days} ahead and detaches partitions older than
+ * {@code archive-after} whose workflows are all terminal into the archive schema. All DDL runs
+ * under a transaction-scoped advisory lock, so only one instance maintains the tables at a time.
+ * The conversion takes the tables offline while it runs, so it is disabled by default and enabled
+ * by the operator.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ExecutionPartitionMaintainer implements ApplicationRunner {
+
+  static final String WORKFLOW_TABLE = "tbl_workflow";
+
+  static final String TASK_TABLE = "tbl_task";
+
+  private static final long LOCK_KEY = 0x466c6f7748756231L;
+
+  private static final Pattern BOUNDS = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+
+  private static final Pattern NUMBER = Pattern.compile("-?\\d+");
+
+  private static final DateTimeFormatter SUFFIX =
+      DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final boolean enabled;
+
+  private final Duration interval;
+
+  private final int premakeDays;
+
+  private final Duration archiveAfter;
+
+  private final String archiveSchema;
+
+  private final String activeStatuses;
+
+  public ExecutionPartitionMaintainer(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      @Value("${custom.properties.partition.enabled:false}") boolean enabled,
+      @Value("${custom.properties.partition.interval-days:1}") int intervalDays,
+      @Value("${custom.properties.partition.premake-days:7}") int premakeDays,
+      @Value("${custom.properties.partition.archive-after:30D}") Duration archiveAfter,
+      @Value("${custom.properties.partition.archive-schema:flowhub_archive}")
+          String archiveSchema) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+    this.interval = Duration.ofDays(Math.max(1, intervalDays));
+    this.premakeDays = premakeDays;
+    this.archiveAfter = archiveAfter;
+    this.archiveSchema = archiveSchema;
+    this.activeStatuses =
+        Arrays.stream(WorkflowStatus.values())
+            .filter(status -> !status.isTerminal())
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(", "));
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    maintain();
+  }
+
+  @Scheduled(
+      initialDelayString = "${custom.properties.partition.maintain.fixed-delay:3600000}",
+      fixedDelayString = "${custom.properties.partition.maintain.fixed-delay:3600000}")
+  public void maintain() {
+    if (!enabled) {
+      return;
+    }
+    for (String table : List.of(WORKFLOW_TABLE, TASK_TABLE)) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              if (tryLock()) {
+                partition(table);
+                premake(table);
+              }
+            });
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              if (tryLock()) {
+                archive(table);
+              }
+            });
+      } catch (Exception e) {
+        log.error("Failed to maintain partitions of {}", table, e);
+      }
+    }
+  }
+
+  private boolean tryLock() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "select pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY));
+  }
+
+  /** Converts a plain table created by Hibernate into a partitioned one, keeping its rows. */
+  private void partition(String table) {
+    List<String> kinds =
+        jdbcTemplate.queryForList(
+            "select c.relkind::text from pg_class c join pg_namespace n on n.oid = c.relnamespace "
+                + "where n.nspname = current_schema() and c.relname = ?",
+            String.class,
+            table);
+    if (kinds.isEmpty() || !"r".equals(kinds.get(0))) {
+      return;
+    }
+    String legacy = table + "_legacy";
+    long bound = Snowflake.getInstance().minIdAt(floor(Instant.now()).plus(interval));
+    // read before the rename, the definitions name the table that becomes the partitioned one
+    List<TableIndex> indexes =
+        jdbcTemplate.query(
+            "select i.relname, pg_get_indexdef(x.indexrelid), x.indisunique from pg_index x "
+                + "join pg_class i on i.oid = x.indexrelid "
+                + "join pg_class t on t.oid = x.indrelid "
+                + "join pg_namespace n on n.oid = t.relnamespace "
+                + "where n.nspname = current_schema() and t.relname = ? "
+                + "and not exists (select 1 from pg_constraint c where c.conindid = x.indexrelid)",
+            (rs, rowNum) -> new TableIndex(rs.getString(1), rs.getString(2), rs.getBoolean(3)),
+            table);
+    jdbcTemplate.execute("alter table " + table + " rename to " + legacy);
+    jdbcTemplate.execute(
+        "create table " + table + " (like " + legacy + " including defaults) "
+            + "partition by range (id)");
+    jdbcTemplate.execute("alter table " + table + " add primary key (id)");
+    for (TableIndex index : indexes) {
+      if (index.unique()) {
+        // a unique index of a partitioned table must contain the partition key
+        log.warn("Unique index {} stays on {} only", index.name(), legacy);
+        continue;
+      }
+      jdbcTemplate.execute(
+          "alter index " + index.name() + " rename to " + legacyName(index.name()));
+      // no partition is attached yet, so this only records the index on the parent
+      jdbcTemplate.execute(index.definition());
+    }
+    // validating the legacy rows scans the table once, under the lock taken by the rename; its
+    // indexes match those of the parent and are attached instead of rebuilt
+    jdbcTemplate.execute(
+        "alter table " + table + " attach partition " + legacy
+            + " for values from (minvalue) to (" + bound + ")");
+    log.info("Converted {} to a partitioned table", table);
+  }
+
+  private boolean isPartitioned(String table) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "select exists (select 1 from pg_class c "
+                + "join pg_namespace n on n.oid = c.relnamespace "
+                + "where n.nspname = current_schema() and c.relname = ? and c.relkind = 'p')",
+            Boolean.class,
+            table));
+  }
+
+  private void premake(String table) {
+    if (!isPartitioned(table)) {
+      return;
+    }
+    String defaultPartition = table + "_default";
+    jdbcTemplate.execute(
+        "create table if not exists " + defaultPartition + " partition of " + table + " default");
+    Snowflake snowflake = Snowflake.getInstance();
+    long until = snowflake.minIdAt(floor(Instant.now()).plus(interval.multipliedBy(premakeDays)));
+    long from =
+        partitions(table).stream()
+            .mapToLong(PartitionBound::to)
+            .max()
+            .orElseGet(() -> snowflake.minIdAt(floor(Instant.now())));
+    while (from < until) {
+      Instant start = Instant.ofEpochMilli(snowflake.parse(from)[0]);
+      long to = snowflake.minIdAt(floor(start).plus(interval));
+      String name = partitionName(table, start);
+      if (hasRows(defaultPartition, from, to)) {
+        // a range already holding rows of the default partition is attached with those rows
+        jdbcTemplate.execute(
+            "create table " + name + " (like " + table + " including defaults)");
+        int moved =
+            jdbcTemplate.update(
+                "with moved as (delete from " + defaultPartition
+                    + " where id >= ? and id < ? returning *) "
+                    + "insert into " + name + " select * from moved",
+                from,
+                to);
+        jdbcTemplate.execute(
+            "alter table " + table + " attach partition " + name
+                + " for values from (" + from + ") to (" + to + ")");
+        log.warn("Moved {} rows from {} to partition {}", moved, defaultPartition, name);
+      } else {
+        jdbcTemplate.execute(
+            "create table " + name + " partition of " + table
+                + " for values from (" + from + ") to (" + to + ")");
+      }
+      log.info("Created partition {}", name);
+      from = to;
+    }
+  }
+
+  private boolean hasRows(String partition, long from, long to) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "select exists (select 1 from " + partition + " where id >= ? and id < ?)",
+            Boolean.class,
+            from,
+            to));
+  }
+
+  private void archive(String table) {
+    long horizon = Snowflake.getInstance().minIdAt(Instant.now().minus(archiveAfter));
+    for (PartitionBound partition : partitions(table)) {
+      if (partition.to() > horizon || hasActiveWorkflows(table, partition)) {
+        continue;
+      }
+      jdbcTemplate.execute("create schema if not exists " + archiveSchema);
+      jdbcTemplate.execute("alter table " + table + " detach partition " + partition.name());
+      jdbcTemplate.execute("alter table " + partition.name() + " set schema " + archiveSchema);
+      log.info("Archived partition {} to schema {}", partition.name(), archiveSchema);
+    }
+  }
+
+  private boolean hasActiveWorkflows(String table, PartitionBound partition) {
+    String sql =
+        WORKFLOW_TABLE.equals(table)
+            ? "select exists (select 1 from " + partition.name() + " w "
+                + "where w.workflow_status in (" + activeStatuses + "))"
+            : "select exists (select 1 from " + partition.name() + " t "
+                + "join " + WORKFLOW_TABLE + " w on w.id = t.workflow_id "
+                + "where w.workflow_status in (" + activeStatuses + "))";
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class));
+  }
+
+  private List<PartitionBound> partitions(String table) {
+    return jdbcTemplate.query(
+        "select c.relname, pg_get_expr(c.relpartbound, c.oid) from pg_inherits i "
+            + "join pg_class c on c.oid = i.inhrelid "
+            + "join pg_class p on p.oid = i.inhparent "
+            + "join pg_namespace n on n.oid = p.relnamespace "
+            + "where n.nspname = current_schema() and p.relname = ?",
+        (rs, rowNum) -> PartitionBound.parse(rs.getString(1), rs.getString(2)),
+        table)
+        .stream()
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  private Instant floor(Instant instant) {
+    long millis = interval.toMillis();
+    return Instant.ofEpochMilli(Math.floorDiv(instant.toEpochMilli(), millis) * millis);
+  }
+
+  static String partitionName(String table, Instant start) {
+    return table + "_p" + SUFFIX.format(start);
+  }
+
+  /** Name of the legacy copy of an index, within the 63 bytes of a Postgres identifier. */
+  static String legacyName(String index) {
+    String suffix = "_legacy";
+    return index.substring(0, Math.min(index.length(), 63 - suffix.length())) + suffix;
+  }
+
+  private record TableIndex(String name, String definition, boolean unique) {}
+
+  /**
+   * Range of one partition; {@code from} is {@link Long#MIN_VALUE} for a {@code MINVALUE} bound.
+   */
+  record PartitionBound(String name, long from, long to) {
+
+    /** Parses {@code pg_get_expr(relpartbound)}; returns {@code null} for a default partition. */
+    static PartitionBound parse(String name, String expression) {
+      Matcher bounds = BOUNDS.matcher(expression == null ? "" : expression);
+      if (!bounds.find()) {
+        return null;
+      }
+      Long from = value(bounds.group(1));
+      Long to = value(bounds.group(2));
+      if (to == null) {
+        return null;
+      }
+      return new PartitionBound(name, from == null ? Long.MIN_VALUE : from, to);
+    }
+
+    private static Long value(String literal) {
+      Matcher number = NUMBER.matcher(literal);
+      return number.find() ? Long.valueOf(number.group()) : null;
+    }
+  }
+}
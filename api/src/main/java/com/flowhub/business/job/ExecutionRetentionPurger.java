@@ -0,0 +1,348 @@
+package com.flowhub.business.job;
+
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.payload.PayloadStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Removes terminal (or soft-deleted) workflows older than {@code retain}, together with their
+ * tasks, events and fork/join bookkeeping rows, walking {@code tbl_workflow} in Snowflake id order
+ * from the oldest id up to the id of {@code now - retain}. In {@code ARCHIVE} mode the deleted
+ * workflow and task rows are copied to the archive schema in the same statement; in {@code DELETE}
+ * mode the externalized payloads of the deleted rows are removed from the {@link PayloadStore}
+ * once the batch commits.
+ *
+ * <p>Each batch is one statement in its own transaction and locks its workflows with {@code SKIP
+ * LOCKED}, so it never waits on the decider. The batch size halves when a batch takes longer than
+ * {@code max-statement-time} and grows back otherwise; a run stops when the replication lag
+ * reported by the primary exceeds {@code max-replication-lag} or after {@code max-run-time}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ExecutionRetentionPurger {
+
+  static final int MIN_BATCH_SIZE = 10;
+
+  static final String REPLICATION_LAG_QUERY =
+      "select coalesce(max(extract(epoch from replay_lag)), 0) from pg_stat_replication";
+
+  private static final List<String> ARCHIVED_TABLES =
+      List.of(ExecutionPartitionMaintainer.WORKFLOW_TABLE, ExecutionPartitionMaintainer.TASK_TABLE);
+
+  enum Mode {
+    DELETE,
+    ARCHIVE
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final PayloadStore payloadStore;
+
+  private final boolean enabled;
+
+  private final Duration retain;
+
+  private final Mode mode;
+
+  private final String archiveSchema;
+
+  private final int batchSize;
+
+  private final Duration maxStatementTime;
+
+  private final Duration statementTimeout;
+
+  private final Duration maxReplicationLag;
+
+  private final Duration pause;
+
+  private final Duration maxRunTime;
+
+  private final Counter purgedWorkflowCounter;
+
+  private final Counter purgedTaskCounter;
+
+  private final Timer batchTimer;
+
+  private volatile double rowsPerSecond;
+
+  public ExecutionRetentionPurger(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      PayloadStore payloadStore,
+      MeterRegistry meterRegistry,
+      @Value("${custom.properties.retention.enabled:false}") boolean enabled,
+      @Value("${custom.properties.retention.retain:30D}") Duration retain,
+      @Value("${custom.properties.retention.mode:DELETE}") Mode mode,
+      @Value("${custom.properties.retention.archive-schema:flowhub_archive}") String archiveSchema,
+      @Value("${custom.properties.retention.batch-size:1000}") int batchSize,
+      @Value("${custom.properties.retention.max-statement-time:500MS}") Duration maxStatementTime,
+      @Value("${custom.properties.retention.statement-timeout:30S}") Duration statementTimeout,
+      @Value("${custom.properties.retention.max-replication-lag:5S}") Duration maxReplicationLag,
+      @Value("${custom.properties.retention.pause:100MS}") Duration pause,
+      @Value("${custom.properties.retention.max-run-time:5M}") Duration maxRunTime) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.payloadStore = payloadStore;
+    this.enabled = enabled;
+    this.retain = retain;
+    this.mode = mode;
+    this.archiveSchema = archiveSchema;
+    this.batchSize = Math.max(MIN_BATCH_SIZE, batchSize);
+    this.maxStatementTime = maxStatementTime;
+    this.statementTimeout = statementTimeout;
+    this.maxReplicationLag = maxReplicationLag;
+    this.pause = pause;
+    this.maxRunTime = maxRunTime;
+    this.purgedWorkflowCounter =
+        meterRegistry.counter("flowhub.retention.purged", "table", "tbl_workflow");
+    this.purgedTaskCounter = meterRegistry.counter("flowhub.retention.purged", "table", "tbl_task");
+    this.batchTimer = meterRegistry.timer("flowhub.retention.batch.duration");
+    meterRegistry.gauge("flowhub.retention.rate", this, purger -> purger.rowsPerSecond);
+  }
+
+  @Scheduled(
+      initialDelayString = "${custom.properties.retention.fixed-delay:600000}",
+      fixedDelayString = "${custom.properties.retention.fixed-delay:600000}")
+  public void purge() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      run();
+    } catch (Exception e) {
+      log.error("Failed to purge expired executions", e);
+    }
+  }
+
+  private void run() {
+    String sql = purgeSql(mode == Mode.ARCHIVE ? archiveColumns() : null);
+    long horizon = Snowflake.getInstance().minIdAt(Instant.now().minus(retain));
+    long started = System.nanoTime();
+    long deadline = started + maxRunTime.toNanos();
+    long cursor = Long.MIN_VALUE;
+    int size = batchSize;
+    long workflows = 0;
+    long tasks = 0;
+    while (System.nanoTime() < deadline && !replicationLagging()) {
+      long from = cursor;
+      int limit = size;
+      long batchStarted = System.nanoTime();
+      PurgedBatch purged =
+          transactionTemplate.execute(
+              status -> {
+                jdbcTemplate.execute(
+                    "set local statement_timeout = " + statementTimeout.toMillis());
+                return jdbcTemplate.queryForObject(sql, this::mapBatch, from, horizon, limit);
+              });
+      Duration elapsed = Duration.ofNanos(System.nanoTime() - batchStarted);
+      batchTimer.record(elapsed);
+      if (purged == null || purged.selected() == 0) {
+        break;
+      }
+      cursor = purged.lastId();
+      workflows += purged.workflows();
+      tasks += purged.tasks();
+      purgedWorkflowCounter.increment(purged.workflows());
+      purgedTaskCounter.increment(purged.tasks());
+      deletePayloads(purged.payloadOwners());
+      size = nextBatchSize(size, elapsed, maxStatementTime, batchSize);
+      if (!sleep()) {
+        break;
+      }
+    }
+    double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+    rowsPerSecond = (workflows + tasks) / seconds;
+    if (workflows > 0) {
+      log.info(
+          "Purged {} workflows and {} tasks older than {} ({} rows/s, mode {})",
+          workflows,
+          tasks,
+          retain,
+          Math.round(rowsPerSecond),
+          mode);
+    }
+  }
+
+  private PurgedBatch mapBatch(ResultSet rs, int rowNum) throws SQLException {
+    List<Long> payloadOwners = new ArrayList<>();
+    if (rs.getMetaData().getColumnCount() > 4) {
+      for (int column = 5; column <= 6; column++) {
+        Array ids = rs.getArray(column);
+        if (ids != null) {
+          payloadOwners.addAll(Arrays.asList((Long[]) ids.getArray()));
+        }
+      }
+    }
+    return new PurgedBatch(
+        rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), payloadOwners);
+  }
+
+  /** Removes the payloads of committed deletions; a failure only leaves unreachable blobs. */
+  private void deletePayloads(List<Long> owners) {
+    if (owners.isEmpty() || !payloadStore.isConfigured()) {
+      return;
+    }
+    try {
+      payloadStore.delete(owners);
+    } catch (Exception e) {
+      log.warn("Failed to delete payloads of {} purged rows", owners.size(), e);
+    }
+  }
+
+  /** Halves the batch after a slow statement, doubles it after a fast one. */
+  static int nextBatchSize(int current, Duration elapsed, Duration maxStatementTime, int max) {
+    if (elapsed.compareTo(maxStatementTime) > 0) {
+      return Math.max(MIN_BATCH_SIZE, current / 2);
+    }
+    if (elapsed.compareTo(maxStatementTime.dividedBy(2)) < 0) {
+      return Math.min(max, current * 2);
+    }
+    return current;
+  }
+
+  /**
+   * Builds the statement purging one batch. It returns the number of selected workflows, the
+   * highest selected id, and the deleted workflow and task counts, followed by the deleted workflow
+   * and task ids when deleting without archiving; {@code columns} holds the archived column list
+   * per table, or is {@code null} to delete without archiving.
+   */
+  String purgeSql(List<String> columns) {
+    String terminalStatuses =
+        Arrays.stream(WorkflowStatus.values())
+            .filter(WorkflowStatus::isTerminal)
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(", "));
+    String returning = columns == null ? "id" : "*";
+    StringBuilder sql =
+        new StringBuilder()
+            .append("with doomed as (select w.id from tbl_workflow w ")
+            .append("where w.id > ? and w.id < ? ")
+            .append("and (w.workflow_status in (").append(terminalStatuses)
+            .append(") or w.is_deleted) ")
+            .append("order by w.id limit ? for update skip locked), ")
+            .append("tasks as (delete from tbl_task t ")
+            .append("where t.workflow_id in (select id from doomed) returning t.")
+            .append(returning).append("), ")
+            .append("chunks as (delete from tbl_fork_dynamic_chunk c ")
+            .append("where c.fork_task_id in (select id from tasks)), ")
+            .append("forks as (delete from tbl_fork_dynamic f ")
+            .append("where f.workflow_id in (select id from doomed)), ")
+            .append("joins as (delete from tbl_join_arrival j ")
+            .append("where j.workflow_id in (select id from doomed)), ")
+            .append("events as (delete from tbl_workflow_event e ")
+            .append("where e.workflow_id in (select id from doomed)), ")
+            .append("workflows as (delete from tbl_workflow w ")
+            .append("where w.id in (select id from doomed) returning w.")
+            .append(returning).append(") ");
+    if (columns != null) {
+      sql.append(", archived_tasks as (insert into ").append(archiveSchema).append(".tbl_task (")
+          .append(columns.get(1)).append(") select ").append(columns.get(1))
+          .append(" from tasks), ")
+          .append("archived_workflows as (insert into ").append(archiveSchema)
+          .append(".tbl_workflow (").append(columns.get(0)).append(") select ")
+          .append(columns.get(0)).append(" from workflows) ");
+    }
+    sql.append("select (select count(*) from doomed), (select max(id) from doomed), ")
+        .append("(select count(*) from workflows), (select count(*) from tasks)");
+    if (columns == null) {
+      sql.append(", (select array_agg(id) from workflows), (select array_agg(id) from tasks)");
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Creates the archive tables and adds the columns Hibernate added to the live tables since, then
+   * returns the column list of each table.
+   */
+  private List<String> archiveColumns() {
+    jdbcTemplate.execute("create schema if not exists " + archiveSchema);
+    return ARCHIVED_TABLES.stream()
+        .map(
+            table -> {
+              String archive = archiveSchema + "." + table;
+              jdbcTemplate.execute(
+                  "create table if not exists " + archive + " (like " + table + ")");
+              Set<String> archived = new LinkedHashSet<>(columnTypes(archive).keySet());
+              Set<String> columns = new LinkedHashSet<>();
+              columnTypes(table)
+                  .forEach(
+                      (column, type) -> {
+                        if (!archived.contains(column)) {
+                          jdbcTemplate.execute(
+                              "alter table " + archive + " add column " + column + " " + type);
+                        }
+                        columns.add(column);
+                      });
+              return String.join(", ", columns);
+            })
+        .toList();
+  }
+
+  private Map<String, String> columnTypes(String table) {
+    Map<String, String> columns = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "select a.attname, format_type(a.atttypid, a.atttypmod) from pg_attribute a "
+            + "where a.attrelid = to_regclass(?) and a.attnum > 0 and not a.attisdropped "
+            + "order by a.attnum",
+        rs -> {
+          columns.put(rs.getString(1), rs.getString(2));
+        },
+        table);
+    return columns;
+  }
+
+  private boolean replicationLagging() {
+    try {
+      Double lag = jdbcTemplate.queryForObject(REPLICATION_LAG_QUERY, Double.class);
+      if (lag != null && lag * 1000 > maxReplicationLag.toMillis()) {
+        log.info("Paused purging expired executions, replication lag is {}s", lag);
+        return true;
+      }
+      return false;
+    } catch (Exception e) {
+      log.warn("Paused purging expired executions, replication lag is unknown", e);
+      return true;
+    }
+  }
+
+  private boolean sleep() {
+    try {
+      Thread.sleep(pause.toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private record PurgedBatch(
+      long selected, long lastId, long workflows, long tasks, List<Long> payloadOwners) {}
+}
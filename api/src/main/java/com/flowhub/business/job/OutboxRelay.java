@@ -0,0 +1,130 @@
+package com.flowhub.business.job;
+
+import com.flowhub.business.entity.OutboxMessage;
+import com.flowhub.business.repository.db.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains {@code tbl_outbox_message} to Kafka. Each batch is locked with {@code FOR UPDATE SKIP
+ * LOCKED}, sent without waiting between records, flushed once and then deleted in bulk in the same
+ * transaction. Rows whose send failed stay in the outbox and are retried on the next run, so
+ * delivery is at-least-once.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+  private final OutboxMessageRepository outboxMessageRepository;
+
+  private final KafkaTemplate<Object, Object> kafkaTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Counter publishedCounter;
+
+  private final Counter failedCounter;
+
+  private final DistributionSummary batchSizeSummary;
+
+  private final Timer batchTimer;
+
+  private final Timer deliveryLatencyTimer;
+
+  @Value("${custom.properties.outbox.relay.batch-size:500}")
+  private int batchSize;
+
+  @Value("${custom.properties.outbox.relay.max-batches-per-run:20}")
+  private int maxBatchesPerRun;
+
+  @Value("${custom.properties.outbox.relay.send-timeout:10S}")
+  private Duration sendTimeout;
+
+  public OutboxRelay(
+      OutboxMessageRepository outboxMessageRepository,
+      KafkaTemplate<Object, Object> kafkaTemplate,
+      TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.kafkaTemplate = kafkaTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.publishedCounter = meterRegistry.counter("flowhub.outbox.relay.published");
+    this.failedCounter = meterRegistry.counter("flowhub.outbox.relay.failed");
+    this.batchSizeSummary = meterRegistry.summary("flowhub.outbox.relay.batch.size");
+    this.batchTimer = meterRegistry.timer("flowhub.outbox.relay.batch.duration");
+    this.deliveryLatencyTimer =
+        Timer.builder("flowhub.outbox.relay.delivery.latency")
+            .description("Time between the outbox write and its publication")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${custom.properties.outbox.relay.fixed-delay:200}")
+  public void relay() {
+    for (int i = 0; i < maxBatchesPerRun; i++) {
+      Integer drained =
+          batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+      if (drained == null || drained < batchSize) {
+        break;
+      }
+    }
+  }
+
+  private int relayBatch() {
+    List<OutboxMessage> messages = outboxMessageRepository.lockBatch(batchSize);
+    if (messages.isEmpty()) {
+      return 0;
+    }
+    List<CompletableFuture<SendResult<Object, Object>>> futures = new ArrayList<>(messages.size());
+    for (OutboxMessage message : messages) {
+      futures.add(
+          kafkaTemplate.send(message.getTopic(), message.getMessageKey(), message.getPayload()));
+    }
+    kafkaTemplate.flush();
+    List<Long> publishedIds = new ArrayList<>(messages.size());
+    LocalDateTime now = LocalDateTime.now();
+    for (int i = 0; i < messages.size(); i++) {
+      OutboxMessage message = messages.get(i);
+      try {
+        futures.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        publishedIds.add(message.getId());
+        deliveryLatencyTimer.record(Duration.between(message.getCreatedAt(), now));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.error("Interrupted while publishing outbox message: {}", message.getMessageId());
+        break;
+      } catch (Exception e) {
+        failedCounter.increment();
+        log.error(
+            "Failed to publish outbox message: {} to queue: {}",
+            message.getMessageId(),
+            message.getTopic(),
+            e);
+      }
+    }
+    outboxMessageRepository.deleteAllByIdInBatch(publishedIds);
+    publishedCounter.increment(publishedIds.size());
+    batchSizeSummary.record(messages.size());
+    log.info("Relayed {}/{} outbox messages", publishedIds.size(), messages.size());
+    // stop this run on failures instead of re-locking the same rows immediately
+    return publishedIds.size() == messages.size() ? messages.size() : 0;
+  }
+}
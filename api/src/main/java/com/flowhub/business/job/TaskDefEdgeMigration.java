@@ -0,0 +1,104 @@
+package com.flowhub.business.job;
+
+import com.flowhub.base.data.StringListConverter;
+import com.flowhub.business.engine.WorkflowGraphRegistry;
+import com.flowhub.business.entity.TaskDefEdge;
+import com.flowhub.business.repository.db.TaskDefEdgeRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-shot migration of the legacy pipe-delimited {@code tbl_task_def.previous_task_id} column to
+ * {@code tbl_task_def_edge}. Migrated rows get a {@code null} column, so the migration is a no-op
+ * once every definition has been converted and on databases that never had the column. The rows
+ * are read and migrated in one transaction under an advisory lock, so instances starting together
+ * migrate them once.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskDefEdgeMigration implements ApplicationRunner {
+
+  private static final long LOCK_KEY = 0x466c6f7748756232L;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final TaskDefEdgeRepository taskDefEdgeRepository;
+
+  private final WorkflowGraphRegistry workflowGraphRegistry;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Integer legacyColumns =
+        jdbcTemplate.queryForObject(
+            "select count(*) from information_schema.columns "
+                + "where table_schema = current_schema() and table_name = 'tbl_task_def' "
+                + "and column_name = 'previous_task_id'",
+            Integer.class);
+    if (legacyColumns == null || legacyColumns == 0) {
+      return;
+    }
+    List<TaskDefEdge> edges = new ArrayList<>();
+    Set<Long> workflowDefIds = new LinkedHashSet<>();
+    // instances starting together wait here; the later ones then find nothing left to migrate
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          jdbcTemplate.queryForObject(
+              "select 1 from (select pg_advisory_xact_lock(?)) l", Integer.class, LOCK_KEY);
+          edges.addAll(legacyEdges(workflowDefIds));
+          if (workflowDefIds.isEmpty()) {
+            return;
+          }
+          taskDefEdgeRepository.saveAll(edges);
+          jdbcTemplate.update(
+              "update tbl_task_def set previous_task_id = null "
+                  + "where previous_task_id is not null and is_deleted = false");
+        });
+    if (workflowDefIds.isEmpty()) {
+      return;
+    }
+    // graphs compiled before the migration saw no edges
+    workflowDefIds.forEach(workflowGraphRegistry::evict);
+    log.info(
+        "Migrated {} task edges of {} workflow definitions", edges.size(), workflowDefIds.size());
+  }
+
+  private List<TaskDefEdge> legacyEdges(Set<Long> workflowDefIds) {
+    StringListConverter converter = new StringListConverter();
+    List<TaskDefEdge> edges = new ArrayList<>();
+    jdbcTemplate.query(
+        "select id, workflow_def_id, previous_task_id from tbl_task_def "
+            + "where previous_task_id is not null and is_deleted = false",
+        rs -> {
+          long workflowDefId = rs.getLong("workflow_def_id");
+          for (String previousTaskId :
+              converter.convertToEntityAttribute(rs.getString("previous_task_id"))) {
+            if (StringUtils.isNotBlank(previousTaskId)) {
+              edges.add(
+                  TaskDefEdge.builder()
+                      .workflowDefId(workflowDefId)
+                      .fromTaskDefId(Long.valueOf(previousTaskId.trim()))
+                      .toTaskDefId(rs.getLong("id"))
+                      .build());
+            }
+          }
+          workflowDefIds.add(workflowDefId);
+        });
+    return edges;
+  }
+}
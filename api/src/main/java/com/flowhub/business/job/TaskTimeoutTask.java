@@ -0,0 +1,43 @@
+package com.flowhub.business.job;
+
+import com.flowhub.business.engine.TaskTimeoutMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Claims near deadlines for the {@link TaskTimeoutMonitor}, at startup and then periodically, so
+ * tasks dispatched by other instances or left behind by a stopped one time out here as well. The
+ * interval must stay below the horizon of the monitor, and bounds how late a task heartbeated close
+ * to its deadline may time out.
+ *
+ * <p>Claims scan the partial index {@code idx_task_deadline}, which only holds in-progress tasks
+ * with a response timeout, and is kept on the partitioned table like {@code idx_task_due_wait}, see
+ * {@link WaitTask}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskTimeoutTask implements ApplicationRunner {
+
+  private final TaskTimeoutMonitor taskTimeoutMonitor;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    jdbcTemplate.execute(
+        "create index if not exists idx_task_deadline on tbl_task (deadline) "
+            + "where task_status = 'IN_PROGRESS' and deadline is not null");
+  }
+
+  @Scheduled(fixedDelayString = "${custom.properties.timeout.claim.fixed-delay:5000}")
+  public void claimDeadlines() {
+    taskTimeoutMonitor.claim();
+  }
+}
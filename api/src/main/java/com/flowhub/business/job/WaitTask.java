@@ -1,70 +1,42 @@
 package com.flowhub.business.job;
 
-import com.flowhub.base.event.MessageData;
-import com.flowhub.base.event.MessageInterceptor;
-import com.flowhub.business.dto.message.TaskMessage;
-import com.flowhub.business.entity.Task;
-import com.flowhub.business.enums.TaskStatus;
-import com.flowhub.business.repository.db.TaskDefRepository;
-import com.flowhub.business.repository.db.TaskRepository;
+import com.flowhub.business.engine.WaitTimer;
 import lombok.RequiredArgsConstructor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
+ * Claims due WAIT tasks for the {@link WaitTimer}, at startup and then periodically, so waits
+ * created by other instances or left behind by a stopped one fire here as well. The interval must
+ * stay below the horizon of the timer for waits to be claimed before they are due.
+ *
+ * <p>Claims scan the partial index {@code idx_task_due_wait}, which only holds in-progress waits.
+ * Created on a partitioned table, it reaches every partition; created on a plain one, {@link
+ * ExecutionPartitionMaintainer} recreates it under the same name when converting the table.
+ *
  * @author haidv
  * @version 1.0
  */
 @Component
 @RequiredArgsConstructor
-public class WaitTask {
+public class WaitTask implements ApplicationRunner {
 
-  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  private final WaitTimer waitTimer;
 
-  private final TaskRepository taskRepository;
+  private final JdbcTemplate jdbcTemplate;
 
-  private final TaskDefRepository taskDefRepository;
-
-  private final MessageInterceptor messageInterceptor;
-
-  @Value("${spring.application.name}")
-  private String applicationName;
+  @Override
+  public void run(ApplicationArguments args) {
+    jdbcTemplate.execute(
+        "create index if not exists idx_task_due_wait on tbl_task (waiting) "
+            + "where task_status = 'IN_PROGRESS' and waiting is not null");
+  }
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
-  @Scheduled(fixedDelay = 5000)
+  @Scheduled(fixedDelayString = "${custom.properties.wait.claim.fixed-delay:10000}")
   public void waitTaskCompleted() {
-    for (int i = 0; i < Integer.MAX_VALUE; i++) {
-      var page =
-          taskRepository.findByDeletedFalseAndWaitingLessThanAndTaskStatusOrderByCreatedAtDesc(
-              System.currentTimeMillis(), TaskStatus.IN_PROGRESS, PageRequest.of(i, 1000));
-      for (Task task : page.getContent()) {
-        taskDefRepository
-            .findByDeletedFalseAndId(task.getTaskDefId())
-            .ifPresentOrElse(
-                taskDef ->
-                    messageInterceptor.convertAndSend(
-                        taskDef.getSink(),
-                        new MessageData(
-                            String.format(
-                                "%s:%s", task.getWorkflowDefName(), task.getCorrelationId()),
-                            TaskMessage.builder()
-                                       .taskId(task.getId())
-                                       .taskDefName(task.getTaskDefName())
-                                       .inputParameters(task.getInputParameters())
-                                       .requiredOutputParameters(taskDef.getRequiredOutputParameters())
-                                       .correlationId(task.getCorrelationId())
-                                       .taskStatus(TaskStatus.COMPLETED)
-                                       .workerName(applicationName)
-                                       .build())),
-                () -> log.error("Not found taskDef with id: {}", task.getTaskDefId()));
-      }
-      if (page.getTotalElements() < 1000) {
-        break;
-      }
-    }
+    waitTimer.claim();
   }
 }
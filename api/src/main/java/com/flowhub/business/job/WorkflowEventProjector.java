@@ -0,0 +1,261 @@
+package com.flowhub.business.job;
+
+import com.flowhub.base.constant.RequestConstant;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.repository.db.WorkflowEventRepository;
+import com.flowhub.business.store.ExecutionStore;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Projects {@code tbl_workflow_event} onto {@code tbl_workflow} and {@code tbl_task} for the {@link
+ * com.flowhub.business.store.EventLogExecutionStore}, so the query APIs keep reading the tables
+ * they always did.
+ *
+ * <p>Every event records the id of the transaction that appended it. Events are applied in order of
+ * that id from the position stored in {@code tbl_workflow_event_projection}, and only those of
+ * transactions below {@code pg_snapshot_xmin(pg_current_snapshot())}, which have all ended: a
+ * transaction committing late is below the horizon only once it committed, so the position never
+ * passes an event that is not visible yet. A long running transaction anywhere in the database
+ * holds the horizon back and delays the projection, it never loses events.
+ *
+ * <p>The checkpoint row also serializes instances: a run holds it with {@code SKIP LOCKED} and an
+ * instance finding it locked skips its run. Every statement is idempotent, a batch may be replayed
+ * after a crash.
+ *
+ * <p>The event table is prepared in the first lifecycle phase, before the Kafka listener
+ * containers start appending events to it.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ExecutionStore.PROPERTY, havingValue = "event-log")
+public class WorkflowEventProjector implements SmartLifecycle {
+
+  static final String CHECKPOINT_TABLE = "tbl_workflow_event_projection";
+
+  /** Checkpoint of transaction ids, distinct from the event id position used before. */
+  private static final String NAME = "execution-transaction";
+
+  private static final String EVENTS =
+      "from tbl_workflow_event e where e.tx_id > ? and e.tx_id <= ? ";
+
+  private static final String HORIZON = "pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+  private static final String AUDIT = "now(), now(), '" + RequestConstant.SYSTEM + "', '"
+      + RequestConstant.SYSTEM + "', false, 0, ";
+
+  private static final String PROJECT_STARTED =
+      "insert into tbl_workflow (id, created_at, updated_at, created_by, updated_by, "
+          + "is_deleted, version, correlation_id, workflow_def_id, workflow_def_name, "
+          + "workflow_status, input_parameters, pending_tasks, finished_tasks, started_at) "
+          + "select e.workflow_id, " + AUDIT + "e.correlation_id, e.workflow_def_id, "
+          + "d.workflow_def_name, e.status, e.payload, e.pending_delta, 0, e.created_at "
+          + "from tbl_workflow_event e "
+          + "left join tbl_workflow_def d on d.id = e.workflow_def_id "
+          + "where e.tx_id > ? and e.tx_id <= ? and e.event_type = 'WORKFLOW_STARTED' "
+          + "on conflict (id) do nothing";
+
+  private static final String PROJECT_SCHEDULED =
+      "insert into tbl_task (id, created_at, updated_at, created_by, updated_by, "
+          + "is_deleted, version, correlation_id, workflow_id, parent_task_id, task_def_id, "
+          + "task_def_name, workflow_def_id, workflow_def_name, task_status, waiting, "
+          + "deadline, response_timeout, timeout_count, input_parameters, started_at) "
+          + "select e.task_id, " + AUDIT + "e.correlation_id, e.workflow_id, "
+          + "e.parent_task_id, e.task_def_id, t.task_def_name, e.workflow_def_id, "
+          + "d.workflow_def_name, e.status, e.waiting, e.deadline, "
+          + "case when e.deadline is not null then t.response_timeout end, e.timeout_count, "
+          + "e.payload, e.created_at "
+          + "from tbl_workflow_event e "
+          + "left join tbl_task_def t on t.id = e.task_def_id "
+          + "left join tbl_workflow_def d on d.id = e.workflow_def_id "
+          + "where e.tx_id > ? and e.tx_id <= ? and e.event_type = 'TASK_SCHEDULED' "
+          + "on conflict (id) do nothing";
+
+  private static final String PROJECT_FINISHED =
+      "update tbl_task t set task_status = e.status, worker_name = e.worker_name, "
+          + "output_parameters = e.payload, ended_at = e.created_at, updated_at = now(), "
+          + "version = t.version + 1 "
+          + EVENTS
+          + "and e.event_type = 'TASK_FINISHED' and t.id = e.task_id "
+          + "and t.task_status = '" + TaskStatus.IN_PROGRESS.name() + "'";
+
+  private static final String PROJECT_DISPATCHED =
+      "update tbl_task t set dispatched_at = e.created_at, updated_at = now(), "
+          + "version = t.version + 1 "
+          + EVENTS
+          + "and e.event_type = 'TASK_DISPATCHED' and t.id = e.task_id "
+          + "and t.dispatched_at is null";
+
+  /** Recomputes the counters of every progressed workflow from all of its events so far. */
+  private static final String PROJECT_PROGRESSED =
+      "update tbl_workflow w set pending_tasks = s.pending_tasks, "
+          + "finished_tasks = s.finished_tasks, updated_at = now(), version = w.version + 1 "
+          + "from (select a.workflow_id, coalesce(sum(a.pending_delta), 0) pending_tasks, "
+          + "count(*) filter (where a.event_type = 'TASK_FINISHED' "
+          + "and a.parent_task_id is null) finished_tasks "
+          + "from tbl_workflow_event a where a.tx_id <= ? and a.workflow_id in "
+          + "(select e.workflow_id " + EVENTS + "and e.event_type = 'WORKFLOW_PROGRESSED') "
+          + "group by a.workflow_id) s "
+          + "where w.id = s.workflow_id";
+
+  private static final String PROJECT_ENDED =
+      "update tbl_workflow w set workflow_status = e.status, ended_at = e.created_at, "
+          + "updated_at = now(), version = w.version + 1 "
+          + EVENTS
+          + "and e.event_type in " + WorkflowEventRepository.ENDED_TYPES
+          + " and w.id = e.workflow_id "
+          + "and w.workflow_status = '" + WorkflowStatus.RUNNING.name() + "'";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int batchSize;
+
+  private volatile boolean running;
+
+  public WorkflowEventProjector(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      @Value("${custom.properties.execution.projector.batch-size:5000}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  @Override
+  public void start() {
+    this.prepare();
+    this.running = true;
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return Integer.MIN_VALUE;
+  }
+
+  private void prepare() {
+    // the enum check created by ddl-auto would reject event types added after the table
+    jdbcTemplate.execute(
+        "alter table tbl_workflow_event drop constraint if exists "
+            + "tbl_workflow_event_event_type_check");
+    // not mapped by the entity, so every insert takes the id of its own transaction
+    jdbcTemplate.execute(
+        "alter table tbl_workflow_event add column if not exists tx_id bigint not null "
+            + "default pg_current_xact_id()::text::bigint");
+    jdbcTemplate.execute(
+        "create index if not exists idx_workflow_event_tx_id on tbl_workflow_event (tx_id)");
+    this.createEndedIndex();
+    jdbcTemplate.execute(
+        "create table if not exists " + CHECKPOINT_TABLE
+            + " (name varchar(64) primary key, position bigint not null)");
+    jdbcTemplate.update(
+        "insert into " + CHECKPOINT_TABLE + " (name, position) values (?, ?) "
+            + "on conflict (name) do nothing",
+        NAME,
+        0L);
+  }
+
+  /**
+   * Creates the unique index that lets a workflow end once. Ends appended twice before it existed
+   * are removed first, keeping the earliest one.
+   */
+  private void createEndedIndex() {
+    Integer indexes =
+        jdbcTemplate.queryForObject(
+            "select count(*) from pg_indexes "
+                + "where schemaname = current_schema() and indexname = ?",
+            Integer.class,
+            WorkflowEventRepository.ENDED_INDEX);
+    if (indexes != null && indexes > 0) {
+      return;
+    }
+    int removed =
+        jdbcTemplate.update(
+            "delete from tbl_workflow_event e using tbl_workflow_event f "
+                + "where f.workflow_id = e.workflow_id and f.id < e.id "
+                + "and e.event_type in " + WorkflowEventRepository.ENDED_TYPES
+                + " and f.event_type in " + WorkflowEventRepository.ENDED_TYPES);
+    jdbcTemplate.execute(
+        "create unique index if not exists " + WorkflowEventRepository.ENDED_INDEX
+            + " on tbl_workflow_event (workflow_id) "
+            + "where event_type in " + WorkflowEventRepository.ENDED_TYPES);
+    if (removed > 0) {
+      log.warn("Removed {} repeated workflow end events", removed);
+    }
+  }
+
+  @Scheduled(
+      initialDelayString = "${custom.properties.execution.projector.fixed-delay:500}",
+      fixedDelayString = "${custom.properties.execution.projector.fixed-delay:500}")
+  public void project() {
+    try {
+      Integer projected;
+      do {
+        projected = transactionTemplate.execute(status -> projectBatch());
+      } while (projected != null && projected >= batchSize);
+    } catch (Exception e) {
+      log.error("Failed to project workflow events", e);
+    }
+  }
+
+  /**
+   * Applies the events of the next ended transactions and moves the checkpoint past them. A batch
+   * holds whole transactions, so it may exceed the batch size by the events of the last one.
+   */
+  private int projectBatch() {
+    List<Long> positions =
+        jdbcTemplate.queryForList(
+            "select position from " + CHECKPOINT_TABLE
+                + " where name = ? for update skip locked",
+            Long.class,
+            NAME);
+    if (positions.isEmpty()) {
+      return 0;
+    }
+    long from = positions.get(0);
+    Map<String, Object> batch =
+        jdbcTemplate.queryForMap(
+            "select count(*) events, max(b.tx_id) position from (select e.tx_id "
+                + "from tbl_workflow_event e where e.tx_id > ? and e.tx_id < " + HORIZON
+                + " order by e.tx_id limit ?) b",
+            from,
+            batchSize);
+    int events = ((Number) batch.get("events")).intValue();
+    if (events == 0) {
+      return 0;
+    }
+    long to = ((Number) batch.get("position")).longValue();
+    jdbcTemplate.update(PROJECT_STARTED, from, to);
+    jdbcTemplate.update(PROJECT_SCHEDULED, from, to);
+    jdbcTemplate.update(PROJECT_DISPATCHED, from, to);
+    jdbcTemplate.update(PROJECT_FINISHED, from, to);
+    jdbcTemplate.update(PROJECT_PROGRESSED, to, from, to);
+    jdbcTemplate.update(PROJECT_ENDED, from, to);
+    jdbcTemplate.update(
+        "update " + CHECKPOINT_TABLE + " set position = ? where name = ?", to, NAME);
+    return events;
+  }
+}
@@ -0,0 +1,145 @@
+package com.flowhub.business.payload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link PayloadStore} on a directory every node mounts, such as a network file system. Blobs live
+ * in one directory per owner, sharded by the low byte of the owner id, and are written through a
+ * temporary file followed by an atomic move, so a reader never sees a partially written blob. A
+ * key is {@code <owner>/<sha256>}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+public class FileSystemPayloadStore implements PayloadStore {
+
+  private static final int HASH_LENGTH = 64;
+
+  private final Path directory;
+
+  public FileSystemPayloadStore(
+      @Value("${custom.properties.payload.store.directory:}") String directory) {
+    this.directory = StringUtils.hasText(directory) ? Path.of(directory) : null;
+  }
+
+  @Override
+  public boolean isConfigured() {
+    return directory != null;
+  }
+
+  @Override
+  public String key(long owner, byte[] content) {
+    return owner + "/" + sha256(content);
+  }
+
+  @Override
+  public String put(long owner, byte[] content) {
+    String key = this.key(owner, content);
+    Path target = resolve(key);
+    if (Files.exists(target)) {
+      return key;
+    }
+    try {
+      Files.createDirectories(target.getParent());
+      Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+      try {
+        Files.write(temp, content);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+      } catch (FileAlreadyExistsException e) {
+        // written concurrently with the same content
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't store payload: " + key, e);
+    }
+    return key;
+  }
+
+  @Override
+  public byte[] get(String key) {
+    try {
+      return Files.readAllBytes(resolve(key));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't read payload: " + key, e);
+    }
+  }
+
+  @Override
+  public void delete(Collection<Long> owners) {
+    if (directory == null) {
+      return;
+    }
+    for (Long owner : owners) {
+      Path ownerDirectory = ownerDirectory(owner);
+      if (!Files.isDirectory(ownerDirectory)) {
+        continue;
+      }
+      try (Stream<Path> paths = Files.walk(ownerDirectory)) {
+        for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+          Files.deleteIfExists(path);
+        }
+      } catch (NoSuchFileException e) {
+        // deleted concurrently
+      } catch (IOException e) {
+        throw new UncheckedIOException("Can't delete payloads of: " + owner, e);
+      }
+    }
+  }
+
+  private Path resolve(String key) {
+    // the key comes from messages and rows, never let it escape the directory
+    int separator = key.indexOf('/');
+    String hash = key.substring(separator + 1);
+    if (separator <= 0 || hash.length() != HASH_LENGTH) {
+      throw new IllegalArgumentException("Invalid payload key: " + key);
+    }
+    long owner;
+    try {
+      owner = Long.parseLong(key.substring(0, separator));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid payload key: " + key, e);
+    }
+    for (int i = 0; i < hash.length(); i++) {
+      if (!HexFormat.isHexDigit(hash.charAt(i))) {
+        throw new IllegalArgumentException("Invalid payload key: " + key);
+      }
+    }
+    return ownerDirectory(owner).resolve(hash);
+  }
+
+  private Path ownerDirectory(long owner) {
+    if (directory == null) {
+      throw new IllegalStateException("No payload store directory is configured");
+    }
+    if (owner < 0) {
+      throw new IllegalArgumentException("Invalid payload owner: " + owner);
+    }
+    String shard = HexFormat.of().toHexDigits((byte) owner);
+    return directory.resolve(shard).resolve(Long.toString(owner));
+  }
+
+  private static String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.flowhub.business.payload;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Replaces parameter values whose JSON form is larger than the configured threshold by a reference
+ * to the {@link PayloadStore} and resolves such references back. A reference is a single entry map
+ * {@code {"$payloadRef": "<key>"}}, so it survives JSONB columns and Kafka messages unchanged and
+ * is copied between tasks instead of the value itself. Only values a task actually requires are
+ * resolved.
+ *
+ * <p>Externalization is off by default; enabling it requires a store every node can read, and the
+ * application fails to start without one. Workers receive the references and read the store
+ * themselves; {@code resolve-on-dispatch} sends them the values instead, at the cost of reading
+ * every blob in the transaction that dispatches the task.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+public class PayloadExternalizer {
+
+  public static final String PAYLOAD_REF = "$payloadRef";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final PayloadStore payloadStore;
+
+  private final boolean enabled;
+
+  private final int thresholdBytes;
+
+  private final boolean resolveOnDispatch;
+
+  public PayloadExternalizer(
+      PayloadStore payloadStore,
+      @Value("${custom.properties.payload.externalize.enabled:false}") boolean enabled,
+      @Value("${custom.properties.payload.externalize.threshold-bytes:16384}") int thresholdBytes,
+      @Value("${custom.properties.payload.externalize.resolve-on-dispatch:false}")
+      boolean resolveOnDispatch) {
+    Assert.state(
+        !enabled || payloadStore.isConfigured(),
+        "Payload externalization requires custom.properties.payload.store.directory");
+    this.payloadStore = payloadStore;
+    this.enabled = enabled;
+    this.thresholdBytes = thresholdBytes;
+    this.resolveOnDispatch = resolveOnDispatch;
+  }
+
+  /**
+   * Returns the given parameters with every large value moved to the store under the workflow or
+   * task owning them, or the same instance when nothing had to be moved.
+   */
+  public Map<String, Object> externalize(Long owner, Map<String, Object> parameters) {
+    Externalized externalized = this.prepare(owner, parameters);
+    externalized.store();
+    return externalized.parameters();
+  }
+
+  /**
+   * Like {@link #externalize} but only computes the references; their blobs are written by {@link
+   * Externalized#store()}. Used where the parameters are kept only if a conditional update
+   * succeeds, so a rejected update leaves no blob behind.
+   */
+  public Externalized prepare(Long owner, Map<String, Object> parameters) {
+    if (!enabled || owner == null || CollectionUtils.isEmpty(parameters)) {
+      return new Externalized(owner, parameters, List.of());
+    }
+    Map<String, Object> externalized = null;
+    List<byte[]> blobs = new ArrayList<>();
+    for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+      Object value = parameter.getValue();
+      if (!isCandidate(value) || isReference(value)) {
+        continue;
+      }
+      byte[] content = toJson(value);
+      if (content.length <= thresholdBytes) {
+        continue;
+      }
+      if (externalized == null) {
+        externalized = new HashMap<>(parameters);
+      }
+      externalized.put(parameter.getKey(), Map.of(PAYLOAD_REF, payloadStore.key(owner, content)));
+      blobs.add(content);
+    }
+    return new Externalized(owner, externalized == null ? parameters : externalized, blobs);
+  }
+
+  /**
+   * Returns the input a worker receives. Workers without access to the store get the values
+   * resolved; the input only holds the keys the task requires, so nothing else is loaded.
+   */
+  public Map<String, Object> forDispatch(Map<String, Object> inputParameters) {
+    return resolveOnDispatch ? resolve(inputParameters) : inputParameters;
+  }
+
+  /** Returns the given parameters with every reference replaced by its stored value. */
+  public Map<String, Object> resolve(Map<String, Object> parameters) {
+    if (CollectionUtils.isEmpty(parameters)) {
+      return parameters;
+    }
+    Map<String, Object> resolved = null;
+    for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+      if (isReference(parameter.getValue())) {
+        if (resolved == null) {
+          resolved = new HashMap<>(parameters);
+        }
+        resolved.put(parameter.getKey(), resolve(parameter.getValue()));
+      }
+    }
+    return resolved == null ? parameters : resolved;
+  }
+
+  /** Returns the stored value of a reference, or the value itself when it is not a reference. */
+  public Object resolve(Object value) {
+    if (!isReference(value)) {
+      return value;
+    }
+    String key = String.valueOf(((Map<?, ?>) value).get(PAYLOAD_REF));
+    try {
+      return objectMapper.readValue(payloadStore.get(key), Object.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't parse payload: " + key, e);
+    }
+  }
+
+  public static boolean isReference(Object value) {
+    return value instanceof Map<?, ?> map && map.size() == 1 && map.containsKey(PAYLOAD_REF);
+  }
+
+  private boolean isCandidate(Object value) {
+    // JSON takes at most six bytes per char (an escape), so shorter strings never reach the limit
+    if (value instanceof String string) {
+      return string.length() * 6L > thresholdBytes;
+    }
+    return value instanceof Map || value instanceof Collection;
+  }
+
+  /** Parameters holding references whose blobs are not stored yet. */
+  public final class Externalized {
+
+    private final Long owner;
+
+    private final Map<String, Object> parameters;
+
+    private final List<byte[]> blobs;
+
+    private Externalized(Long owner, Map<String, Object> parameters, List<byte[]> blobs) {
+      this.owner = owner;
+      this.parameters = parameters;
+      this.blobs = blobs;
+    }
+
+    public Map<String, Object> parameters() {
+      return parameters;
+    }
+
+    /** Stores the blobs the references of the parameters point to. */
+    public void store() {
+      blobs.forEach(content -> payloadStore.put(owner, content));
+    }
+  }
+
+  private byte[] toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Can't serialize payload", e);
+    }
+  }
+}
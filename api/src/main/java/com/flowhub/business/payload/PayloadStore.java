@@ -0,0 +1,30 @@
+package com.flowhub.business.payload;
+
+import java.util.Collection;
+
+/**
+ * Blob store for parameter values that are too large to travel inline. Blobs are immutable, owned
+ * by the workflow or task whose parameters they hold and keyed by the SHA-256 of their content
+ * within that owner, so storing the same value twice is a no-op, references can be copied freely
+ * between the tasks of a workflow and purging the owner removes its blobs.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public interface PayloadStore {
+
+  /** Returns whether the store has a location to write to. */
+  boolean isConfigured();
+
+  /** Returns the key the content is stored under for the given owner, without storing it. */
+  String key(long owner, byte[] content);
+
+  /** Stores the content for the given owner if it is not stored yet and returns its key. */
+  String put(long owner, byte[] content);
+
+  /** Returns the content of the given key, failing when it is unknown. */
+  byte[] get(String key);
+
+  /** Removes every blob of the given owners. */
+  void delete(Collection<Long> owners);
+}
@@ -0,0 +1,26 @@
+package com.flowhub.business.repository.db;
+
+import com.flowhub.business.entity.ForkDynamicChunk;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+@Repository
+public interface ForkDynamicChunkRepository extends JpaRepository<ForkDynamicChunk, Long> {
+
+  List<ForkDynamicChunk> findByForkTaskIdAndChunkNoBetweenOrderByChunkNo(
+      Long forkTaskId, Integer fromChunkNo, Integer toChunkNo);
+
+  @Modifying
+  @Query(
+      "delete from ForkDynamicChunk c "
+          + "where c.forkTaskId = ?1 and c.chunkNo between ?2 and ?3")
+  void deleteByForkTaskIdAndChunkNoBetween(
+      Long forkTaskId, Integer fromChunkNo, Integer toChunkNo);
+}
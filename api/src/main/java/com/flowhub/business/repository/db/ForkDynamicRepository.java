@@ -0,0 +1,19 @@
+package com.flowhub.business.repository.db;
+
+import com.flowhub.business.entity.ForkDynamic;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+@Repository
+public interface ForkDynamicRepository extends JpaRepository<ForkDynamic, Long> {
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<ForkDynamic> findByDeletedFalseAndForkTaskId(Long forkTaskId);
+}
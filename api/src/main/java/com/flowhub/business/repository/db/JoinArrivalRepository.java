@@ -0,0 +1,59 @@
+package com.flowhub.business.repository.db;
+
+import com.flowhub.business.entity.JoinArrival;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+@Repository
+public interface JoinArrivalRepository extends JpaRepository<JoinArrival, Long> {
+
+  /**
+   * Registers the arrival of one JOIN member in a single statement. The row lock taken by the
+   * upsert serializes concurrent members, so exactly one caller observes {@code arrivedCount ==
+   * arity}. A member that already arrived is ignored and yields an empty result.
+   */
+  @Query(
+      value =
+          "insert into tbl_join_arrival as ja (id, workflow_id, join_task_def_id, arity, "
+              + "arrived_count, arrived_members, merged_output, created_at, updated_at, "
+              + "created_by, updated_by, is_deleted, version) "
+              + "values (:id, :workflowId, :joinTaskDefId, :arity, 1, "
+              + "jsonb_build_array(:memberTaskDefId), cast(:output as jsonb), now(), now(), "
+              + "'SYSTEM', 'SYSTEM', false, 0) "
+              + "on conflict (workflow_id, join_task_def_id) do update set "
+              + "arrived_count = ja.arrived_count + 1, "
+              + "arrived_members = ja.arrived_members || excluded.arrived_members, "
+              + "merged_output = ja.merged_output || excluded.merged_output, "
+              + "updated_at = now(), version = ja.version + 1 "
+              + "where not ja.arrived_members @> excluded.arrived_members "
+              + "returning ja.arrived_count as arrivedCount, ja.arity as arity, "
+              + "cast(ja.merged_output as text) as mergedOutput",
+      nativeQuery = true)
+  Optional<JoinArrivalState> arrive(
+      @Param("id") Long id,
+      @Param("workflowId") Long workflowId,
+      @Param("joinTaskDefId") Long joinTaskDefId,
+      @Param("arity") int arity,
+      @Param("memberTaskDefId") Long memberTaskDefId,
+      @Param("output") String output);
+
+  interface JoinArrivalState {
+
+    Integer getArrivedCount();
+
+    Integer getArity();
+
+    String getMergedOutput();
+
+    default boolean isComplete() {
+      return getArrivedCount() != null && getArrivedCount().equals(getArity());
+    }
+  }
+}
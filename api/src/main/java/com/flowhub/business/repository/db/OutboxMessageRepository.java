@@ -0,0 +1,26 @@
+package com.flowhub.business.repository.db;
+
+import com.flowhub.business.entity.OutboxMessage;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+  /**
+   * Locks the oldest pending messages. Rows already locked by another relay are skipped, so
+   * several nodes drain disjoint batches concurrently.
+   */
+  @Query(
+      value =
+          "select om.* from tbl_outbox_message om order by om.id limit ?1 "
+              + "for update skip locked",
+      nativeQuery = true)
+  List<OutboxMessage> lockBatch(int batchSize);
+}
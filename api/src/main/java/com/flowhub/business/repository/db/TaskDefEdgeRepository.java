@@ -0,0 +1,40 @@
+package com.flowhub.business.repository.db;
+
+import jakarta.persistence.QueryHint;
+
+import com.flowhub.business.entity.TaskDef;
+import com.flowhub.business.entity.TaskDefEdge;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+@Repository
+public interface TaskDefEdgeRepository extends JpaRepository<TaskDefEdge, Long> {
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<TaskDefEdge> findByDeletedFalseAndWorkflowDefId(Long workflowDefId);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(
+      "select td from TaskDefEdge e join TaskDef td on td.id = e.toTaskDefId "
+          + "where e.fromTaskDefId = ?1 and e.deleted = false and td.deleted = false")
+  List<TaskDef> findSuccessors(Long fromTaskDefId);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(
+      "select e.fromTaskDefId from TaskDefEdge e "
+          + "where e.toTaskDefId = ?1 and e.deleted = false")
+  List<Long> findPredecessorIds(Long toTaskDefId);
+
+  @Modifying
+  @Query("delete from TaskDefEdge e where e.workflowDefId = ?1")
+  void deleteByWorkflowDefId(Long workflowDefId);
+}
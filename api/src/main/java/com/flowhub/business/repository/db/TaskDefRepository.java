@@ -1,10 +1,13 @@
 package com.flowhub.business.repository.db;
 
+import jakarta.persistence.QueryHint;
+
 import com.flowhub.business.entity.TaskDef;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -14,10 +17,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface TaskDefRepository extends JpaRepository<TaskDef, String> {
 
-  List<TaskDef> findByDeletedFalseAndWorkflowDefIdAndPreviousTaskIdIsNull(Long workflowId);
-
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<TaskDef> findByDeletedFalseAndId(Long id);
 
-  @Query(value = "select td.* from tbl_task_def td where td.is_deleted = false and td.previous_task_id like ?1", nativeQuery = true)
-  List<TaskDef> findByDeletedFalseAndPreviousTaskId(String previousTaskId);
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<TaskDef> findByDeletedFalseAndWorkflowDefId(Long workflowDefId);
 }
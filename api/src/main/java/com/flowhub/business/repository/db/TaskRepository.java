@@ -2,11 +2,13 @@ package com.flowhub.business.repository.db;
 
 import com.flowhub.business.entity.Task;
 import com.flowhub.business.enums.TaskStatus;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -18,7 +20,163 @@ public interface TaskRepository extends JpaRepository<Task, String> {
 
   Optional<Task> findByDeletedFalseAndIdAndTaskStatus(Long id, TaskStatus taskStatus);
 
-  List<Task> findByDeletedFalseAndTaskDefIdInAndTaskStatusIn(List<String> ids, List<TaskStatus> taskStatuses);
+  String FINISH_IN_PROGRESS_SET =
+      "update tbl_task t set task_status = :taskStatus, worker_name = :workerName, ";
 
-  Page<Task> findByDeletedFalseAndWaitingLessThanAndTaskStatusOrderByCreatedAtDesc(Long id, TaskStatus taskStatus, Pageable pageable);
+  String FINISH_IN_PROGRESS_WHERE =
+      "ended_at = now(), updated_at = now(), version = t.version + 1 "
+          + "from tbl_workflow wf "
+          + "where t.id = :id and t.is_deleted = false and t.task_status = 'IN_PROGRESS' "
+          + "and wf.id = t.workflow_id and wf.is_deleted = false "
+          + "and wf.workflow_status = 'RUNNING' "
+          + "returning t.task_def_id as taskDefId, t.workflow_id as workflowId, "
+          + "t.parent_task_id as parentTaskId, t.workflow_def_id as workflowDefId, "
+          + "t.workflow_def_name as workflowDefName, t.correlation_id as correlationId";
+
+  /**
+   * Finishes an in-progress task of a running workflow in one statement without loading it. An
+   * empty result means the task was already finished or its workflow is not running, so the
+   * affected row doubles as the idempotency guard for redelivered events.
+   */
+  @Query(
+      value =
+          FINISH_IN_PROGRESS_SET
+              + "output_parameters = cast(:outputParameters as jsonb), "
+              + FINISH_IN_PROGRESS_WHERE,
+      nativeQuery = true)
+  Optional<FinishedTask> finishInProgress(
+      @Param("id") Long id,
+      @Param("taskStatus") String taskStatus,
+      @Param("workerName") String workerName,
+      @Param("outputParameters") String outputParameters);
+
+  /**
+   * Same as {@link #finishInProgress} for a compressed {@code bytea} output column, see {@link
+   * com.flowhub.base.data.CompressedJsonJdbcType}.
+   */
+  @Query(
+      value =
+          FINISH_IN_PROGRESS_SET
+              + "output_parameters = :outputParameters, "
+              + FINISH_IN_PROGRESS_WHERE,
+      nativeQuery = true)
+  Optional<FinishedTask> finishInProgressCompressed(
+      @Param("id") Long id,
+      @Param("taskStatus") String taskStatus,
+      @Param("workerName") String workerName,
+      @Param("outputParameters") byte[] outputParameters);
+
+  /**
+   * Leases due WAIT tasks to one owner. Candidates are locked with {@code SKIP LOCKED}, so
+   * concurrent claims never wait on each other and never return the same task; the scan is served
+   * by the partial index {@code idx_task_due_wait}.
+   */
+  @Query(
+      value =
+          "update tbl_task t set lease_owner = :owner, lease_until = :leaseUntil "
+              + "where t.id in (select c.id from tbl_task c "
+              + "where c.task_status = 'IN_PROGRESS' and c.waiting is not null "
+              + "and c.waiting < :dueBefore and c.dispatched_at is null and c.is_deleted = false "
+              + "and (c.lease_until is null or c.lease_until < :now) "
+              + "order by c.waiting limit :size for update skip locked) "
+              + "returning t.*",
+      nativeQuery = true)
+  List<Task> claimDueWaits(
+      @Param("dueBefore") long dueBefore,
+      @Param("owner") String owner,
+      @Param("now") long now,
+      @Param("leaseUntil") long leaseUntil,
+      @Param("size") int size);
+
+  /**
+   * Marks in-progress WAIT tasks as dispatched; a task already marked is not returned again, so
+   * only one caller sends it.
+   */
+  @Query(
+      value =
+          "update tbl_task set dispatched_at = now(), updated_at = now(), version = version + 1 "
+              + "where id in (:ids) and is_deleted = false and task_status = 'IN_PROGRESS' "
+              + "and waiting is not null and dispatched_at is null "
+              + "returning id",
+      nativeQuery = true)
+  List<Long> markWaitsDispatched(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Leases in-progress tasks whose deadline is near to one owner, like {@link #claimDueWaits}; the
+   * scan is served by the partial index {@code idx_task_deadline}.
+   */
+  @Query(
+      value =
+          "update tbl_task t set lease_owner = :owner, lease_until = :leaseUntil "
+              + "where t.id in (select c.id from tbl_task c "
+              + "where c.task_status = 'IN_PROGRESS' and c.deadline is not null "
+              + "and c.deadline < :dueBefore and c.is_deleted = false "
+              + "and (c.lease_until is null or c.lease_until < :now) "
+              + "order by c.deadline limit :size for update skip locked) "
+              + "returning t.*",
+      nativeQuery = true)
+  List<Task> claimDueTimeouts(
+      @Param("dueBefore") long dueBefore,
+      @Param("owner") String owner,
+      @Param("now") long now,
+      @Param("leaseUntil") long leaseUntil,
+      @Param("size") int size);
+
+  /**
+   * Times out every listed task whose deadline passed in one statement and returns those of running
+   * workflows. Tasks of other workflows leave the deadline index all the same.
+   */
+  @Query(
+      value =
+          "with timed_out as (update tbl_task t set task_status = 'TIMED_OUT', "
+              + "ended_at = now(), updated_at = now(), version = t.version + 1 "
+              + "where t.id in (:ids) and t.is_deleted = false and t.task_status = 'IN_PROGRESS' "
+              + "and t.deadline <= :now returning t.*) "
+              + "select o.* from timed_out o join tbl_workflow wf on wf.id = o.workflow_id "
+              + "where wf.is_deleted = false and wf.workflow_status = 'RUNNING'",
+      nativeQuery = true)
+  List<Task> timeOutInProgress(@Param("ids") Collection<Long> ids, @Param("now") long now);
+
+  /** Returns the listed in-progress tasks whose deadline passed, for the event log. */
+  @Query(
+      value =
+          "select * from tbl_task where id in (:ids) and is_deleted = false "
+              + "and task_status = 'IN_PROGRESS' and deadline <= :now",
+      nativeQuery = true)
+  List<Task> findTimedOut(@Param("ids") Collection<Long> ids, @Param("now") long now);
+
+  /** Drops the deadline of tasks that can no longer time out, for the event log. */
+  @Modifying
+  @Query(
+      value =
+          "update tbl_task set deadline = null, lease_owner = null, lease_until = null "
+              + "where id in (:ids)",
+      nativeQuery = true)
+  void clearDeadlines(@Param("ids") Collection<Long> ids);
+
+  /** Moves the deadline of in-progress tasks by their response timeout and frees their lease. */
+  @Query(
+      value =
+          "update tbl_task set deadline = :now + response_timeout, lease_owner = null, "
+              + "lease_until = null, updated_at = now(), version = version + 1 "
+              + "where id in (:ids) and is_deleted = false and task_status = 'IN_PROGRESS' "
+              + "and deadline is not null and response_timeout is not null "
+              + "returning id",
+      nativeQuery = true)
+  List<Long> heartbeat(@Param("ids") Collection<Long> ids, @Param("now") long now);
+
+  interface FinishedTask {
+
+    Long getTaskDefId();
+
+    Long getWorkflowId();
+
+    Long getParentTaskId();
+
+    Long getWorkflowDefId();
+
+    String getWorkflowDefName();
+
+    String getCorrelationId();
+  }
 }
@@ -1,8 +1,14 @@
 package com.flowhub.business.repository.db;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 import com.flowhub.business.entity.WorkflowDef;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -12,7 +18,16 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface WorkflowDefRepository extends JpaRepository<WorkflowDef, String> {
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<WorkflowDef> findByDeletedFalseAndWorkflowDefName(String name);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<WorkflowDef> findByDeletedFalseAndId(Long id);
+
+  /**
+   * Loads a definition whose version is incremented on commit even when only its task definitions
+   * change, so the graph cached by other instances is rebuilt.
+   */
+  @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+  Optional<WorkflowDef> findForUpdateByDeletedFalseAndId(Long id);
 }
@@ -0,0 +1,142 @@
+package com.flowhub.business.repository.db;
+
+import com.flowhub.business.entity.WorkflowEvent;
+import com.flowhub.business.enums.WorkflowEventType;
+import com.flowhub.business.repository.db.TaskRepository.FinishedTask;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+@Repository
+public interface WorkflowEventRepository extends JpaRepository<WorkflowEvent, Long> {
+
+  /** Event types that end a workflow, covered by the partial unique index {@link #ENDED_INDEX}. */
+  String ENDED_TYPES = "('WORKFLOW_COMPLETED', 'WORKFLOW_FAILED')";
+
+  String ENDED_INDEX = "uk_workflow_event_workflow_ended";
+
+  String APPEND_FINISHED_INSERT =
+      "insert into tbl_workflow_event (id, workflow_id, event_type, task_id, parent_task_id, "
+          + "task_def_id, workflow_def_id, correlation_id, status, worker_name, payload, "
+          + "created_at) "
+          + "select :id, s.workflow_id, 'TASK_FINISHED', s.task_id, s.parent_task_id, "
+          + "s.task_def_id, s.workflow_def_id, s.correlation_id, :taskStatus, :workerName, ";
+
+  String APPEND_FINISHED_SELECT =
+      "now() from tbl_workflow_event s "
+          + "where s.task_id = :taskId and s.event_type = 'TASK_SCHEDULED' "
+          + "and not exists (select 1 from tbl_workflow_event c "
+          + "where c.workflow_id = s.workflow_id and c.event_type in " + ENDED_TYPES + ") "
+          + "on conflict (task_id, event_type) do nothing "
+          + "returning task_def_id as taskDefId, workflow_id as workflowId, "
+          + "parent_task_id as parentTaskId, workflow_def_id as workflowDefId, "
+          + "cast(null as varchar) as workflowDefName, correlation_id as correlationId";
+
+  /**
+   * Appends the {@code TASK_FINISHED} event of a task scheduled in the event log, copying its
+   * context from the {@code TASK_SCHEDULED} event. The unique {@code (task_id, event_type)} key
+   * turns a redelivered event into an empty result, as does a completed workflow; the workflow
+   * definition name is not stored in events and resolved from the graph instead.
+   */
+  @Query(
+      value =
+          APPEND_FINISHED_INSERT + "cast(:payload as jsonb), " + APPEND_FINISHED_SELECT,
+      nativeQuery = true)
+  Optional<FinishedTask> appendFinished(
+      @Param("id") Long id,
+      @Param("taskId") Long taskId,
+      @Param("taskStatus") String taskStatus,
+      @Param("workerName") String workerName,
+      @Param("payload") String payload);
+
+  /**
+   * Same as {@link #appendFinished} for a compressed {@code bytea} payload column, see {@link
+   * com.flowhub.base.data.CompressedJsonJdbcType}.
+   */
+  @Query(value = APPEND_FINISHED_INSERT + ":payload, " + APPEND_FINISHED_SELECT, nativeQuery = true)
+  Optional<FinishedTask> appendFinishedCompressed(
+      @Param("id") Long id,
+      @Param("taskId") Long taskId,
+      @Param("taskStatus") String taskStatus,
+      @Param("workerName") String workerName,
+      @Param("payload") byte[] payload);
+
+  /**
+   * Appends the event ending a workflow unless it already ended. The partial unique index {@link
+   * #ENDED_INDEX} on {@code workflow_id} turns a second end into a no-op, so the projection sees
+   * exactly one end per workflow.
+   *
+   * @return the number of appended events
+   */
+  @Modifying
+  @Query(
+      value =
+          "insert into tbl_workflow_event (id, workflow_id, event_type, status, created_at) "
+              + "values (:id, :workflowId, :eventType, :status, now()) "
+              + "on conflict (workflow_id) where event_type in " + ENDED_TYPES + " do nothing",
+      nativeQuery = true)
+  int appendEnded(
+      @Param("id") Long id,
+      @Param("workflowId") Long workflowId,
+      @Param("eventType") String eventType,
+      @Param("status") String status);
+
+  /**
+   * Appends the {@code TASK_DISPATCHED} event of an unfinished WAIT task. The unique {@code
+   * (task_id, event_type)} key lets only one caller dispatch the task.
+   *
+   * @return the task id when this call appended the event
+   */
+  @Query(
+      value =
+          "insert into tbl_workflow_event (id, workflow_id, event_type, task_id, parent_task_id, "
+              + "task_def_id, workflow_def_id, correlation_id, status, created_at) "
+              + "select :id, s.workflow_id, 'TASK_DISPATCHED', s.task_id, s.parent_task_id, "
+              + "s.task_def_id, s.workflow_def_id, s.correlation_id, s.status, now() "
+              + "from tbl_workflow_event s "
+              + "where s.task_id = :taskId and s.event_type = 'TASK_SCHEDULED' "
+              + "and s.waiting is not null "
+              + "and not exists (select 1 from tbl_workflow_event f "
+              + "where f.task_id = s.task_id and f.event_type = 'TASK_FINISHED') "
+              + "on conflict (task_id, event_type) do nothing "
+              + "returning task_id",
+      nativeQuery = true)
+  Optional<Long> appendDispatched(@Param("id") Long id, @Param("taskId") Long taskId);
+
+  Optional<WorkflowEvent> findByTaskIdAndEventType(Long taskId, WorkflowEventType eventType);
+
+  boolean existsByTaskIdAndEventType(Long taskId, WorkflowEventType eventType);
+
+  /**
+   * Serializes progress updates of one workflow until the end of the transaction. The pending
+   * count must be read by a later statement, whose snapshot then includes every concurrent batch
+   * that held the lock before.
+   */
+  @Query(value = "select 1 from (select pg_advisory_xact_lock(:workflowId)) l", nativeQuery = true)
+  Integer lockWorkflow(@Param("workflowId") Long workflowId);
+
+  @Query(
+      value =
+          "select e.workflow_id as workflowId, sum(e.pending_delta) as pendingTasks "
+              + "from tbl_workflow_event e "
+              + "where e.workflow_id in (:workflowIds) and e.pending_delta is not null "
+              + "group by e.workflow_id",
+      nativeQuery = true)
+  List<PendingTasks> sumPendingTasks(@Param("workflowIds") Collection<Long> workflowIds);
+
+  interface PendingTasks {
+
+    Long getWorkflowId();
+
+    Long getPendingTasks();
+  }
+}
@@ -4,7 +4,9 @@ import com.flowhub.business.entity.Workflow;
 import com.flowhub.business.enums.WorkflowStatus;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -21,7 +23,46 @@ public interface WorkflowRepository extends JpaRepository<Workflow, String> {
   @Query(
       "select count(wf.id) > 0 from Workflow wf " +
           "join TaskDef td on wf.workflowDefId = td.workflowDefId " +
-          "left join Task t on td.id = t.taskDefId and t.taskStatus in (com.flowhub.enums.TaskStatus.COMPLETED, com.flowhub.enums.TaskStatus.COMPLETED_WITH_ERRORS) " +
+          "left join Task t on td.id = t.taskDefId and t.workflowId = wf.id " +
+          "and t.taskStatus in (com.flowhub.business.enums.TaskStatus.COMPLETED, " +
+          "com.flowhub.business.enums.TaskStatus.COMPLETED_WITH_ERRORS) " +
           "where wf.id = ?1 and t.id is null")
   boolean existsByCompletedAllTask(Long workflowId);
+
+  /**
+   * Adds {@code delta} outstanding tasks and {@code finished} finished tasks to a running workflow
+   * and marks it completed when no task is outstanding. Rows created before the counters existed
+   * keep {@code null} counters and are reported back unchanged.
+   */
+  @Query(
+      value =
+          "update tbl_workflow set "
+              + "pending_tasks = pending_tasks + :delta, "
+              + "finished_tasks = finished_tasks + :finished, "
+              + "workflow_status = case when pending_tasks + :delta <= 0 "
+              + "then 'COMPLETED' else workflow_status end, "
+              + "ended_at = case when pending_tasks + :delta <= 0 then now() else ended_at end, "
+              + "updated_at = now(), version = version + 1 "
+              + "where id = :id and is_deleted = false and workflow_status = 'RUNNING' "
+              + "returning pending_tasks as pendingTasks, workflow_status as workflowStatus",
+      nativeQuery = true)
+  Optional<WorkflowProgress> updateProgress(
+      @Param("id") Long id, @Param("delta") int delta, @Param("finished") int finished);
+
+  /** Fails a running workflow; finishes of its outstanding tasks are rejected from then on. */
+  @Modifying
+  @Query(
+      value =
+          "update tbl_workflow set workflow_status = 'FAILED', ended_at = now(), "
+              + "updated_at = now(), version = version + 1 "
+              + "where id = :id and is_deleted = false and workflow_status = 'RUNNING'",
+      nativeQuery = true)
+  int fail(@Param("id") Long id);
+
+  interface WorkflowProgress {
+
+    Integer getPendingTasks();
+
+    String getWorkflowStatus();
+  }
 }
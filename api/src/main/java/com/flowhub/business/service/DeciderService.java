@@ -1,6 +1,8 @@
 package com.flowhub.business.service;
 
 import com.flowhub.business.dto.message.WorkflowMessage;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author haidv
@@ -11,4 +13,13 @@ public interface DeciderService {
   void startWorkflow(WorkflowMessage workflowMessage);
 
   void finishTask(WorkflowMessage taskMessage);
+
+  void decide(
+      List<WorkflowMessage> startWorkflowMessages,
+      List<WorkflowMessage> finishTaskMessages,
+      List<WorkflowMessage> heartbeatMessages);
+
+  void heartbeat(List<WorkflowMessage> heartbeatMessages);
+
+  void timeOutTasks(Collection<Long> taskIds);
 }
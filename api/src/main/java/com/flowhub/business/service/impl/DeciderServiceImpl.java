@@ -2,30 +2,45 @@ package com.flowhub.business.service.impl;
 
 import com.flowhub.base.data.BaseService;
 import com.flowhub.base.event.MessageData;
-import com.flowhub.base.event.MessageInterceptor;
+import com.flowhub.base.utils.JsonUtils;
+import com.flowhub.base.utils.Snowflake;
 import com.flowhub.business.dto.message.WorkflowMessage;
+import com.flowhub.business.engine.CaseWhenPredicateCache;
+import com.flowhub.business.engine.ForkDynamicCoordinator;
+import com.flowhub.business.engine.ForkDynamicRelease;
+import com.flowhub.business.engine.TaskNode;
+import com.flowhub.business.engine.TaskTimeoutMonitor;
+import com.flowhub.business.engine.WaitTimer;
+import com.flowhub.business.engine.WorkflowGraph;
+import com.flowhub.business.engine.WorkflowGraphRegistry;
+import com.flowhub.business.entity.OutboxMessage;
 import com.flowhub.business.entity.Task;
-import com.flowhub.business.entity.TaskDef;
 import com.flowhub.business.entity.Workflow;
 import com.flowhub.business.enums.TaskStatus;
 import com.flowhub.business.enums.TaskType;
+import com.flowhub.business.enums.TimeoutPolicy;
 import com.flowhub.business.enums.WorkflowStatus;
-import com.flowhub.business.repository.db.TaskDefRepository;
-import com.flowhub.business.repository.db.TaskRepository;
-import com.flowhub.business.repository.db.WorkflowDefRepository;
-import com.flowhub.business.repository.db.WorkflowRepository;
+import com.flowhub.business.event.OutboxPublisher;
+import com.flowhub.business.payload.PayloadExternalizer;
 import com.flowhub.business.service.DeciderService;
-import com.flowhub.business.utils.Utils;
+import com.flowhub.business.store.ExecutionStore;
+import com.flowhub.business.store.WorkflowProgressDelta;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -39,56 +54,187 @@ import org.springframework.util.CollectionUtils;
 @RequiredArgsConstructor
 public class DeciderServiceImpl extends BaseService implements DeciderService {
 
-  private final WorkflowRepository workflowRepository;
+  private final ExecutionStore executionStore;
 
-  private final WorkflowDefRepository workflowDefRepository;
+  private final WorkflowGraphRegistry workflowGraphRegistry;
 
-  private final TaskRepository taskRepository;
+  private final CaseWhenPredicateCache caseWhenPredicateCache;
 
-  private final TaskDefRepository taskDefRepository;
+  private final OutboxPublisher outboxPublisher;
 
-  private final MessageInterceptor messageInterceptor;
+  private final PayloadExternalizer payloadExternalizer;
+
+  private final ForkDynamicCoordinator forkDynamicCoordinator;
+
+  private final WaitTimer waitTimer;
+
+  private final TaskTimeoutMonitor taskTimeoutMonitor;
 
   @Transactional
   @Override
   public void startWorkflow(WorkflowMessage workflowMessage) {
-    workflowDefRepository
-        .findByDeletedFalseAndWorkflowDefName(workflowMessage.getWorkflowDefName())
+    this.decide(List.of(workflowMessage), Collections.emptyList(), Collections.emptyList());
+  }
+
+  @Transactional
+  @Override
+  public void finishTask(WorkflowMessage taskMessage) {
+    this.decide(Collections.emptyList(), List.of(taskMessage), Collections.emptyList());
+  }
+
+  /**
+   * Applies a batch of events in one transaction: heartbeats move their deadlines, new workflows
+   * are started, finished tasks are then applied with one conditional update each, workflow
+   * counters are updated once per workflow and all successors are persisted and queued together.
+   * A batch that fails keeps none of it, heartbeats included.
+   */
+  @Transactional
+  @Override
+  public void decide(
+      List<WorkflowMessage> startWorkflowMessages,
+      List<WorkflowMessage> finishTaskMessages,
+      List<WorkflowMessage> heartbeatMessages) {
+    this.heartbeat(heartbeatMessages);
+    List<NextTask> nextTasks = new ArrayList<>();
+    Map<Long, WorkflowProgressDelta> progress = new LinkedHashMap<>();
+    for (WorkflowMessage workflowMessage : startWorkflowMessages) {
+      this.startWorkflow(workflowMessage, nextTasks);
+    }
+    this.finishTasks(finishTaskMessages, nextTasks, progress);
+    this.saveAndPushNextEvents(nextTasks, progress);
+    this.updateWorkflowProgress(progress);
+  }
+
+  /** Moves the deadline of the in-progress tasks a worker reported alive. */
+  @Transactional
+  @Override
+  public void heartbeat(List<WorkflowMessage> heartbeatMessages) {
+    List<Long> taskIds =
+        heartbeatMessages.stream()
+            .map(WorkflowMessage::getTaskId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+    if (taskIds.isEmpty()) {
+      return;
+    }
+    List<Long> heartbeated = executionStore.heartbeat(taskIds, System.currentTimeMillis());
+    if (heartbeated.size() < taskIds.size()) {
+      log.warn(
+          "Ignored heartbeat of {} tasks not in progress or without response timeout",
+          taskIds.size() - heartbeated.size());
+    }
+  }
+
+  /**
+   * Times out the tasks past their deadline with one bulk transition and applies the timeout
+   * policy of their definitions: a task with retries left is scheduled again with the same input,
+   * otherwise a FORK_DYNAMIC child counts as a failed child of its fork and any other task fails
+   * its workflow.
+   */
+  @Transactional
+  @Override
+  public void timeOutTasks(Collection<Long> taskIds) {
+    List<Task> timedOutTasks = executionStore.timeOutTasks(taskIds, System.currentTimeMillis());
+    if (timedOutTasks.isEmpty()) {
+      return;
+    }
+    List<NextTask> nextTasks = new ArrayList<>();
+    Map<Long, WorkflowProgressDelta> progress = new LinkedHashMap<>();
+    Map<Long, ForkChildrenDelta> forkChildren = new LinkedHashMap<>();
+    Set<Long> failedWorkflows = new LinkedHashSet<>();
+    for (Task task : timedOutTasks) {
+      TaskNode taskDef =
+          workflowGraphRegistry
+              .get(task.getWorkflowDefId())
+              .map(graph -> graph.getNode(task.getTaskDefId()))
+              .orElse(null);
+      int timeoutCount = task.getTimeoutCount() == null ? 0 : task.getTimeoutCount();
+      if (taskDef != null
+          && TimeoutPolicy.RETRY.equals(taskDef.getTimeoutPolicy())
+          && timeoutCount < taskDef.getTimeoutRetryCount()) {
+        log.warn(
+            "Task: {} of workflow: {} timed out, retry {}/{}",
+            task.getId(),
+            task.getWorkflowId(),
+            timeoutCount + 1,
+            taskDef.getTimeoutRetryCount());
+        nextTasks.add(
+            new NextTask(
+                taskDef,
+                task.getInputParameters(),
+                task.getCorrelationId(),
+                task.getWorkflowId(),
+                task.getParentTaskId(),
+                timeoutCount + 1));
+        if (task.getParentTaskId() == null) {
+          progress
+              .computeIfAbsent(task.getWorkflowId(), k -> new WorkflowProgressDelta())
+              .add(1);
+        }
+        continue;
+      }
+      log.error("Task: {} of workflow: {} timed out", task.getId(), task.getWorkflowId());
+      if (task.getParentTaskId() != null) {
+        forkChildren
+            .computeIfAbsent(task.getParentTaskId(), k -> new ForkChildrenDelta())
+            .add(TaskStatus.TIMED_OUT);
+      } else {
+        failedWorkflows.add(task.getWorkflowId());
+      }
+    }
+    this.releaseForks(forkChildren, nextTasks, progress);
+    for (Long workflowId : failedWorkflows) {
+      executionStore.failWorkflow(workflowId);
+      log.error("Workflow with id: {} failed", workflowId);
+    }
+    nextTasks.removeIf(nextTask -> failedWorkflows.contains(nextTask.getWorkflowId()));
+    progress.keySet().removeAll(failedWorkflows);
+    this.saveAndPushNextEvents(nextTasks, progress);
+    this.updateWorkflowProgress(progress);
+  }
+
+  private void startWorkflow(WorkflowMessage workflowMessage, List<NextTask> nextTasks) {
+    workflowGraphRegistry
+        .getByName(workflowMessage.getWorkflowDefName())
         .ifPresentOrElse(
-            workflowDef -> {
+            workflowGraph -> {
+              // the workflow owns its externalized input, so its id is assigned up front
+              Long workflowId = Snowflake.getInstance().nextId();
+              Map<String, Object> inputParameters =
+                  payloadExternalizer.externalize(
+                      workflowId, workflowMessage.getInputParameters());
               Workflow workflow =
-                  workflowRepository.save(
-                      Workflow.builder()
-                              .correlationId(workflowMessage.getCorrelationId())
-                              .workflowStatus(WorkflowStatus.RUNNING)
-                              .inputParameters(workflowMessage.getInputParameters())
-                              .startedAt(LocalDateTime.now())
-                              .workflowDefId(workflowDef.getId())
-                              .workflowDefName(workflowMessage.getWorkflowDefName())
-                              .build());
-              List<TaskDef> nextTaskDefs =
-                  taskDefRepository.findByDeletedFalseAndWorkflowDefIdAndPreviousTaskIdIsNull(
-                      workflowDef.getId());
+                  Workflow.builder()
+                      .correlationId(workflowMessage.getCorrelationId())
+                      .workflowStatus(WorkflowStatus.RUNNING)
+                      .inputParameters(inputParameters)
+                      .startedAt(LocalDateTime.now())
+                      .workflowDefId(workflowGraph.getWorkflowDefId())
+                      .workflowDefName(workflowMessage.getWorkflowDefName())
+                      .pendingTasks(workflowGraph.getStartNodes().size())
+                      .finishedTasks(0)
+                      .build();
+              workflow.setId(workflowId);
+              executionStore.createWorkflow(workflow);
+              List<TaskNode> nextTaskDefs = workflowGraph.getStartNodes();
               if (nextTaskDefs.isEmpty()) {
                 log.error(
                     "Not found task start workflow: {}", workflowMessage.getWorkflowDefName());
-                workflow.setEndedAt(LocalDateTime.now());
-                workflow.setWorkflowStatus(WorkflowStatus.COMPLETED);
-                workflowRepository.save(workflow);
+                executionStore.completeWorkflow(workflow.getId());
               } else {
-                for (TaskDef nextTaskDef : nextTaskDefs) {
-                  Map<String, Object> rawInputParameters = new HashMap<>();
-                  if (!CollectionUtils.isEmpty(workflowMessage.getInputParameters())) {
-                    rawInputParameters.putAll(workflowMessage.getInputParameters());
-                  }
-                  if (!CollectionUtils.isEmpty(workflowDef.getInputTemplate())) {
-                    rawInputParameters.putAll(workflowDef.getInputTemplate());
-                  }
-                  this.saveAndPushNextEvent(
-                      nextTaskDef,
-                      workflowMessage.getCorrelationId(),
-                      workflow.getId(),
-                      rawInputParameters);
+                Map<String, Object> rawInputParameters = new HashMap<>();
+                if (!CollectionUtils.isEmpty(inputParameters)) {
+                  rawInputParameters.putAll(inputParameters);
+                }
+                rawInputParameters.putAll(workflowGraph.getInputTemplate());
+                for (TaskNode nextTaskDef : nextTaskDefs) {
+                  nextTasks.add(
+                      new NextTask(
+                          nextTaskDef,
+                          rawInputParameters,
+                          workflowMessage.getCorrelationId(),
+                          workflow.getId()));
                 }
               }
             },
@@ -97,184 +243,376 @@ public class DeciderServiceImpl extends BaseService implements DeciderService {
                     "Not found workflow with name: {}", workflowMessage.getWorkflowDefName()));
   }
 
-  @Transactional
-  @Override
-  public void finishTask(WorkflowMessage taskMessage) {
-    taskRepository
-        .findByDeletedFalseAndIdAndTaskStatus(taskMessage.getTaskId(), TaskStatus.IN_PROGRESS)
-        .ifPresentOrElse(
-            currentTask -> {
-              if (workflowRepository.existsByDeletedFalseAndIdAndWorkflowStatus(
-                  currentTask.getWorkflowId(), WorkflowStatus.RUNNING)) {
-                currentTask.setWorkerName(taskMessage.getWorkerName());
-                currentTask.setEndedAt(LocalDateTime.now());
-                currentTask.setTaskStatus(taskMessage.getTaskStatus());
-                currentTask.setOutputParameters(taskMessage.getOutputParameters());
-                taskRepository.saveAndFlush(currentTask);
-                taskDefRepository
-                    .findByDeletedFalseAndId(currentTask.getTaskDefId())
-                    .ifPresentOrElse(
-                        currentTaskDef -> {
-                          if (TaskStatus.COMPLETED.equals(taskMessage.getTaskStatus())) {
-                            this.handelCompleteTask(currentTask, taskMessage);
-                          }
-                        },
-                        () ->
-                            log.error(
-                                "Not found taskDef with id: {}", currentTask.getTaskDefId()));
-              } else {
-                log.error(
-                    "Workflow: {} with id: {} not running",
-                    currentTask.getWorkflowDefName(),
-                    currentTask.getWorkflowId());
-              }
-            },
-            () -> log.error("Not found task in process with id: {}", taskMessage.getTaskId()));
-  }
-
-  private void handelCompleteTask(Task currentTask, WorkflowMessage taskMessage) {
-    List<TaskDef> nextTaskDefs =
-        taskDefRepository.findByDeletedFalseAndPreviousTaskId(
-            Utils.makeLikeParameter(currentTask.getTaskDefId()));
-    if (nextTaskDefs.isEmpty()) {
-      log.info("Not found next taskDef workflow: {}", currentTask.getWorkflowDefName());
-      this.completeWorkflow(currentTask.getWorkflowId());
-    } else {
-      workflowDefRepository
-          .findByDeletedFalseAndId(currentTask.getWorkflowDefId())
+  /**
+   * Applies finished tasks in arrival order and records, per workflow, how many tasks finished and
+   * how many successors were scheduled for them. Finished children of FORK_DYNAMIC tasks are
+   * counted per fork instead and release the next children of their fork.
+   */
+  private void finishTasks(
+      List<WorkflowMessage> taskMessages,
+      List<NextTask> nextTasks,
+      Map<Long, WorkflowProgressDelta> progress) {
+    if (taskMessages.isEmpty()) {
+      return;
+    }
+    Map<Long, ForkChildrenDelta> forkChildren = new LinkedHashMap<>();
+    for (WorkflowMessage taskMessage : taskMessages) {
+      if (taskMessage.getTaskStatus() == null) {
+        log.error("Missing status of finished task with id: {}", taskMessage.getTaskId());
+        continue;
+      }
+      PayloadExternalizer.Externalized outputParameters =
+          payloadExternalizer.prepare(taskMessage.getTaskId(), taskMessage.getOutputParameters());
+      // the same task may be reported twice, the second transition then finds nothing
+      Optional<Task> finishedTask =
+          executionStore.finishTask(
+              taskMessage.getTaskId(),
+              taskMessage.getTaskStatus(),
+              taskMessage.getWorkerName(),
+              outputParameters.parameters());
+      if (finishedTask.isEmpty()) {
+        log.error(
+            "Not found task in process of a running workflow with id: {}",
+            taskMessage.getTaskId());
+        continue;
+      }
+      // written once the transition succeeded, so a repeated report leaves no blob behind
+      outputParameters.store();
+      Task currentTask = finishedTask.get();
+      if (currentTask.getParentTaskId() != null) {
+        forkChildren
+            .computeIfAbsent(currentTask.getParentTaskId(), k -> new ForkChildrenDelta())
+            .add(taskMessage.getTaskStatus());
+        continue;
+      }
+      workflowGraphRegistry
+          .get(currentTask.getWorkflowDefId())
+          .filter(graph -> graph.getNode(currentTask.getTaskDefId()) != null)
           .ifPresentOrElse(
-              workflowDef -> {
-                for (TaskDef nextTaskDef : nextTaskDefs) {
-                  Map<String, Object> rawInputParameters = new HashMap<>();
-                  if (!CollectionUtils.isEmpty(taskMessage.getOutputParameters())) {
-                    rawInputParameters.putAll(taskMessage.getOutputParameters());
-                  }
-                  if (!CollectionUtils.isEmpty(workflowDef.getInputTemplate())) {
-                    rawInputParameters.putAll(workflowDef.getInputTemplate());
-                  }
-                  if (TaskType.SWITCH.equals(nextTaskDef.getType())
-                      || TaskType.BROADCAST.equals(nextTaskDef.getType())) {
-                    this.saveAndPushNextEvent(nextTaskDef, currentTask, rawInputParameters);
-                  }
-                  if (TaskType.JOIN.equals(nextTaskDef.getType())) {
-                    List<Task> memberOnJoins =
-                        taskRepository.findByDeletedFalseAndTaskDefIdInAndTaskStatusIn(
-                            nextTaskDef.getPreviousTaskId(),
-                            Arrays.asList(TaskStatus.COMPLETED, TaskStatus.COMPLETED_WITH_ERRORS));
-                    for (Task memberOnJoin : memberOnJoins) {
-                      if (!CollectionUtils.isEmpty(memberOnJoin.getOutputParameters())) {
-                        rawInputParameters.putAll(memberOnJoin.getOutputParameters());
-                      }
-                    }
-                    if (memberOnJoins.size() == nextTaskDef.getPreviousTaskId().size()) {
-                      this.saveAndPushNextEvent(nextTaskDef, currentTask, rawInputParameters);
-                    } else {
-                      log.info("All member of: {} not completed", nextTaskDef.getTaskDefName());
-                    }
-                  }
-                  if (TaskType.CASE_WHEN.equals(nextTaskDef.getType())) {
-                    ExpressionParser parser = new SpelExpressionParser();
-                    Expression exp = parser.parseExpression(nextTaskDef.getExpressionDef());
-                    if (Boolean.TRUE.equals(
-                        exp.getValue(currentTask.getOutputParameters(), Boolean.class))) {
-                      this.saveAndPushNextEvent(nextTaskDef, currentTask, rawInputParameters);
-                    }
-                  }
-                  if (TaskType.WAIT.equals(nextTaskDef.getType())) {
-                    this.saveWaitEvent(
-                        nextTaskDef,
-                        currentTask.getCorrelationId(),
-                        currentTask.getWorkflowId(),
-                        rawInputParameters);
-                  }
+              workflowGraph -> {
+                if (TaskStatus.COMPLETED.equals(taskMessage.getTaskStatus())) {
+                  int scheduledTasks =
+                      this.handelCompleteTask(workflowGraph, currentTask, taskMessage, nextTasks);
+                  progress
+                      .computeIfAbsent(
+                          currentTask.getWorkflowId(), k -> new WorkflowProgressDelta())
+                      .add(scheduledTasks);
                 }
               },
-              () ->
-                  log.error(
-                      "Not found workflowDef with id: {}", currentTask.getWorkflowDefId()));
+              () -> log.error("Not found taskDef with id: {}", currentTask.getTaskDefId()));
     }
+    this.releaseForks(forkChildren, nextTasks, progress);
   }
 
-  private void completeWorkflow(Long id) {
-    workflowRepository
-        .findByDeletedFalseAndId(id)
-        .ifPresentOrElse(
-            workflow -> {
-              if (!workflowRepository.existsByCompletedAllTask(id)) {
-                workflow.setEndedAt(LocalDateTime.now());
-                workflow.setWorkflowStatus(WorkflowStatus.COMPLETED);
-                workflowRepository.save(workflow);
-                log.info("Workflow with id: {} completed", id);
-              } else {
-                log.info("Workflow with id: {} not completed", id);
-              }
-            },
-            () -> log.error("Not found workflow with id: {}", id));
+  /** Counts finished children per fork and releases the next children of every fork. */
+  private void releaseForks(
+      Map<Long, ForkChildrenDelta> forkChildren,
+      List<NextTask> nextTasks,
+      Map<Long, WorkflowProgressDelta> progress) {
+    forkChildren.forEach(
+        (forkTaskId, delta) ->
+            forkDynamicCoordinator
+                .finish(forkTaskId, delta.getFinishedTasks(), delta.getFailedTasks())
+                .ifPresentOrElse(
+                    release ->
+                        executionStore
+                            .findInProgressTask(forkTaskId)
+                            .ifPresentOrElse(
+                                forkTask ->
+                                    this.applyForkRelease(forkTask, release, nextTasks, progress),
+                                () ->
+                                    log.error(
+                                        "Not found fork task in process with id: {}", forkTaskId)),
+                    () -> log.error("Not found fork of task with id: {}", forkTaskId)));
+  }
+
+  /**
+   * Queues the released children of a fork and, once every child finished, completes the fork task
+   * and routes its successors like any other completed task.
+   */
+  private void applyForkRelease(
+      Task forkTask,
+      ForkDynamicRelease release,
+      List<NextTask> nextTasks,
+      Map<Long, WorkflowProgressDelta> progress) {
+    Optional<WorkflowGraph> workflowGraph =
+        workflowGraphRegistry
+            .get(forkTask.getWorkflowDefId())
+            .filter(graph -> graph.getNode(forkTask.getTaskDefId()) != null);
+    if (workflowGraph.isEmpty()) {
+      log.error("Not found taskDef with id: {}", forkTask.getTaskDefId());
+      return;
+    }
+    TaskNode forkTaskDef = workflowGraph.get().getNode(forkTask.getTaskDefId());
+    Map<String, Object> forkInputParameters =
+        CollectionUtils.isEmpty(forkTask.getInputParameters())
+            ? new HashMap<>()
+            : new HashMap<>(forkTask.getInputParameters());
+    // each child carries its own item, copying the list would grow quadratically with it
+    forkInputParameters.remove(forkTaskDef.getExpressionDef());
+    List<Object> items = release.getItems();
+    for (int i = 0; i < items.size(); i++) {
+      Map<String, Object> inputParameters = new HashMap<>(forkInputParameters);
+      inputParameters.put(ForkDynamicCoordinator.FORK_ITEM, items.get(i));
+      inputParameters.put(ForkDynamicCoordinator.FORK_ITEM_INDEX, release.getFromIndex() + i);
+      nextTasks.add(
+          new NextTask(
+              forkTaskDef,
+              inputParameters,
+              forkTask.getCorrelationId(),
+              forkTask.getWorkflowId(),
+              forkTask.getId()));
+    }
+    if (release.isDone()) {
+      Map<String, Object> outputParameters = new HashMap<>(forkInputParameters);
+      outputParameters.put(ForkDynamicCoordinator.FORKED_TASKS, release.getTotal());
+      outputParameters.put(ForkDynamicCoordinator.FAILED_TASKS, release.getFailed());
+      forkTask.setEndedAt(LocalDateTime.now());
+      forkTask.setTaskStatus(
+          release.getFailed() > 0 ? TaskStatus.COMPLETED_WITH_ERRORS : TaskStatus.COMPLETED);
+      forkTask.setOutputParameters(outputParameters);
+      executionStore.finishEngineTask(forkTask);
+      int scheduledTasks =
+          this.handelCompleteTask(
+              workflowGraph.get(),
+              forkTask,
+              WorkflowMessage.builder().outputParameters(outputParameters).build(),
+              nextTasks);
+      progress
+          .computeIfAbsent(forkTask.getWorkflowId(), k -> new WorkflowProgressDelta())
+          .add(scheduledTasks);
+      log.info(
+          "Fork task: {} of workflow: {} completed with {} children",
+          forkTask.getId(),
+          forkTask.getWorkflowId(),
+          release.getTotal());
+    }
   }
 
-  private void saveAndPushNextEvent(
-      TaskDef taskDef, Task currentTask, Map<String, Object> rawInputParameters) {
-    this.saveAndPushNextEvent(
-        taskDef, currentTask.getCorrelationId(), currentTask.getWorkflowId(), rawInputParameters);
+  private int handelCompleteTask(
+      WorkflowGraph workflowGraph,
+      Task currentTask,
+      WorkflowMessage taskMessage,
+      List<NextTask> nextTasks) {
+    List<TaskNode> nextTaskDefs = workflowGraph.getSuccessors(currentTask.getTaskDefId());
+    if (nextTaskDefs.isEmpty()) {
+      log.info("Not found next taskDef workflow: {}", workflowGraph.getWorkflowDefName());
+    }
+    Map<String, Object> rawInputParameters = new HashMap<>();
+    // successors copy references to large values, never the values themselves
+    if (!CollectionUtils.isEmpty(currentTask.getOutputParameters())) {
+      rawInputParameters.putAll(currentTask.getOutputParameters());
+    }
+    rawInputParameters.putAll(workflowGraph.getInputTemplate());
+    // routing is resolved first so that all successors are persisted and queued in one batch
+    int scheduledTasks = 0;
+    for (TaskNode nextTaskDef : nextTaskDefs) {
+      Map<String, Object> inputParameters = null;
+      if (TaskType.SWITCH.equals(nextTaskDef.getType())
+          || TaskType.BROADCAST.equals(nextTaskDef.getType())
+          || TaskType.WAIT.equals(nextTaskDef.getType())
+          || TaskType.FORK_DYNAMIC.equals(nextTaskDef.getType())) {
+        inputParameters = rawInputParameters;
+      }
+      if (TaskType.JOIN.equals(nextTaskDef.getType())) {
+        inputParameters =
+            this.arriveJoin(nextTaskDef, currentTask, taskMessage, rawInputParameters)
+                .orElse(null);
+      }
+      if (TaskType.CASE_WHEN.equals(nextTaskDef.getType())
+          && caseWhenPredicateCache.test(nextTaskDef, taskMessage.getOutputParameters())) {
+        inputParameters = rawInputParameters;
+      }
+      if (inputParameters != null) {
+        nextTasks.add(
+            new NextTask(
+                nextTaskDef,
+                inputParameters,
+                currentTask.getCorrelationId(),
+                currentTask.getWorkflowId()));
+        scheduledTasks++;
+      }
+    }
+    return scheduledTasks;
   }
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
-  private void saveAndPushNextEvent(
-      TaskDef taskDef,
-      String correlationId,
-      Long workflowId,
+  /**
+   * Registers the arrival of the current task at a JOIN and returns the input of the JOIN when this
+   * arrival completed it.
+   */
+  @SuppressWarnings("unchecked")
+  private Optional<Map<String, Object>> arriveJoin(
+      TaskNode joinTaskDef,
+      Task currentTask,
+      WorkflowMessage taskMessage,
       Map<String, Object> rawInputParameters) {
-    Map<String, Object> inputParameters = buildInputParameters(taskDef, rawInputParameters);
-    Task task =
-        taskRepository.save(
-            Task.builder()
-                .correlationId(correlationId)
-                .workflowId(workflowId)
-                .taskDefId(taskDef.getId())
-                .taskDefName(taskDef.getTaskDefName())
-                .workflowDefId(taskDef.getWorkflowDefId())
-                .workflowDefName(taskDef.getWorkflowDefName())
-                .taskStatus(TaskStatus.IN_PROGRESS)
-                .inputParameters(inputParameters)
-                .startedAt(LocalDateTime.now())
-                .build());
-    messageInterceptor.convertAndSend(
-        taskDef.getSink(),
-        new MessageData(
-            String.format("%s:%s", taskDef.getWorkflowDefName(), correlationId),
-            WorkflowMessage.builder()
-                .taskId(task.getId())
-                .taskDefName(taskDef.getTaskDefName())
-                .inputParameters(inputParameters)
-                .requiredOutputParameters(taskDef.getRequiredOutputParameters())
-                .correlationId(correlationId)
-                .taskStatus(TaskStatus.IN_PROGRESS)
-                .build()));
+    var joinArrival =
+        executionStore.arriveJoin(
+            currentTask.getWorkflowId(),
+            joinTaskDef.getId(),
+            joinTaskDef.getPredecessors().size(),
+            currentTask.getTaskDefId(),
+            currentTask.getOutputParameters());
+    if (joinArrival.isEmpty()) {
+      log.warn(
+          "Task: {} already arrived at join: {} of workflow: {}",
+          currentTask.getTaskDefId(),
+          joinTaskDef.getTaskDefName(),
+          currentTask.getWorkflowId());
+      return Optional.empty();
+    }
+    if (!joinArrival.get().isComplete()) {
+      log.info(
+          "All member of: {} not completed ({}/{})",
+          joinTaskDef.getTaskDefName(),
+          joinArrival.get().getArrivedCount(),
+          joinArrival.get().getArity());
+      return Optional.empty();
+    }
+    Map<String, Object> joinInputParameters = new HashMap<>(rawInputParameters);
+    Map<String, Object> mergedOutput =
+        JsonUtils.fromJson(joinArrival.get().getMergedOutput(), Map.class);
+    if (!CollectionUtils.isEmpty(mergedOutput)) {
+      joinInputParameters.putAll(mergedOutput);
+    }
+    return Optional.of(joinInputParameters);
   }
 
-  private void saveWaitEvent(
-      TaskDef taskDef,
-      String correlationId,
-      Long workflowId,
-      Map<String, Object> rawInputParameters) {
-    Map<String, Object> inputParameters = buildInputParameters(taskDef, rawInputParameters);
-    taskRepository.save(
-        Task.builder()
-            .correlationId(correlationId)
-            .workflowId(workflowId)
-            .taskDefId(taskDef.getId())
-            .taskDefName(taskDef.getTaskDefName())
-            .workflowDefId(taskDef.getWorkflowDefId())
-            .workflowDefName(taskDef.getWorkflowDefName())
-            .waiting(System.currentTimeMillis() + taskDef.getWaiting())
-            .taskStatus(TaskStatus.IN_PROGRESS)
-            .inputParameters(inputParameters)
-            .startedAt(LocalDateTime.now())
-            .build());
+  /**
+   * Applies the finished tasks and newly scheduled successors of every workflow of the batch to
+   * the workflow counters, completing the workflows left without outstanding tasks.
+   */
+  private void updateWorkflowProgress(Map<Long, WorkflowProgressDelta> progress) {
+    if (progress.isEmpty()) {
+      return;
+    }
+    Map<Long, Integer> pendingTasks = executionStore.progress(progress);
+    progress
+        .keySet()
+        .forEach(
+            workflowId -> {
+              Integer pending = pendingTasks.get(workflowId);
+              if (pending == null) {
+                log.error("Workflow with id: {} not running", workflowId);
+              } else if (pending <= 0) {
+                log.info("Workflow with id: {} completed", workflowId);
+              } else {
+                log.info("Workflow with id: {} has {} pending tasks", workflowId, pending);
+              }
+            });
+  }
+
+  /**
+   * Persists all next tasks with one batch of the execution store (Snowflake ids need no
+   * identity round-trip) and queues their dispatch messages in the outbox with a second batch. WAIT
+   * tasks are leased to the {@link WaitTimer} and handed to it after commit instead; it dispatches
+   * them once their waiting time is over. FORK_DYNAMIC tasks are not dispatched either; their first
+   * window of children is persisted and queued the same way. Dispatched tasks with a response
+   * timeout get a deadline, leased to the {@link TaskTimeoutMonitor} the same way as waits.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void saveAndPushNextEvents(
+      List<NextTask> nextTasks, Map<Long, WorkflowProgressDelta> progress) {
+    if (nextTasks.isEmpty()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    List<Task> tasks = new ArrayList<>(nextTasks.size());
+    for (NextTask nextTask : nextTasks) {
+      TaskNode taskDef = nextTask.getTaskDef();
+      Long responseTimeout = nextTask.isDispatched() ? taskDef.getResponseTimeout() : null;
+      tasks.add(
+          Task.builder()
+              .correlationId(nextTask.getCorrelationId())
+              .workflowId(nextTask.getWorkflowId())
+              .parentTaskId(nextTask.getParentTaskId())
+              .taskDefId(taskDef.getId())
+              .taskDefName(taskDef.getTaskDefName())
+              .workflowDefId(taskDef.getWorkflowDefId())
+              .workflowDefName(taskDef.getWorkflowDefName())
+              .waiting(
+                  TaskType.WAIT.equals(taskDef.getType())
+                      ? System.currentTimeMillis() + taskDef.getWaiting()
+                      : null)
+              .deadline(
+                  responseTimeout == null ? null : System.currentTimeMillis() + responseTimeout)
+              .responseTimeout(responseTimeout)
+              .timeoutCount(nextTask.getTimeoutCount())
+              .taskStatus(TaskStatus.IN_PROGRESS)
+              .inputParameters(
+                  nextTask.getParentTaskId() == null
+                      ? buildInputParameters(taskDef, nextTask.getInputParameters())
+                      : nextTask.getInputParameters())
+              .startedAt(now)
+              .build());
+    }
+    waitTimer.lease(tasks);
+    taskTimeoutMonitor.lease(tasks);
+    executionStore.createTasks(tasks);
+    List<OutboxMessage> messages = new ArrayList<>(tasks.size());
+    List<NextTask> forkChildren = new ArrayList<>();
+    List<Task> waits = new ArrayList<>();
+    List<Task> deadlines = new ArrayList<>();
+    for (int i = 0; i < tasks.size(); i++) {
+      NextTask nextTask = nextTasks.get(i);
+      TaskNode taskDef = nextTask.getTaskDef();
+      Task task = tasks.get(i);
+      if (TaskType.WAIT.equals(taskDef.getType())) {
+        waits.add(task);
+        continue;
+      }
+      if (TaskType.FORK_DYNAMIC.equals(taskDef.getType()) && nextTask.getParentTaskId() == null) {
+        this.startFork(task, taskDef, nextTask.getInputParameters(), forkChildren, progress);
+        continue;
+      }
+      if (task.getDeadline() != null) {
+        deadlines.add(task);
+      }
+      messages.add(
+          outboxPublisher.toOutboxMessage(
+              taskDef.getSink(),
+              WorkflowMessage.partitionKey(taskDef.getWorkflowDefName(), task.getCorrelationId()),
+              new MessageData(
+                  String.format("%s:%s", taskDef.getWorkflowDefName(), task.getCorrelationId()),
+                  WorkflowMessage.builder()
+                      .taskId(task.getId())
+                      .taskDefName(taskDef.getTaskDefName())
+                      .inputParameters(payloadExternalizer.forDispatch(task.getInputParameters()))
+                      .requiredOutputParameters(taskDef.getRequiredOutputParameters())
+                      .correlationId(task.getCorrelationId())
+                      .taskStatus(TaskStatus.IN_PROGRESS)
+                      .build())));
+    }
+    outboxPublisher.convertAndSendAll(messages);
+    waitTimer.scheduleAfterCommit(waits);
+    taskTimeoutMonitor.scheduleAfterCommit(deadlines);
+    this.saveAndPushNextEvents(forkChildren, progress);
+  }
+
+  private void startFork(
+      Task forkTask,
+      TaskNode forkTaskDef,
+      Map<String, Object> rawInputParameters,
+      List<NextTask> nextTasks,
+      Map<Long, WorkflowProgressDelta> progress) {
+    Object items =
+        payloadExternalizer.resolve(rawInputParameters.get(forkTaskDef.getExpressionDef()));
+    if (!(items instanceof List<?>)) {
+      log.warn(
+          "Fork task: {} has no list in inputParameter: {}",
+          forkTaskDef.getTaskDefName(),
+          forkTaskDef.getExpressionDef());
+    }
+    this.applyForkRelease(
+        forkTask,
+        forkDynamicCoordinator.start(
+            forkTask, items instanceof List<?> list ? list : Collections.emptyList()),
+        nextTasks,
+        progress);
   }
 
   private Map<String, Object> buildInputParameters(
-      TaskDef taskDef, Map<String, Object> rawInputParameters) {
+      TaskNode taskDef, Map<String, Object> rawInputParameters) {
     Map<String, Object> inputParameters = new HashMap<>();
     if (!CollectionUtils.isEmpty(taskDef.getRequiredInputParameters())) {
       for (String requiredInputParameter : taskDef.getRequiredInputParameters()) {
@@ -286,4 +624,60 @@ public class DeciderServiceImpl extends BaseService implements DeciderService {
     }
     return inputParameters;
   }
+
+  @Getter
+  @AllArgsConstructor
+  private static final class NextTask {
+
+    private final TaskNode taskDef;
+
+    private final Map<String, Object> inputParameters;
+
+    private final String correlationId;
+
+    private final Long workflowId;
+
+    private final Long parentTaskId;
+
+    /** Times the task timed out before, carried over when it is scheduled again. */
+    private final Integer timeoutCount;
+
+    private NextTask(
+        TaskNode taskDef,
+        Map<String, Object> inputParameters,
+        String correlationId,
+        Long workflowId) {
+      this(taskDef, inputParameters, correlationId, workflowId, null);
+    }
+
+    private NextTask(
+        TaskNode taskDef,
+        Map<String, Object> inputParameters,
+        String correlationId,
+        Long workflowId,
+        Long parentTaskId) {
+      this(taskDef, inputParameters, correlationId, workflowId, parentTaskId, null);
+    }
+
+    /** Whether the task is sent to a worker, which then owes it a response within the timeout. */
+    private boolean isDispatched() {
+      return taskDef.hasResponseTimeout()
+          && !(TaskType.FORK_DYNAMIC.equals(taskDef.getType()) && parentTaskId == null);
+    }
+  }
+
+  @Getter
+  private static final class ForkChildrenDelta {
+
+    private int finishedTasks;
+
+    private int failedTasks;
+
+    private void add(TaskStatus taskStatus) {
+      this.finishedTasks++;
+      if (taskStatus == null || !taskStatus.isSuccessful()) {
+        this.failedTasks++;
+      }
+    }
+  }
 }
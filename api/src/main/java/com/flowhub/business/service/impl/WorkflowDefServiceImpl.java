@@ -2,13 +2,34 @@ package com.flowhub.business.service.impl;
 
 import com.flowhub.base.data.BaseService;
 import com.flowhub.base.data.ResponsePage;
+import com.flowhub.base.exception.BaseException;
+import com.flowhub.base.exception.CommonErrorDef;
+import com.flowhub.business.dto.input.TaskDefInput;
 import com.flowhub.business.dto.input.WorkflowDefInput;
 import com.flowhub.business.dto.output.WorkflowDefOutput;
+import com.flowhub.business.engine.WorkflowGraphRegistry;
+import com.flowhub.business.entity.TaskDef;
+import com.flowhub.business.entity.TaskDefEdge;
+import com.flowhub.business.entity.WorkflowDef;
 import com.flowhub.business.enums.Status;
+import com.flowhub.business.repository.db.TaskDefEdgeRepository;
+import com.flowhub.business.repository.db.TaskDefRepository;
+import com.flowhub.business.repository.db.WorkflowDefRepository;
 import com.flowhub.business.service.WorkflowDefService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 
 /**
  * @author haidv
@@ -19,23 +40,144 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class WorkflowDefServiceImpl extends BaseService implements WorkflowDefService {
 
+  private final WorkflowDefRepository workflowDefRepository;
+
+  private final TaskDefRepository taskDefRepository;
+
+  private final TaskDefEdgeRepository taskDefEdgeRepository;
+
+  private final WorkflowGraphRegistry workflowGraphRegistry;
+
+  @Transactional(readOnly = true)
   @Override
   public ResponsePage<WorkflowDefOutput> getWorkFlowDefines(String name, Status status) {
     return null;
   }
 
+  @Transactional(readOnly = true)
   @Override
   public WorkflowDefOutput getWorkFlowDefine(Long id) {
     return null;
   }
 
+  @Transactional
   @Override
   public void createWorkflow(WorkflowDefInput workflowDefInput) {
-
+    WorkflowDef workflowDef = new WorkflowDef();
+    this.applyWorkflowDef(workflowDef, workflowDefInput);
+    workflowDefRepository.save(workflowDef);
+    this.saveTaskDefs(workflowDef, new ArrayList<>(), workflowDefInput.getTaskDefs());
+    workflowGraphRegistry.refresh(workflowDef.getId());
   }
 
+  @Transactional
   @Override
   public void updateWorkflow(String id, WorkflowDefInput workflowDefInput) {
+    WorkflowDef workflowDef =
+        workflowDefRepository
+            .findForUpdateByDeletedFalseAndId(Long.valueOf(id))
+            .orElseThrow(
+                () -> new BaseException(CommonErrorDef.NOT_FOUND, "Not found workflowDef: " + id));
+    this.applyWorkflowDef(workflowDef, workflowDefInput);
+    this.saveTaskDefs(
+        workflowDef,
+        taskDefRepository.findByDeletedFalseAndWorkflowDefId(workflowDef.getId()),
+        workflowDefInput.getTaskDefs());
+    workflowGraphRegistry.refresh(workflowDef.getId());
+  }
+
+  private void applyWorkflowDef(WorkflowDef workflowDef, WorkflowDefInput workflowDefInput) {
+    workflowDef.setWorkflowDefName(workflowDefInput.getWorkflowDefName());
+    workflowDef.setWorkflowDefCode(workflowDefInput.getWorkflowDefCode());
+    workflowDef.setDescription(workflowDefInput.getDescription());
+    workflowDef.setInputTemplate(workflowDefInput.getInputTemplate());
+  }
+
+  /**
+   * Saves the task definitions of a workflow and rewrites its edges. Existing definitions are
+   * matched by name so running workflows keep resolving their task ids; definitions missing from
+   * the input are soft deleted. A previous task is referenced by the name of a task in the input or
+   * by the id of an existing task of the same workflow; a reference matching both a name and the id
+   * of another task is rejected.
+   */
+  private void saveTaskDefs(
+      WorkflowDef workflowDef, List<TaskDef> existingTaskDefs, List<TaskDefInput> taskDefInputs) {
+    Map<String, TaskDef> existingByName = new HashMap<>();
+    for (TaskDef existingTaskDef : existingTaskDefs) {
+      existingByName.put(existingTaskDef.getTaskDefName(), existingTaskDef);
+    }
+    List<TaskDef> taskDefs = new ArrayList<>(taskDefInputs.size());
+    for (TaskDefInput taskDefInput : taskDefInputs) {
+      TaskDef taskDef = existingByName.remove(taskDefInput.getTaskDefName());
+      if (taskDef == null) {
+        taskDef = new TaskDef();
+      }
+      taskDef.setWorkflowDefId(workflowDef.getId());
+      taskDef.setWorkflowDefName(workflowDef.getWorkflowDefName());
+      taskDef.setTaskDefName(taskDefInput.getTaskDefName());
+      taskDef.setExpressionDef(taskDefInput.getExpressionDef());
+      taskDef.setWaiting(taskDefInput.getWaiting());
+      taskDef.setResponseTimeout(taskDefInput.getResponseTimeout());
+      taskDef.setTimeoutPolicy(taskDefInput.getTimeoutPolicy());
+      taskDef.setTimeoutRetryCount(taskDefInput.getTimeoutRetryCount());
+      taskDef.setDescription(taskDefInput.getDescription());
+      taskDef.setRequiredInputParameters(taskDefInput.getRequiredInputParameters());
+      taskDef.setRequiredOutputParameters(taskDefInput.getRequiredOutputParameters());
+      taskDef.setType(taskDefInput.getType());
+      taskDef.setSink(taskDefInput.getSink());
+      taskDefs.add(taskDef);
+    }
+    for (TaskDef removedTaskDef : existingByName.values()) {
+      removedTaskDef.setDeleted(true);
+    }
+    taskDefRepository.saveAll(taskDefs);
+    taskDefRepository.saveAll(existingByName.values());
+
+    Map<String, Long> idsByName = new HashMap<>();
+    Set<Long> ids = new HashSet<>();
+    for (TaskDef taskDef : taskDefs) {
+      ids.add(taskDef.getId());
+      if (StringUtils.isNotBlank(taskDef.getTaskDefName())) {
+        idsByName.put(taskDef.getTaskDefName(), taskDef.getId());
+      }
+    }
+    List<TaskDefEdge> edges = new ArrayList<>();
+    for (int i = 0; i < taskDefInputs.size(); i++) {
+      List<String> previousTaskIds = taskDefInputs.get(i).getPreviousTaskId();
+      if (CollectionUtils.isEmpty(previousTaskIds)) {
+        continue;
+      }
+      Set<Long> fromTaskDefIds = new LinkedHashSet<>();
+      for (String previousTaskId : previousTaskIds) {
+        fromTaskDefIds.add(
+            this.previousTaskDefId(StringUtils.trim(previousTaskId), idsByName, ids));
+      }
+      for (Long fromTaskDefId : fromTaskDefIds) {
+        edges.add(
+            TaskDefEdge.builder()
+                .workflowDefId(workflowDef.getId())
+                .fromTaskDefId(fromTaskDefId)
+                .toTaskDefId(taskDefs.get(i).getId())
+                .build());
+      }
+    }
+    taskDefEdgeRepository.deleteByWorkflowDefId(workflowDef.getId());
+    taskDefEdgeRepository.saveAll(edges);
+  }
 
+  private Long previousTaskDefId(
+      String previousTaskId, Map<String, Long> idsByName, Set<Long> ids) {
+    Long byName = idsByName.get(previousTaskId);
+    long id = NumberUtils.toLong(previousTaskId, -1L);
+    Long byId = ids.contains(id) ? id : null;
+    if (byName != null && byId != null && !byName.equals(byId)) {
+      throw new BaseException(
+          CommonErrorDef.BAD_REQUEST, "Ambiguous previous task: " + previousTaskId);
+    }
+    if (byName == null && byId == null) {
+      throw new BaseException(
+          CommonErrorDef.BAD_REQUEST, "Not found previous task: " + previousTaskId);
+    }
+    return byName != null ? byName : byId;
   }
 }
@@ -0,0 +1,338 @@
+package com.flowhub.business.store;
+
+import com.flowhub.base.data.CompressedJsonJdbcType;
+import com.flowhub.base.data.CompressedJsonTypeContributor;
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.entity.WorkflowEvent;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowEventType;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.repository.db.JoinArrivalRepository;
+import com.flowhub.business.repository.db.TaskRepository;
+import com.flowhub.business.repository.db.TaskRepository.FinishedTask;
+import com.flowhub.business.repository.db.WorkflowEventRepository;
+import com.flowhub.business.repository.db.WorkflowEventRepository.PendingTasks;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes execution transitions to the append-only {@code tbl_workflow_event}. The decider then
+ * never updates {@code tbl_task} or {@code tbl_workflow}: both are projections maintained by
+ * {@link com.flowhub.business.job.WorkflowEventProjector}, and the few reads the decider needs are
+ * answered from the events themselves. Due waits and deadlines are read from the projection.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty(name = ExecutionStore.PROPERTY, havingValue = "event-log")
+public class EventLogExecutionStore implements ExecutionStore {
+
+  private final WorkflowEventRepository workflowEventRepository;
+
+  private final JoinArrivalRepository joinArrivalRepository;
+
+  private final TaskRepository taskRepository;
+
+  private final boolean compressedJson;
+
+  public EventLogExecutionStore(
+      WorkflowEventRepository workflowEventRepository,
+      JoinArrivalRepository joinArrivalRepository,
+      TaskRepository taskRepository,
+      @Value("${spring.jpa.properties." + CompressedJsonTypeContributor.ENABLED + ":false}")
+          boolean compressedJson) {
+    this.workflowEventRepository = workflowEventRepository;
+    this.joinArrivalRepository = joinArrivalRepository;
+    this.taskRepository = taskRepository;
+    this.compressedJson = compressedJson;
+  }
+
+  @Override
+  public void createWorkflow(Workflow workflow) {
+    if (workflow.getId() == null) {
+      workflow.setId(Snowflake.getInstance().nextId());
+    }
+    this.append(List.of(workflowStarted(workflow)));
+  }
+
+  @Override
+  public void completeWorkflow(Long workflowId) {
+    this.appendEnded(workflowId, WorkflowEventType.WORKFLOW_COMPLETED, WorkflowStatus.COMPLETED);
+  }
+
+  @Override
+  public void failWorkflow(Long workflowId) {
+    this.appendEnded(workflowId, WorkflowEventType.WORKFLOW_FAILED, WorkflowStatus.FAILED);
+  }
+
+  @Override
+  public void createTasks(List<Task> tasks) {
+    this.append(tasks.stream().map(EventLogExecutionStore::taskScheduled).toList());
+  }
+
+  /**
+   * Appends the {@code TASK_FINISHED} event reported by a worker with one insert ... select from
+   * the {@code TASK_SCHEDULED} event.
+   */
+  @Override
+  public Optional<Task> finishTask(
+      Long taskId, TaskStatus taskStatus, String workerName, Map<String, Object> outputParameters) {
+    return this.appendFinished(taskId, taskStatus, workerName, outputParameters)
+        .map(
+            finishedTask ->
+                PostgresExecutionStore.finishedTask(
+                    finishedTask, taskId, taskStatus, workerName, outputParameters));
+  }
+
+  private Optional<FinishedTask> appendFinished(
+      Long taskId, TaskStatus taskStatus, String workerName, Map<String, Object> outputParameters) {
+    long id = Snowflake.getInstance().nextId();
+    String outputJson = PostgresExecutionStore.toJson(outputParameters);
+    String status = taskStatus.name();
+    return compressedJson
+        ? workflowEventRepository.appendFinishedCompressed(
+            id, taskId, status, workerName, CompressedJsonJdbcType.encode(outputJson))
+        : workflowEventRepository.appendFinished(id, taskId, status, workerName, outputJson);
+  }
+
+  @Override
+  public void finishEngineTask(Task task) {
+    this.append(List.of(taskFinished(task)));
+  }
+
+  @Override
+  public Optional<JoinState> arriveJoin(
+      Long workflowId,
+      Long joinTaskDefId,
+      int arity,
+      Long memberTaskDefId,
+      Map<String, Object> output) {
+    Optional<JoinState> joinArrival =
+        joinArrivalRepository
+            .arrive(
+                Snowflake.getInstance().nextId(),
+                workflowId,
+                joinTaskDefId,
+                arity,
+                memberTaskDefId,
+                PostgresExecutionStore.toJson(output))
+            .map(JoinState::of);
+    if (joinArrival.isPresent() && joinArrival.get().isComplete()) {
+      this.append(List.of(joinFired(workflowId, joinTaskDefId)));
+    }
+    return joinArrival;
+  }
+
+  /**
+   * Claims from the projection. Leases are not part of the events: a wait is projected unleased,
+   * so another instance may claim it while its creator still holds it, the unique {@code
+   * TASK_DISPATCHED} event then keeps it from being sent twice.
+   */
+  @Override
+  public List<Task> claimDueWaits(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    return taskRepository.claimDueWaits(dueBefore, owner, now, leaseUntil, size);
+  }
+
+  /**
+   * Appends one {@code TASK_DISPATCHED} event per task. The projection may still list a dispatched
+   * task as due, the unique event key then rejects the second dispatch.
+   */
+  @Override
+  public List<Long> markWaitsDispatched(Collection<Long> taskIds) {
+    List<Long> marked = new ArrayList<>(taskIds.size());
+    for (Long taskId : taskIds) {
+      workflowEventRepository
+          .appendDispatched(Snowflake.getInstance().nextId(), taskId)
+          .ifPresent(marked::add);
+    }
+    return marked;
+  }
+
+  /** Claims from the projection, with the lease semantics of {@link #claimDueWaits}. */
+  @Override
+  public List<Task> claimDueTimeouts(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    return taskRepository.claimDueTimeouts(dueBefore, owner, now, leaseUntil, size);
+  }
+
+  /**
+   * Reads the due tasks from the projection and appends one {@code TASK_FINISHED} event per task.
+   * A task the event log rejects already finished or belongs to an ended workflow, its projected
+   * deadline is dropped so it is not claimed again.
+   */
+  @Override
+  public List<Task> timeOutTasks(Collection<Long> taskIds, long now) {
+    if (taskIds.isEmpty()) {
+      return List.of();
+    }
+    List<Task> timedOut = new ArrayList<>(taskIds.size());
+    List<Long> rejected = new ArrayList<>();
+    for (Task task : taskRepository.findTimedOut(taskIds, now)) {
+      if (this.appendFinished(task.getId(), TaskStatus.TIMED_OUT, null, null).isPresent()) {
+        timedOut.add(task);
+      } else {
+        rejected.add(task.getId());
+      }
+    }
+    if (!rejected.isEmpty()) {
+      taskRepository.clearDeadlines(rejected);
+    }
+    return timedOut;
+  }
+
+  /**
+   * Moves the projected deadline. Like leases, heartbeats are not part of the events; a task not
+   * projected yet keeps the deadline it was scheduled with.
+   */
+  @Override
+  public List<Long> heartbeat(Collection<Long> taskIds, long now) {
+    return taskIds.isEmpty() ? List.of() : taskRepository.heartbeat(taskIds, now);
+  }
+
+  /** Appends events with one JDBC batch. */
+  private void append(List<WorkflowEvent> events) {
+    if (!events.isEmpty()) {
+      workflowEventRepository.saveAll(events);
+    }
+  }
+
+  private static WorkflowEvent workflowStarted(Workflow workflow) {
+    return event(WorkflowEventType.WORKFLOW_STARTED, workflow.getId())
+        .workflowDefId(workflow.getWorkflowDefId())
+        .correlationId(workflow.getCorrelationId())
+        .status(WorkflowStatus.RUNNING.name())
+        .pendingDelta(workflow.getPendingTasks())
+        .payload(workflow.getInputParameters())
+        .build();
+  }
+
+  /** Appends the single event ending a workflow, nothing when it already ended. */
+  private void appendEnded(
+      Long workflowId, WorkflowEventType eventType, WorkflowStatus workflowStatus) {
+    workflowEventRepository.appendEnded(
+        Snowflake.getInstance().nextId(), workflowId, eventType.name(), workflowStatus.name());
+  }
+
+  /** Records a task created in progress; its id is assigned here, as no row is inserted. */
+  private static WorkflowEvent taskScheduled(Task task) {
+    task.setId(Snowflake.getInstance().nextId());
+    return event(WorkflowEventType.TASK_SCHEDULED, task.getWorkflowId())
+        .taskId(task.getId())
+        .parentTaskId(task.getParentTaskId())
+        .taskDefId(task.getTaskDefId())
+        .workflowDefId(task.getWorkflowDefId())
+        .correlationId(task.getCorrelationId())
+        .status(task.getTaskStatus().name())
+        .waiting(task.getWaiting())
+        .deadline(task.getDeadline())
+        .timeoutCount(task.getTimeoutCount())
+        .payload(task.getInputParameters())
+        .build();
+  }
+
+  /** Records a task finished by the engine itself, such as a FORK_DYNAMIC task. */
+  private static WorkflowEvent taskFinished(Task task) {
+    return event(WorkflowEventType.TASK_FINISHED, task.getWorkflowId())
+        .taskId(task.getId())
+        .parentTaskId(task.getParentTaskId())
+        .taskDefId(task.getTaskDefId())
+        .workflowDefId(task.getWorkflowDefId())
+        .correlationId(task.getCorrelationId())
+        .status(task.getTaskStatus().name())
+        .payload(task.getOutputParameters())
+        .build();
+  }
+
+  private static WorkflowEvent joinFired(Long workflowId, Long joinTaskDefId) {
+    return event(WorkflowEventType.JOIN_FIRED, workflowId).taskDefId(joinTaskDefId).build();
+  }
+
+  /** Rebuilds an in-progress task from its {@code TASK_SCHEDULED} event. */
+  @Override
+  public Optional<Task> findInProgressTask(Long taskId) {
+    if (workflowEventRepository.existsByTaskIdAndEventType(
+        taskId, WorkflowEventType.TASK_FINISHED)) {
+      return Optional.empty();
+    }
+    return workflowEventRepository
+        .findByTaskIdAndEventType(taskId, WorkflowEventType.TASK_SCHEDULED)
+        .map(
+            event -> {
+              Task task =
+                  Task.builder()
+                      .workflowId(event.getWorkflowId())
+                      .parentTaskId(event.getParentTaskId())
+                      .taskDefId(event.getTaskDefId())
+                      .workflowDefId(event.getWorkflowDefId())
+                      .correlationId(event.getCorrelationId())
+                      .taskStatus(TaskStatus.IN_PROGRESS)
+                      .waiting(event.getWaiting())
+                      .deadline(event.getDeadline())
+                      .timeoutCount(event.getTimeoutCount())
+                      .inputParameters(
+                          event.getPayload() == null ? new HashMap<>() : event.getPayload())
+                      .startedAt(event.getCreatedAt())
+                      .build();
+              task.setId(event.getTaskId());
+              return task;
+            });
+  }
+
+  /**
+   * Appends one {@code WORKFLOW_PROGRESSED} event per workflow and a {@code WORKFLOW_COMPLETED}
+   * event for every workflow left without outstanding tasks. Workflows are locked in id order, so
+   * concurrent batches cannot deadlock; a redelivered batch finds the workflow ended and appends
+   * no second end.
+   */
+  @Override
+  public Map<Long, Integer> progress(Map<Long, WorkflowProgressDelta> deltas) {
+    if (deltas.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<Long, WorkflowProgressDelta> ordered = new TreeMap<>(deltas);
+    List<WorkflowEvent> events = new ArrayList<>(ordered.size());
+    ordered.forEach(
+        (workflowId, delta) -> {
+          workflowEventRepository.lockWorkflow(workflowId);
+          events.add(
+              event(WorkflowEventType.WORKFLOW_PROGRESSED, workflowId)
+                  .pendingDelta(delta.getPendingDelta())
+                  .build());
+        });
+    workflowEventRepository.saveAllAndFlush(events);
+    Map<Long, Integer> pendingTasks = new HashMap<>();
+    for (PendingTasks pending : workflowEventRepository.sumPendingTasks(ordered.keySet())) {
+      pendingTasks.put(pending.getWorkflowId(), pending.getPendingTasks().intValue());
+    }
+    pendingTasks.forEach(
+        (workflowId, pending) -> {
+          if (pending <= 0) {
+            this.completeWorkflow(workflowId);
+          }
+        });
+    return pendingTasks;
+  }
+
+  private static WorkflowEvent.WorkflowEventBuilder event(
+      WorkflowEventType eventType, Long workflowId) {
+    return WorkflowEvent.builder()
+        .id(Snowflake.getInstance().nextId())
+        .workflowId(workflowId)
+        .eventType(eventType)
+        .createdAt(LocalDateTime.now());
+  }
+}
@@ -0,0 +1,116 @@
+package com.flowhub.business.store;
+
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Execution state the decider reads and writes, selected with {@code
+ * custom.properties.execution.store}:
+ *
+ * <ul>
+ *   <li>{@code postgres}: rows of {@code tbl_workflow} and {@code tbl_task}, the default.
+ *   <li>{@code event-log}: appends to {@code tbl_workflow_event}, projected onto the same tables.
+ *   <li>{@code redis}: hashes in Redis, outside the transaction of the outbox but undone when it
+ *       rolls back.
+ *   <li>{@code memory}: maps of the running instance, for benchmarks and tests.
+ * </ul>
+ *
+ * <p>Every mutation is conditional, so a redelivered event changes nothing. Only the first two
+ * stores are visible to the query APIs; definitions, outbox and FORK_DYNAMIC bookkeeping always
+ * stay in Postgres.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+public interface ExecutionStore {
+
+  String PROPERTY = "custom.properties.execution.store";
+
+  /** Stores a running workflow and assigns its id unless it already has one. */
+  void createWorkflow(Workflow workflow);
+
+  /** Completes a running workflow that has nothing to execute. */
+  void completeWorkflow(Long workflowId);
+
+  /** Fails a running workflow; its outstanding tasks can no longer finish. */
+  void failWorkflow(Long workflowId);
+
+  /** Stores in-progress tasks in one batch and assigns their ids. */
+  void createTasks(List<Task> tasks);
+
+  /**
+   * Finishes an in-progress task of a running workflow. An empty result means the task is unknown,
+   * already finished or its workflow is not running.
+   *
+   * @return the finished task, without its input parameters
+   */
+  Optional<Task> finishTask(
+      Long taskId, TaskStatus taskStatus, String workerName, Map<String, Object> outputParameters);
+
+  Optional<Task> findInProgressTask(Long taskId);
+
+  /** Stores the status and output of a task finished by the engine itself. */
+  void finishEngineTask(Task task);
+
+  /**
+   * Registers the arrival of one JOIN member. An empty result means the member already arrived;
+   * exactly one caller observes the completed JOIN.
+   */
+  Optional<JoinState> arriveJoin(
+      Long workflowId,
+      Long joinTaskDefId,
+      int arity,
+      Long memberTaskDefId,
+      Map<String, Object> output);
+
+  /**
+   * Applies finished and newly scheduled tasks to the counters of running workflows and completes
+   * those left without outstanding tasks.
+   *
+   * @return outstanding tasks of every updated workflow, workflows not running are left out
+   */
+  Map<Long, Integer> progress(Map<Long, WorkflowProgressDelta> deltas);
+
+  /**
+   * Claims up to {@code size} undispatched WAIT tasks due before {@code dueBefore}, earliest first,
+   * whose lease is free or expired at {@code now}, and leases them to {@code owner} until {@code
+   * leaseUntil}. Concurrent callers claim disjoint tasks.
+   */
+  List<Task> claimDueWaits(long dueBefore, String owner, long now, long leaseUntil, int size);
+
+  /**
+   * Marks in-progress WAIT tasks as dispatched. A task is marked once, so only the caller that
+   * marked it may send it; a transaction that rolls back unmarks it, except in the {@code memory}
+   * store.
+   *
+   * @return ids of the tasks marked by this call
+   */
+  List<Long> markWaitsDispatched(Collection<Long> taskIds);
+
+  /**
+   * Claims up to {@code size} in-progress tasks whose deadline is before {@code dueBefore},
+   * earliest first, with the lease semantics of {@link #claimDueWaits}.
+   */
+  List<Task> claimDueTimeouts(long dueBefore, String owner, long now, long leaseUntil, int size);
+
+  /**
+   * Times out the in-progress tasks whose deadline passed at {@code now}, in one bulk transition.
+   * Tasks of workflows no longer running time out as well but are not returned.
+   *
+   * @return the timed-out tasks of running workflows, with their input parameters
+   */
+  List<Task> timeOutTasks(Collection<Long> taskIds, long now);
+
+  /**
+   * Moves the deadline of in-progress tasks to {@code now} plus their response timeout and frees
+   * their lease, so the next claim schedules them with the new deadline.
+   *
+   * @return ids of the tasks whose deadline moved
+   */
+  List<Long> heartbeat(Collection<Long> taskIds, long now);
+}
@@ -0,0 +1,385 @@
+package com.flowhub.business.store;
+
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps execution state in the heap of the running instance, for benchmarks and latency tests of
+ * the decider without a database round-trip. Every mutation of a workflow and its tasks holds the
+ * monitor of the workflow. Completed workflows are dropped with their tasks, and nothing survives
+ * a restart, so only a single instance may run with this store.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty(name = ExecutionStore.PROPERTY, havingValue = "memory")
+public class InMemoryExecutionStore implements ExecutionStore {
+
+  private final Map<Long, Workflow> workflows = new ConcurrentHashMap<>();
+
+  private final Map<Long, Task> tasks = new ConcurrentHashMap<>();
+
+  private final Map<Long, Set<Long>> workflowTasks = new ConcurrentHashMap<>();
+
+  private final Map<Long, Map<Long, Map<Long, Map<String, Object>>>> joins =
+      new ConcurrentHashMap<>();
+
+  private final NavigableSet<Task> waits =
+      new ConcurrentSkipListSet<>(
+          Comparator.comparing(Task::getWaiting).thenComparing(Task::getId));
+
+  private final NavigableSet<Task> deadlines =
+      new ConcurrentSkipListSet<>(
+          Comparator.comparing(Task::getDeadline).thenComparing(Task::getId));
+
+  @Override
+  public void createWorkflow(Workflow workflow) {
+    if (workflow.getId() == null) {
+      workflow.setId(Snowflake.getInstance().nextId());
+    }
+    workflows.put(workflow.getId(), workflow);
+    workflowTasks.put(workflow.getId(), ConcurrentHashMap.newKeySet());
+  }
+
+  @Override
+  public void completeWorkflow(Long workflowId) {
+    Workflow workflow = workflows.get(workflowId);
+    if (workflow != null) {
+      synchronized (workflow) {
+        this.complete(workflow, WorkflowStatus.COMPLETED);
+      }
+    }
+  }
+
+  @Override
+  public void failWorkflow(Long workflowId) {
+    Workflow workflow = workflows.get(workflowId);
+    if (workflow != null) {
+      synchronized (workflow) {
+        if (WorkflowStatus.RUNNING.equals(workflow.getWorkflowStatus())) {
+          this.complete(workflow, WorkflowStatus.FAILED);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void createTasks(List<Task> newTasks) {
+    for (Task task : newTasks) {
+      task.setId(Snowflake.getInstance().nextId());
+      Workflow workflow = workflows.get(task.getWorkflowId());
+      if (workflow == null) {
+        continue;
+      }
+      synchronized (workflow) {
+        if (!WorkflowStatus.RUNNING.equals(workflow.getWorkflowStatus())) {
+          continue;
+        }
+        Task stored = copy(task);
+        tasks.put(stored.getId(), stored);
+        workflowTasks.get(workflow.getId()).add(stored.getId());
+        if (stored.getWaiting() != null) {
+          waits.add(stored);
+        }
+        if (stored.getDeadline() != null) {
+          deadlines.add(stored);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Optional<Task> finishTask(
+      Long taskId, TaskStatus taskStatus, String workerName, Map<String, Object> outputParameters) {
+    Task task = tasks.get(taskId);
+    Workflow workflow = task == null ? null : workflows.get(task.getWorkflowId());
+    if (workflow == null) {
+      return Optional.empty();
+    }
+    synchronized (workflow) {
+      if (!TaskStatus.IN_PROGRESS.equals(task.getTaskStatus())
+          || !WorkflowStatus.RUNNING.equals(workflow.getWorkflowStatus())) {
+        return Optional.empty();
+      }
+      task.setTaskStatus(taskStatus);
+      task.setWorkerName(workerName);
+      task.setOutputParameters(outputParameters);
+      task.setEndedAt(LocalDateTime.now());
+      waits.remove(task);
+      this.removeDeadline(task);
+      Task finished = copy(task);
+      finished.setInputParameters(null);
+      return Optional.of(finished);
+    }
+  }
+
+  @Override
+  public Optional<Task> findInProgressTask(Long taskId) {
+    Task task = tasks.get(taskId);
+    Workflow workflow = task == null ? null : workflows.get(task.getWorkflowId());
+    if (workflow == null) {
+      return Optional.empty();
+    }
+    synchronized (workflow) {
+      return TaskStatus.IN_PROGRESS.equals(task.getTaskStatus())
+          ? Optional.of(copy(task))
+          : Optional.empty();
+    }
+  }
+
+  @Override
+  public void finishEngineTask(Task task) {
+    Task stored = tasks.get(task.getId());
+    Workflow workflow = stored == null ? null : workflows.get(stored.getWorkflowId());
+    if (workflow == null) {
+      return;
+    }
+    synchronized (workflow) {
+      stored.setTaskStatus(task.getTaskStatus());
+      stored.setOutputParameters(task.getOutputParameters());
+      stored.setEndedAt(task.getEndedAt());
+    }
+  }
+
+  @Override
+  public Optional<JoinState> arriveJoin(
+      Long workflowId,
+      Long joinTaskDefId,
+      int arity,
+      Long memberTaskDefId,
+      Map<String, Object> output) {
+    Workflow workflow = workflows.get(workflowId);
+    if (workflow == null) {
+      return Optional.empty();
+    }
+    synchronized (workflow) {
+      Map<Long, Map<String, Object>> members =
+          joins
+              .computeIfAbsent(workflowId, k -> new HashMap<>())
+              .computeIfAbsent(joinTaskDefId, k -> new LinkedHashMap<>());
+      if (members.containsKey(memberTaskDefId)) {
+        return Optional.empty();
+      }
+      members.put(memberTaskDefId, output == null ? Map.of() : output);
+      Map<String, Object> mergedOutput = new HashMap<>();
+      members.values().forEach(mergedOutput::putAll);
+      return Optional.of(
+          new JoinState(
+              members.size(), arity, PostgresExecutionStore.toJson(mergedOutput)));
+    }
+  }
+
+  @Override
+  public Map<Long, Integer> progress(Map<Long, WorkflowProgressDelta> deltas) {
+    Map<Long, Integer> pendingTasks = new LinkedHashMap<>();
+    deltas.forEach(
+        (workflowId, delta) -> {
+          Workflow workflow = workflows.get(workflowId);
+          if (workflow == null) {
+            return;
+          }
+          synchronized (workflow) {
+            if (!WorkflowStatus.RUNNING.equals(workflow.getWorkflowStatus())) {
+              return;
+            }
+            int pending = workflow.getPendingTasks() + delta.getPendingDelta();
+            workflow.setPendingTasks(pending);
+            workflow.setFinishedTasks(workflow.getFinishedTasks() + delta.getFinishedTasks());
+            pendingTasks.put(workflowId, pending);
+            if (pending <= 0) {
+              this.complete(workflow, WorkflowStatus.COMPLETED);
+            }
+          }
+        });
+    return pendingTasks;
+  }
+
+  @Override
+  public List<Task> claimDueWaits(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    List<Task> claimed = new ArrayList<>();
+    for (Task task : waits) {
+      if (task.getWaiting() >= dueBefore || claimed.size() >= size) {
+        break;
+      }
+      Workflow workflow = workflows.get(task.getWorkflowId());
+      if (workflow == null) {
+        continue;
+      }
+      synchronized (workflow) {
+        if (waits.contains(task) && (task.getLeaseUntil() == null || task.getLeaseUntil() < now)) {
+          task.setLeaseOwner(owner);
+          task.setLeaseUntil(leaseUntil);
+          claimed.add(copy(task));
+        }
+      }
+    }
+    return claimed;
+  }
+
+  @Override
+  public List<Long> markWaitsDispatched(Collection<Long> taskIds) {
+    List<Long> marked = new ArrayList<>(taskIds.size());
+    for (Long taskId : taskIds) {
+      Task task = tasks.get(taskId);
+      Workflow workflow = task == null ? null : workflows.get(task.getWorkflowId());
+      if (workflow == null) {
+        continue;
+      }
+      synchronized (workflow) {
+        if (TaskStatus.IN_PROGRESS.equals(task.getTaskStatus()) && waits.remove(task)) {
+          task.setDispatchedAt(LocalDateTime.now());
+          marked.add(taskId);
+        }
+      }
+    }
+    return marked;
+  }
+
+  @Override
+  public List<Task> claimDueTimeouts(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    List<Task> claimed = new ArrayList<>();
+    for (Task task : deadlines) {
+      if (task.getDeadline() >= dueBefore || claimed.size() >= size) {
+        break;
+      }
+      Workflow workflow = workflows.get(task.getWorkflowId());
+      if (workflow == null) {
+        continue;
+      }
+      synchronized (workflow) {
+        if (deadlines.contains(task)
+            && (task.getLeaseUntil() == null || task.getLeaseUntil() < now)) {
+          task.setLeaseOwner(owner);
+          task.setLeaseUntil(leaseUntil);
+          claimed.add(copy(task));
+        }
+      }
+    }
+    return claimed;
+  }
+
+  @Override
+  public List<Task> timeOutTasks(Collection<Long> taskIds, long now) {
+    List<Task> timedOut = new ArrayList<>(taskIds.size());
+    for (Long taskId : taskIds) {
+      Task task = tasks.get(taskId);
+      Workflow workflow = task == null ? null : workflows.get(task.getWorkflowId());
+      if (workflow == null) {
+        continue;
+      }
+      synchronized (workflow) {
+        if (!TaskStatus.IN_PROGRESS.equals(task.getTaskStatus())
+            || task.getDeadline() == null
+            || task.getDeadline() > now) {
+          continue;
+        }
+        this.removeDeadline(task);
+        task.setTaskStatus(TaskStatus.TIMED_OUT);
+        task.setEndedAt(LocalDateTime.now());
+        if (WorkflowStatus.RUNNING.equals(workflow.getWorkflowStatus())) {
+          timedOut.add(copy(task));
+        }
+      }
+    }
+    return timedOut;
+  }
+
+  @Override
+  public List<Long> heartbeat(Collection<Long> taskIds, long now) {
+    List<Long> moved = new ArrayList<>(taskIds.size());
+    for (Long taskId : taskIds) {
+      Task task = tasks.get(taskId);
+      Workflow workflow = task == null ? null : workflows.get(task.getWorkflowId());
+      if (workflow == null) {
+        continue;
+      }
+      synchronized (workflow) {
+        if (TaskStatus.IN_PROGRESS.equals(task.getTaskStatus())
+            && task.getResponseTimeout() != null
+            && this.removeDeadline(task)) {
+          task.setDeadline(now + task.getResponseTimeout());
+          task.setLeaseOwner(null);
+          task.setLeaseUntil(null);
+          deadlines.add(task);
+          moved.add(taskId);
+        }
+      }
+    }
+    return moved;
+  }
+
+  /** Removes the task from {@code deadlines}, before its deadline changes or it ends. */
+  private boolean removeDeadline(Task task) {
+    return task.getDeadline() != null && deadlines.remove(task);
+  }
+
+  /** Marks the workflow ended with {@code status} and drops it with everything it owns. */
+  private void complete(Workflow workflow, WorkflowStatus status) {
+    workflow.setWorkflowStatus(status);
+    workflow.setEndedAt(LocalDateTime.now());
+    Set<Long> taskIds = workflowTasks.remove(workflow.getId());
+    if (taskIds != null) {
+      taskIds.forEach(
+          taskId -> {
+            Task task = tasks.remove(taskId);
+            if (task != null && task.getWaiting() != null) {
+              waits.remove(task);
+            }
+            if (task != null && task.getDeadline() != null) {
+              deadlines.remove(task);
+            }
+          });
+    }
+    joins.remove(workflow.getId());
+    workflows.remove(workflow.getId());
+  }
+
+  private static Task copy(Task source) {
+    Task task =
+        Task.builder()
+            .correlationId(source.getCorrelationId())
+            .workerName(source.getWorkerName())
+            .workflowId(source.getWorkflowId())
+            .parentTaskId(source.getParentTaskId())
+            .taskDefId(source.getTaskDefId())
+            .taskDefName(source.getTaskDefName())
+            .workflowDefId(source.getWorkflowDefId())
+            .workflowDefName(source.getWorkflowDefName())
+            .taskStatus(source.getTaskStatus())
+            .waiting(source.getWaiting())
+            .deadline(source.getDeadline())
+            .responseTimeout(source.getResponseTimeout())
+            .timeoutCount(source.getTimeoutCount())
+            .dispatchedAt(source.getDispatchedAt())
+            .leaseOwner(source.getLeaseOwner())
+            .leaseUntil(source.getLeaseUntil())
+            .inputParameters(source.getInputParameters())
+            .outputParameters(source.getOutputParameters())
+            .startedAt(source.getStartedAt())
+            .endedAt(source.getEndedAt())
+            .build();
+    task.setId(source.getId());
+    return task;
+  }
+}
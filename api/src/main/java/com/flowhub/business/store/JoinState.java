@@ -0,0 +1,33 @@
+package com.flowhub.business.store;
+
+import com.flowhub.business.repository.db.JoinArrivalRepository.JoinArrivalState;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Arrival of one member at a JOIN, as reported by {@link ExecutionStore#arriveJoin}.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Getter
+@AllArgsConstructor
+public final class JoinState {
+
+  private final Integer arrivedCount;
+
+  private final Integer arity;
+
+  /** Outputs of all members arrived so far, as a JSON object. */
+  private final String mergedOutput;
+
+  static JoinState of(JoinArrivalState joinArrival) {
+    return new JoinState(
+        joinArrival.getArrivedCount(), joinArrival.getArity(), joinArrival.getMergedOutput());
+  }
+
+  /** Whether this arrival completed the JOIN; exactly one arrival does. */
+  public boolean isComplete() {
+    return arrivedCount != null && arrivedCount.equals(arity);
+  }
+}
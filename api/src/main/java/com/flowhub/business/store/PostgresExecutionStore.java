@@ -0,0 +1,207 @@
+package com.flowhub.business.store;
+
+import com.flowhub.base.data.CompressedJsonJdbcType;
+import com.flowhub.base.data.CompressedJsonTypeContributor;
+import com.flowhub.base.utils.JsonUtils;
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.repository.db.JoinArrivalRepository;
+import com.flowhub.business.repository.db.TaskRepository;
+import com.flowhub.business.repository.db.TaskRepository.FinishedTask;
+import com.flowhub.business.repository.db.WorkflowRepository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps execution state in {@code tbl_workflow} and {@code tbl_task}, finishing tasks and counting
+ * progress with conditional single-statement updates.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty(
+    name = ExecutionStore.PROPERTY,
+    havingValue = "postgres",
+    matchIfMissing = true)
+public class PostgresExecutionStore implements ExecutionStore {
+
+  private final WorkflowRepository workflowRepository;
+
+  private final TaskRepository taskRepository;
+
+  private final JoinArrivalRepository joinArrivalRepository;
+
+  private final boolean compressedJson;
+
+  public PostgresExecutionStore(
+      WorkflowRepository workflowRepository,
+      TaskRepository taskRepository,
+      JoinArrivalRepository joinArrivalRepository,
+      @Value("${spring.jpa.properties." + CompressedJsonTypeContributor.ENABLED + ":false}")
+          boolean compressedJson) {
+    this.workflowRepository = workflowRepository;
+    this.taskRepository = taskRepository;
+    this.joinArrivalRepository = joinArrivalRepository;
+    this.compressedJson = compressedJson;
+  }
+
+  @Override
+  public void createWorkflow(Workflow workflow) {
+    workflowRepository.save(workflow);
+  }
+
+  @Override
+  public void completeWorkflow(Long workflowId) {
+    workflowRepository
+        .findByDeletedFalseAndId(workflowId)
+        .ifPresent(
+            workflow -> {
+              workflow.setEndedAt(LocalDateTime.now());
+              workflow.setWorkflowStatus(WorkflowStatus.COMPLETED);
+              workflowRepository.save(workflow);
+            });
+  }
+
+  @Override
+  public void failWorkflow(Long workflowId) {
+    workflowRepository.fail(workflowId);
+  }
+
+  @Override
+  public void createTasks(List<Task> tasks) {
+    taskRepository.saveAll(tasks);
+  }
+
+  @Override
+  public Optional<Task> finishTask(
+      Long taskId, TaskStatus taskStatus, String workerName, Map<String, Object> outputParameters) {
+    String outputJson = toJson(outputParameters);
+    return (compressedJson
+            ? taskRepository.finishInProgressCompressed(
+                taskId, taskStatus.name(), workerName, CompressedJsonJdbcType.encode(outputJson))
+            : taskRepository.finishInProgress(taskId, taskStatus.name(), workerName, outputJson))
+        .map(
+            finishedTask ->
+                finishedTask(finishedTask, taskId, taskStatus, workerName, outputParameters));
+  }
+
+  @Override
+  public Optional<Task> findInProgressTask(Long taskId) {
+    return taskRepository.findByDeletedFalseAndIdAndTaskStatus(taskId, TaskStatus.IN_PROGRESS);
+  }
+
+  @Override
+  public void finishEngineTask(Task task) {
+    taskRepository.save(task);
+  }
+
+  @Override
+  public Optional<JoinState> arriveJoin(
+      Long workflowId,
+      Long joinTaskDefId,
+      int arity,
+      Long memberTaskDefId,
+      Map<String, Object> output) {
+    return joinArrivalRepository
+        .arrive(
+            Snowflake.getInstance().nextId(),
+            workflowId,
+            joinTaskDefId,
+            arity,
+            memberTaskDefId,
+            toJson(output))
+        .map(JoinState::of);
+  }
+
+  @Override
+  public Map<Long, Integer> progress(Map<Long, WorkflowProgressDelta> deltas) {
+    Map<Long, Integer> pendingTasks = new LinkedHashMap<>();
+    deltas.forEach(
+        (workflowId, delta) ->
+            workflowRepository
+                .updateProgress(workflowId, delta.getPendingDelta(), delta.getFinishedTasks())
+                .ifPresent(
+                    progress -> {
+                      if (progress.getPendingTasks() == null) {
+                        // workflow started before counters existed
+                        pendingTasks.put(workflowId, this.completeLegacyWorkflow(workflowId));
+                      } else {
+                        pendingTasks.put(workflowId, progress.getPendingTasks());
+                      }
+                    }));
+    return pendingTasks;
+  }
+
+  @Override
+  public List<Task> claimDueWaits(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    return taskRepository.claimDueWaits(dueBefore, owner, now, leaseUntil, size);
+  }
+
+  @Override
+  public List<Long> markWaitsDispatched(Collection<Long> taskIds) {
+    return taskIds.isEmpty() ? List.of() : taskRepository.markWaitsDispatched(taskIds);
+  }
+
+  @Override
+  public List<Task> claimDueTimeouts(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    return taskRepository.claimDueTimeouts(dueBefore, owner, now, leaseUntil, size);
+  }
+
+  @Override
+  public List<Task> timeOutTasks(Collection<Long> taskIds, long now) {
+    return taskIds.isEmpty() ? List.of() : taskRepository.timeOutInProgress(taskIds, now);
+  }
+
+  @Override
+  public List<Long> heartbeat(Collection<Long> taskIds, long now) {
+    return taskIds.isEmpty() ? List.of() : taskRepository.heartbeat(taskIds, now);
+  }
+
+  private int completeLegacyWorkflow(Long workflowId) {
+    if (workflowRepository.existsByCompletedAllTask(workflowId)) {
+      return 1;
+    }
+    this.completeWorkflow(workflowId);
+    return 0;
+  }
+
+  static String toJson(Map<String, Object> parameters) {
+    return JsonUtils.toJson(parameters == null ? Collections.emptyMap() : parameters);
+  }
+
+  static Task finishedTask(
+      FinishedTask finishedTask,
+      Long taskId,
+      TaskStatus taskStatus,
+      String workerName,
+      Map<String, Object> outputParameters) {
+    Task task =
+        Task.builder()
+            .correlationId(finishedTask.getCorrelationId())
+            .workerName(workerName)
+            .workflowId(finishedTask.getWorkflowId())
+            .parentTaskId(finishedTask.getParentTaskId())
+            .taskDefId(finishedTask.getTaskDefId())
+            .workflowDefId(finishedTask.getWorkflowDefId())
+            .workflowDefName(finishedTask.getWorkflowDefName())
+            .taskStatus(taskStatus)
+            .outputParameters(outputParameters)
+            .build();
+    task.setId(taskId);
+    return task;
+  }
+}
@@ -0,0 +1,684 @@
+package com.flowhub.business.store;
+
+import com.flowhub.base.utils.JsonUtils;
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Keeps execution state in Redis hashes, for latency-sensitive workflows that can give up the
+ * query APIs. Conditional transitions run as Lua scripts; scripts derive the workflow keys from the
+ * task, so the store needs a standalone (non-cluster) Redis.
+ *
+ * <p>Keys below {@code key-prefix}:
+ *
+ * <pre>
+ * wf:{id}                 hash   status, pending, finished, data
+ * wf:{id}:tasks           set    task ids
+ * wf:{id}:keys            set    JOIN keys
+ * wf:{id}:join:{def}      hash   count, m:{member} output
+ * wf:{id}:join:{def}:seq  list   members in arrival order
+ * task:{id}               hash   status, workflow, data, timeout, worker, output, ended
+ * waits                   zset   task ids scored by due time
+ * deadlines               zset   task ids scored by deadline
+ * lease:{id}              string owner of a claimed wait or deadline, expiring with the lease
+ * </pre>
+ *
+ * <p>Writes are not part of the outbox transaction. Each write inside a transaction records how to
+ * undo it, and a transaction that rolls back undoes its writes in reverse order once it completed,
+ * so the redelivered events apply again instead of being ignored as duplicates. Only a crash
+ * between a write and the rollback leaves the write in place. A completed workflow expires with
+ * everything it owns after {@code completed-ttl}, from the time its transaction committed.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ExecutionStore.PROPERTY, havingValue = "redis")
+public class RedisExecutionStore implements ExecutionStore {
+
+  /** Finishes an in-progress task and returns its data with its former wait and deadline. */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> FINISH_TASK =
+      new DefaultRedisScript<>(
+          "local wf = redis.call('HGET', KEYS[1], 'workflow') "
+              + "if not wf or redis.call('HGET', KEYS[1], 'status') ~= 'IN_PROGRESS' "
+              + "or redis.call('HGET', ARGV[1] .. 'wf:' .. wf, 'status') ~= 'RUNNING' then "
+              + "return {} end "
+              + "local waiting = redis.call('ZSCORE', ARGV[1] .. 'waits', ARGV[6]) or '' "
+              + "local deadline = redis.call('ZSCORE', ARGV[1] .. 'deadlines', ARGV[6]) or '' "
+              + "redis.call('HSET', KEYS[1], 'status', ARGV[2], 'worker', ARGV[3], "
+              + "'output', ARGV[4], 'ended', ARGV[5]) "
+              + "redis.call('ZREM', ARGV[1] .. 'waits', ARGV[6]) "
+              + "redis.call('ZREM', ARGV[1] .. 'deadlines', ARGV[6]) "
+              + "return {redis.call('HGET', KEYS[1], 'data'), waiting, deadline}",
+          List.class);
+
+  /** Undoes the finish or timeout of a task, putting back its wait and deadline. */
+  private static final RedisScript<Long> REOPEN_TASK =
+      new DefaultRedisScript<>(
+          "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+              + "redis.call('HSET', KEYS[1], 'status', 'IN_PROGRESS') "
+              + "redis.call('HDEL', KEYS[1], 'worker', 'output', 'ended') "
+              + "if ARGV[3] ~= '' then "
+              + "redis.call('ZADD', ARGV[1] .. 'waits', ARGV[3], ARGV[2]) end "
+              + "if ARGV[4] ~= '' then "
+              + "redis.call('ZADD', ARGV[1] .. 'deadlines', ARGV[4], ARGV[2]) end "
+              + "return 1",
+          Long.class);
+
+  private static final RedisScript<Long> ARRIVE_JOIN =
+      new DefaultRedisScript<>(
+          "if redis.call('HSETNX', KEYS[1], 'm:' .. ARGV[1], ARGV[2]) == 0 then "
+              + "return false end "
+              + "redis.call('RPUSH', KEYS[2], ARGV[1]) "
+              + "redis.call('SADD', KEYS[3], KEYS[1], KEYS[2]) "
+              + "return redis.call('HINCRBY', KEYS[1], 'count', 1)",
+          Long.class);
+
+  private static final RedisScript<Long> UNDO_ARRIVE_JOIN =
+      new DefaultRedisScript<>(
+          "if redis.call('HDEL', KEYS[1], 'm:' .. ARGV[1]) == 0 then return 0 end "
+              + "redis.call('LREM', KEYS[2], -1, ARGV[1]) "
+              + "return redis.call('HINCRBY', KEYS[1], 'count', -1)",
+          Long.class);
+
+  /**
+   * Adds the deltas to a running workflow and ends it once nothing is outstanding, or at once with
+   * the status given.
+   */
+  private static final RedisScript<Long> PROGRESS =
+      new DefaultRedisScript<>(
+          "if redis.call('HGET', KEYS[1], 'status') ~= 'RUNNING' then return false end "
+              + "local pending = redis.call('HINCRBY', KEYS[1], 'pending', ARGV[1]) "
+              + "redis.call('HINCRBY', KEYS[1], 'finished', ARGV[2]) "
+              + "if pending <= 0 or ARGV[4] ~= '' then "
+              + "redis.call('HSET', KEYS[1], 'status', ARGV[4] ~= '' and ARGV[4] or 'COMPLETED', "
+              + "'ended', ARGV[3]) end "
+              + "return pending",
+          Long.class);
+
+  private static final RedisScript<Long> UNDO_PROGRESS =
+      new DefaultRedisScript<>(
+          "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+              + "redis.call('HINCRBY', KEYS[1], 'pending', ARGV[1]) "
+              + "redis.call('HINCRBY', KEYS[1], 'finished', ARGV[2]) "
+              + "if ARGV[3] == '1' then "
+              + "redis.call('HSET', KEYS[1], 'status', 'RUNNING') "
+              + "redis.call('HDEL', KEYS[1], 'ended') end "
+              + "return 1",
+          Long.class);
+
+  /** Expires an ended workflow with everything it owns. */
+  private static final RedisScript<Long> EXPIRE_WORKFLOW =
+      new DefaultRedisScript<>(
+          "local status = redis.call('HGET', KEYS[1], 'status') "
+              + "if not status or status == 'RUNNING' then return 0 end "
+              + "for _, id in ipairs(redis.call('SMEMBERS', KEYS[1] .. ':tasks')) do "
+              + "redis.call('EXPIRE', ARGV[2] .. 'task:' .. id, ARGV[1]) "
+              + "redis.call('ZREM', ARGV[2] .. 'waits', id) "
+              + "redis.call('ZREM', ARGV[2] .. 'deadlines', id) end "
+              + "for _, key in ipairs(redis.call('SMEMBERS', KEYS[1] .. ':keys')) do "
+              + "redis.call('EXPIRE', key, ARGV[1]) end "
+              + "redis.call('EXPIRE', KEYS[1] .. ':tasks', ARGV[1]) "
+              + "redis.call('EXPIRE', KEYS[1] .. ':keys', ARGV[1]) "
+              + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+              + "return 1",
+          Long.class);
+
+  /** Leases due waits or deadlines that carry no live lease of another owner, earliest first. */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> CLAIM_WAITS =
+      new DefaultRedisScript<>(
+          "local claimed = {} "
+              + "for _, id in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], 0, ARGV[1])) do "
+              + "if #claimed >= tonumber(ARGV[2]) then break end "
+              + "if redis.call('SET', ARGV[3] .. 'lease:' .. id, ARGV[4], 'NX', 'PX', ARGV[5]) "
+              + "then table.insert(claimed, id) end end "
+              + "return claimed",
+          List.class);
+
+  /**
+   * Times out the tasks past their deadline. Returns id, former deadline and whether the workflow
+   * is running for every task timed out.
+   */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> TIME_OUT =
+      new DefaultRedisScript<>(
+          "local timedOut = {} "
+              + "for i = 4, #ARGV do local id = ARGV[i] "
+              + "local score = redis.call('ZSCORE', ARGV[1] .. 'deadlines', id) "
+              + "if score and tonumber(score) <= tonumber(ARGV[2]) then "
+              + "redis.call('ZREM', ARGV[1] .. 'deadlines', id) "
+              + "local key = ARGV[1] .. 'task:' .. id "
+              + "local wf = redis.call('HGET', key, 'workflow') "
+              + "if wf and redis.call('HGET', key, 'status') == 'IN_PROGRESS' then "
+              + "redis.call('HSET', key, 'status', 'TIMED_OUT', 'ended', ARGV[3]) "
+              + "local running = redis.call('HGET', ARGV[1] .. 'wf:' .. wf, 'status') "
+              + "table.insert(timedOut, id) table.insert(timedOut, score) "
+              + "table.insert(timedOut, running == 'RUNNING' and '1' or '0') end end end "
+              + "return timedOut",
+          List.class);
+
+  /**
+   * Moves the deadline of tasks still holding one and frees their lease. Returns id and former
+   * deadline of every task moved.
+   */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> HEARTBEAT =
+      new DefaultRedisScript<>(
+          "local moved = {} "
+              + "for i = 3, #ARGV do local id = ARGV[i] "
+              + "local timeout = redis.call('HGET', ARGV[1] .. 'task:' .. id, 'timeout') "
+              + "local score = redis.call('ZSCORE', ARGV[1] .. 'deadlines', id) "
+              + "if timeout and score then "
+              + "redis.call('ZADD', ARGV[1] .. 'deadlines', tonumber(ARGV[2]) + tonumber(timeout), "
+              + "id) "
+              + "redis.call('DEL', ARGV[1] .. 'lease:' .. id) "
+              + "table.insert(moved, id) table.insert(moved, score) end end "
+              + "return moved",
+          List.class);
+
+  private static final RedisScript<Long> RESTORE_DEADLINE =
+      new DefaultRedisScript<>(
+          "return redis.call('ZADD', KEYS[1], 'XX', ARGV[1], ARGV[2])", Long.class);
+
+  /** Removes waits from {@code waits}; returns id and due time of every wait removed. */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> MARK_DISPATCHED =
+      new DefaultRedisScript<>(
+          "local marked = {} "
+              + "for i = 1, #ARGV do local id = ARGV[i] "
+              + "local score = redis.call('ZSCORE', KEYS[1], id) "
+              + "if score then redis.call('ZREM', KEYS[1], id) "
+              + "table.insert(marked, id) table.insert(marked, score) end end "
+              + "return marked",
+          List.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  private final String prefix;
+
+  private final Duration completedTtl;
+
+  public RedisExecutionStore(
+      StringRedisTemplate redisTemplate,
+      @Value("${custom.properties.execution.redis.key-prefix:flowhub:execution:}") String prefix,
+      @Value("${custom.properties.execution.redis.completed-ttl:1D}") Duration completedTtl) {
+    this.redisTemplate = redisTemplate;
+    this.prefix = prefix;
+    this.completedTtl = completedTtl;
+  }
+
+  @Override
+  public void createWorkflow(Workflow workflow) {
+    if (workflow.getId() == null) {
+      workflow.setId(Snowflake.getInstance().nextId());
+    }
+    Map<String, String> fields = new HashMap<>();
+    fields.put("status", WorkflowStatus.RUNNING.name());
+    fields.put("pending", String.valueOf(workflow.getPendingTasks()));
+    fields.put("finished", String.valueOf(workflow.getFinishedTasks()));
+    fields.put("data", JsonUtils.toJson(workflow));
+    String workflowKey = workflowKey(workflow.getId());
+    redisTemplate.opsForHash().putAll(workflowKey, fields);
+    this.onRollback(
+        () ->
+            redisTemplate.delete(
+                List.of(workflowKey, workflowKey + ":tasks", workflowKey + ":keys")));
+  }
+
+  @Override
+  public void completeWorkflow(Long workflowId) {
+    this.progress(workflowId, 0, 0, WorkflowStatus.COMPLETED);
+  }
+
+  @Override
+  public void failWorkflow(Long workflowId) {
+    this.progress(workflowId, 0, 0, WorkflowStatus.FAILED);
+  }
+
+  @Override
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public void createTasks(List<Task> tasks) {
+    for (Task task : tasks) {
+      task.setId(Snowflake.getInstance().nextId());
+    }
+    redisTemplate.executePipelined(
+        new SessionCallback<>() {
+          @Override
+          public Object execute(RedisOperations operations) throws DataAccessException {
+            for (Task task : tasks) {
+              String taskId = String.valueOf(task.getId());
+              Map<String, String> fields = new HashMap<>();
+              fields.put("status", task.getTaskStatus().name());
+              fields.put("workflow", String.valueOf(task.getWorkflowId()));
+              fields.put("data", JsonUtils.toJson(task));
+              if (task.getDeadline() != null) {
+                fields.put("timeout", String.valueOf(task.getResponseTimeout()));
+              }
+              operations.opsForHash().putAll(taskKey(task.getId()), fields);
+              operations.opsForSet().add(workflowKey(task.getWorkflowId()) + ":tasks", taskId);
+              if (task.getWaiting() != null) {
+                operations.opsForZSet().add(prefix + "waits", taskId, task.getWaiting());
+              }
+              if (task.getDeadline() != null) {
+                operations.opsForZSet().add(prefix + "deadlines", taskId, task.getDeadline());
+              }
+              if (task.getLeaseOwner() != null) {
+                operations
+                    .opsForValue()
+                    .set(
+                        prefix + "lease:" + taskId,
+                        task.getLeaseOwner(),
+                        Duration.ofMillis(
+                            Math.max(1, task.getLeaseUntil() - System.currentTimeMillis())));
+              }
+            }
+            return null;
+          }
+        });
+    this.onRollback(() -> this.deleteTasks(tasks));
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void deleteTasks(List<Task> tasks) {
+    redisTemplate.executePipelined(
+        new SessionCallback<>() {
+          @Override
+          public Object execute(RedisOperations operations) throws DataAccessException {
+            for (Task task : tasks) {
+              String taskId = String.valueOf(task.getId());
+              operations.delete(List.of(taskKey(task.getId()), prefix + "lease:" + taskId));
+              operations.opsForSet().remove(workflowKey(task.getWorkflowId()) + ":tasks", taskId);
+              operations.opsForZSet().remove(prefix + "waits", taskId);
+              operations.opsForZSet().remove(prefix + "deadlines", taskId);
+            }
+            return null;
+          }
+        });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Optional<Task> finishTask(
+      Long taskId, TaskStatus taskStatus, String workerName, Map<String, Object> outputParameters) {
+    List<String> finished =
+        redisTemplate.execute(
+            FINISH_TASK,
+            List.of(taskKey(taskId)),
+            prefix,
+            taskStatus.name(),
+            workerName == null ? "" : workerName,
+            PostgresExecutionStore.toJson(outputParameters),
+            LocalDateTime.now().toString(),
+            String.valueOf(taskId));
+    if (CollectionUtils.isEmpty(finished)) {
+      return Optional.empty();
+    }
+    this.onRollback(() -> this.reopen(taskId, finished.get(1), finished.get(2)));
+    Task task = JsonUtils.fromJson(finished.get(0), Task.class);
+    task.setTaskStatus(taskStatus);
+    task.setWorkerName(workerName);
+    task.setOutputParameters(outputParameters);
+    task.setInputParameters(null);
+    return Optional.of(task);
+  }
+
+  @Override
+  public Optional<Task> findInProgressTask(Long taskId) {
+    List<Object> fields =
+        redisTemplate.opsForHash().multiGet(taskKey(taskId), List.of("status", "data"));
+    if (!TaskStatus.IN_PROGRESS.name().equals(fields.get(0)) || fields.get(1) == null) {
+      return Optional.empty();
+    }
+    return Optional.of(JsonUtils.fromJson((String) fields.get(1), Task.class));
+  }
+
+  @Override
+  public void finishEngineTask(Task task) {
+    Map<String, String> fields = new HashMap<>();
+    fields.put("status", task.getTaskStatus().name());
+    fields.put("output", PostgresExecutionStore.toJson(task.getOutputParameters()));
+    fields.put("ended", String.valueOf(task.getEndedAt()));
+    redisTemplate.opsForHash().putAll(taskKey(task.getId()), fields);
+    // the engine only finishes tasks it found in progress
+    this.onRollback(() -> this.reopen(task.getId(), "", ""));
+  }
+
+  private void reopen(Long taskId, String waiting, String deadline) {
+    redisTemplate.execute(
+        REOPEN_TASK,
+        List.of(taskKey(taskId)),
+        prefix,
+        String.valueOf(taskId),
+        waiting == null ? "" : waiting,
+        deadline == null ? "" : deadline);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Optional<JoinState> arriveJoin(
+      Long workflowId,
+      Long joinTaskDefId,
+      int arity,
+      Long memberTaskDefId,
+      Map<String, Object> output) {
+    String joinKey = workflowKey(workflowId) + ":join:" + joinTaskDefId;
+    Long arrived =
+        redisTemplate.execute(
+            ARRIVE_JOIN,
+            List.of(joinKey, joinKey + ":seq", workflowKey(workflowId) + ":keys"),
+            String.valueOf(memberTaskDefId),
+            PostgresExecutionStore.toJson(output));
+    if (arrived == null) {
+      return Optional.empty();
+    }
+    this.onRollback(
+        () ->
+            redisTemplate.execute(
+                UNDO_ARRIVE_JOIN,
+                List.of(joinKey, joinKey + ":seq"),
+                String.valueOf(memberTaskDefId)));
+    Map<String, Object> mergedOutput = new LinkedHashMap<>();
+    if (arrived >= arity) {
+      List<Object> memberFields = new ArrayList<>();
+      List<String> members = redisTemplate.opsForList().range(joinKey + ":seq", 0, -1);
+      if (members != null) {
+        members.forEach(member -> memberFields.add("m:" + member));
+      }
+      for (Object memberOutput : redisTemplate.opsForHash().multiGet(joinKey, memberFields)) {
+        Map<String, Object> values = JsonUtils.fromJson((String) memberOutput, Map.class);
+        if (!CollectionUtils.isEmpty(values)) {
+          mergedOutput.putAll(values);
+        }
+      }
+    }
+    return Optional.of(
+        new JoinState(arrived.intValue(), arity, PostgresExecutionStore.toJson(mergedOutput)));
+  }
+
+  @Override
+  public Map<Long, Integer> progress(Map<Long, WorkflowProgressDelta> deltas) {
+    Map<Long, Integer> pendingTasks = new LinkedHashMap<>();
+    deltas.forEach(
+        (workflowId, delta) ->
+            this.progress(workflowId, delta.getPendingDelta(), delta.getFinishedTasks(), null)
+                .ifPresent(pending -> pendingTasks.put(workflowId, pending)));
+    return pendingTasks;
+  }
+
+  @Override
+  public List<Task> claimDueWaits(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    List<Task> tasks = new ArrayList<>();
+    for (String taskId : this.claim("waits", dueBefore, owner, now, leaseUntil, size)) {
+      this.findInProgressTask(Long.valueOf(taskId))
+          .ifPresent(
+              task -> {
+                task.setLeaseOwner(owner);
+                task.setLeaseUntil(leaseUntil);
+                tasks.add(task);
+              });
+    }
+    return tasks;
+  }
+
+  /** Claims like {@link #claimDueWaits}; the deadline of a task is read from {@code deadlines}. */
+  @Override
+  public List<Task> claimDueTimeouts(
+      long dueBefore, String owner, long now, long leaseUntil, int size) {
+    List<Task> tasks = new ArrayList<>();
+    for (String taskId : this.claim("deadlines", dueBefore, owner, now, leaseUntil, size)) {
+      Double deadline = redisTemplate.opsForZSet().score(prefix + "deadlines", taskId);
+      if (deadline == null) {
+        continue;
+      }
+      this.findInProgressTask(Long.valueOf(taskId))
+          .ifPresent(
+              task -> {
+                task.setDeadline(deadline.longValue());
+                task.setLeaseOwner(owner);
+                task.setLeaseUntil(leaseUntil);
+                tasks.add(task);
+              });
+    }
+    return tasks;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Task> timeOutTasks(Collection<Long> taskIds, long now) {
+    if (taskIds.isEmpty()) {
+      return List.of();
+    }
+    List<String> args = new ArrayList<>(taskIds.size() + 3);
+    args.add(prefix);
+    args.add(String.valueOf(now));
+    args.add(LocalDateTime.now().toString());
+    taskIds.forEach(taskId -> args.add(String.valueOf(taskId)));
+    List<String> transitions =
+        redisTemplate.execute(TIME_OUT, List.of(prefix + "deadlines"), args.toArray());
+    if (CollectionUtils.isEmpty(transitions)) {
+      return List.of();
+    }
+    List<String> timedOutIds = new ArrayList<>(transitions.size() / 3);
+    for (int i = 0; i < transitions.size(); i += 3) {
+      Long taskId = Long.valueOf(transitions.get(i));
+      String deadline = transitions.get(i + 1);
+      this.onRollback(() -> this.reopen(taskId, "", deadline));
+      if ("1".equals(transitions.get(i + 2))) {
+        timedOutIds.add(transitions.get(i));
+      }
+    }
+    List<Task> timedOut = new ArrayList<>(timedOutIds.size());
+    for (String taskId : timedOutIds) {
+      Object data = redisTemplate.opsForHash().get(taskKey(Long.valueOf(taskId)), "data");
+      if (data != null) {
+        Task task = JsonUtils.fromJson((String) data, Task.class);
+        task.setTaskStatus(TaskStatus.TIMED_OUT);
+        timedOut.add(task);
+      }
+    }
+    return timedOut;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Long> heartbeat(Collection<Long> taskIds, long now) {
+    if (taskIds.isEmpty()) {
+      return List.of();
+    }
+    List<String> args = new ArrayList<>(taskIds.size() + 2);
+    args.add(prefix);
+    args.add(String.valueOf(now));
+    taskIds.forEach(taskId -> args.add(String.valueOf(taskId)));
+    List<String> moved =
+        redisTemplate.execute(HEARTBEAT, List.of(prefix + "deadlines"), args.toArray());
+    if (CollectionUtils.isEmpty(moved)) {
+      return List.of();
+    }
+    List<Long> movedIds = new ArrayList<>(moved.size() / 2);
+    for (int i = 0; i < moved.size(); i += 2) {
+      String taskId = moved.get(i);
+      String deadline = moved.get(i + 1);
+      movedIds.add(Long.valueOf(taskId));
+      // a task finished meanwhile left the deadlines and stays out
+      this.onRollback(
+          () ->
+              redisTemplate.execute(
+                  RESTORE_DEADLINE, List.of(prefix + "deadlines"), deadline, taskId));
+    }
+    return movedIds;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<String> claim(
+      String key, long dueBefore, String owner, long now, long leaseUntil, int size) {
+    List<String> taskIds =
+        redisTemplate.execute(
+            CLAIM_WAITS,
+            List.of(prefix + key),
+            "(" + dueBefore,
+            String.valueOf(size),
+            prefix,
+            owner,
+            String.valueOf(Math.max(1, leaseUntil - now)));
+    return taskIds == null ? List.of() : taskIds;
+  }
+
+  /** Removes the tasks from {@code waits} in one script; only the removing caller marked one. */
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Long> markWaitsDispatched(Collection<Long> taskIds) {
+    if (taskIds.isEmpty()) {
+      return List.of();
+    }
+    List<String> removed =
+        redisTemplate.execute(
+            MARK_DISPATCHED,
+            List.of(prefix + "waits"),
+            taskIds.stream().map(String::valueOf).toArray());
+    if (CollectionUtils.isEmpty(removed)) {
+      return List.of();
+    }
+    List<Long> marked = new ArrayList<>(removed.size() / 2);
+    for (int i = 0; i < removed.size(); i += 2) {
+      String taskId = removed.get(i);
+      double waiting = Double.parseDouble(removed.get(i + 1));
+      marked.add(Long.valueOf(taskId));
+      this.onRollback(
+          () -> redisTemplate.opsForZSet().addIfAbsent(prefix + "waits", taskId, waiting));
+    }
+    return marked;
+  }
+
+  private Optional<Integer> progress(
+      Long workflowId, int delta, int finished, WorkflowStatus status) {
+    String workflowKey = workflowKey(workflowId);
+    Long pending =
+        redisTemplate.execute(
+            PROGRESS,
+            List.of(workflowKey),
+            String.valueOf(delta),
+            String.valueOf(finished),
+            LocalDateTime.now().toString(),
+            status == null ? "" : status.name());
+    if (pending == null) {
+      return Optional.empty();
+    }
+    boolean ended = status != null || pending <= 0;
+    this.onRollback(
+        () ->
+            redisTemplate.execute(
+                UNDO_PROGRESS,
+                List.of(workflowKey),
+                String.valueOf(-delta),
+                String.valueOf(-finished),
+                ended ? "1" : "0"));
+    if (ended) {
+      this.afterCommit(
+          () ->
+              redisTemplate.execute(
+                  EXPIRE_WORKFLOW,
+                  List.of(workflowKey),
+                  String.valueOf(Math.max(1, completedTtl.toSeconds())),
+                  prefix));
+    }
+    return Optional.of(pending.intValue());
+  }
+
+  private void onRollback(Runnable undo) {
+    Journal journal = this.journal();
+    if (journal != null) {
+      journal.undo.add(undo);
+    }
+  }
+
+  private void afterCommit(Runnable action) {
+    Journal journal = this.journal();
+    if (journal == null) {
+      action.run();
+    } else {
+      journal.committed.add(action);
+    }
+  }
+
+  /** Journal of the current transaction, {@code null} outside one. */
+  private Journal journal() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    Journal journal = (Journal) TransactionSynchronizationManager.getResource(this);
+    if (journal == null) {
+      journal = new Journal();
+      TransactionSynchronizationManager.bindResource(this, journal);
+      TransactionSynchronizationManager.registerSynchronization(journal);
+    }
+    return journal;
+  }
+
+  private String workflowKey(Long workflowId) {
+    return prefix + "wf:" + workflowId;
+  }
+
+  private String taskKey(Long taskId) {
+    return prefix + "task:" + taskId;
+  }
+
+  /** Writes of one transaction, undone when it rolls back. */
+  private final class Journal implements TransactionSynchronization {
+
+    private final List<Runnable> undo = new ArrayList<>();
+
+    private final List<Runnable> committed = new ArrayList<>();
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResource(RedisExecutionStore.this);
+      if (status == STATUS_COMMITTED) {
+        this.run(committed);
+      } else if (status == STATUS_ROLLED_BACK) {
+        log.warn("Undoing {} execution writes of a rolled back transaction", undo.size());
+        this.run(undo.reversed());
+      } else {
+        log.error("Kept {} execution writes of a transaction in unknown state", undo.size());
+      }
+    }
+
+    private void run(List<Runnable> actions) {
+      for (Runnable action : actions) {
+        try {
+          action.run();
+        } catch (Exception e) {
+          log.error("Failed to apply an execution write after completion", e);
+        }
+      }
+    }
+  }
+}
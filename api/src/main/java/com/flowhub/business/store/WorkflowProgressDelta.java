@@ -0,0 +1,28 @@
+package com.flowhub.business.store;
+
+import lombok.Getter;
+
+/**
+ * Tasks of one workflow finished and scheduled by a decider batch.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@Getter
+public final class WorkflowProgressDelta {
+
+  private int scheduledTasks;
+
+  private int finishedTasks;
+
+  /** Records one finished task and the successors it scheduled. */
+  public void add(int scheduled) {
+    this.scheduledTasks += scheduled;
+    this.finishedTasks++;
+  }
+
+  /** Change of the outstanding tasks of the workflow. */
+  public int getPendingDelta() {
+    return scheduledTasks - finishedTasks;
+  }
+}
@@ -0,0 +1,123 @@
+package com.flowhub.base.data;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares plain JSON (what {@code jsonb} columns transfer) with {@link CompressedJsonJdbcType} on
+ * order-like task parameters with 1, 20 and 500 line items. Stored sizes are printed on setup. Run
+ * with {@code main} from the test classpath.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressedJsonBenchmark {
+
+  // shared like the Hibernate json format mapper, so only the codec is compared
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @Param({"1", "20", "500"})
+  private int items;
+
+  private Map<String, Object> parameters;
+
+  private byte[] json;
+
+  private byte[] compressed;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(CompressedJsonBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  static String order(int items) {
+    Map<String, Object> order = new HashMap<>();
+    order.put("orderId", "ORD-2026-000123456");
+    order.put("customerId", "CUS-000987654");
+    order.put("channel", "WEB");
+    order.put("currency", "VND");
+    order.put(
+        "shippingAddress",
+        Map.of(
+            "line1", "123 Nguyen Hue",
+            "district", "District 1",
+            "city", "Ho Chi Minh City",
+            "country", "VN"));
+    List<Map<String, Object>> lines = new ArrayList<>();
+    for (int i = 0; i < items; i++) {
+      Map<String, Object> line = new HashMap<>();
+      line.put("sku", "SKU-" + (100000 + i * 37));
+      line.put("name", "Product " + i + " - standard edition");
+      line.put("quantity", 1 + i % 5);
+      line.put("unitPrice", 150000 + i * 1000);
+      line.put("discount", i % 3 == 0 ? 0.1 : 0);
+      line.put("warehouse", "WH-HCM-0" + i % 4);
+      lines.add(line);
+    }
+    order.put("items", lines);
+    order.put("amount", lines.size() * 175000);
+    try {
+      return OBJECT_MAPPER.writeValueAsString(order);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() throws JsonProcessingException {
+    String order = order(items);
+    parameters = OBJECT_MAPPER.readValue(order, Map.class);
+    json = order.getBytes(StandardCharsets.UTF_8);
+    compressed = CompressedJsonJdbcType.encode(order);
+    System.out.printf(
+        "%n%d items: json %d bytes, compressed %d bytes%n", items, json.length, compressed.length);
+  }
+
+  @Benchmark
+  public byte[] writeJson() throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsBytes(parameters);
+  }
+
+  @Benchmark
+  public byte[] writeCompressed() throws JsonProcessingException {
+    return CompressedJsonJdbcType.encode(OBJECT_MAPPER.writeValueAsString(parameters));
+  }
+
+  @Benchmark
+  public Map<?, ?> readJson() throws JsonProcessingException {
+    return OBJECT_MAPPER.readValue(new String(json, StandardCharsets.UTF_8), Map.class);
+  }
+
+  @Benchmark
+  public Map<?, ?> readCompressed() throws JsonProcessingException {
+    return OBJECT_MAPPER.readValue(CompressedJsonJdbcType.decode(compressed), Map.class);
+  }
+}
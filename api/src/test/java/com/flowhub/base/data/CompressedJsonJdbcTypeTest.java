@@ -0,0 +1,51 @@
+package com.flowhub.base.data;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class CompressedJsonJdbcTypeTest {
+
+  @Test
+  void testLargeJsonIsCompressed() {
+    String json = CompressedJsonBenchmark.order(50);
+
+    byte[] encoded = CompressedJsonJdbcType.encode(json);
+
+    assertEquals(CompressedJsonJdbcType.CODEC_DEFLATE, encoded[3]);
+    assertTrue(encoded.length < json.length() / 3);
+    assertEquals(json, CompressedJsonJdbcType.decode(encoded));
+  }
+
+  @Test
+  void testSmallJsonIsStoredWithHeaderOnly() {
+    String json = "{\"amount\":10,\"channel\":\"WEB\"}";
+
+    byte[] encoded = CompressedJsonJdbcType.encode(json);
+
+    assertEquals(CompressedJsonJdbcType.CODEC_NONE, encoded[3]);
+    assertEquals(json, CompressedJsonJdbcType.decode(encoded));
+  }
+
+  @Test
+  void testJsonMigratedFromJsonbIsReadWithoutHeader() {
+    String json = "{\"amount\":10}";
+
+    assertEquals(json, CompressedJsonJdbcType.decode(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void testUnknownVersionIsRejected() {
+    byte[] encoded = CompressedJsonJdbcType.encode("{\"amount\":10}");
+    encoded[2] = 9;
+
+    assertThrows(IllegalArgumentException.class, () -> CompressedJsonJdbcType.decode(encoded));
+  }
+}
@@ -0,0 +1,105 @@
+package com.flowhub.base.data;
+
+import com.flowhub.base.exception.BaseException;
+import com.flowhub.business.entity.Workflow;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class PagingParameterTest {
+
+  @Test
+  void testNativeSortUsesColumnNamesOfEveryPart() {
+    PagingParameter pagingParameter = new PagingParameter();
+    pagingParameter.setSort("createdAt:desc_id:asc");
+
+    Sort sort = pagingParameter.pageable(true, Workflow.class).getSort();
+
+    assertEquals(
+        List.of(Sort.Order.desc("CREATED_AT"), Sort.Order.asc("ID")), sort.toList());
+  }
+
+  @Test
+  void testNativeSortRejectsUnknownField() {
+    PagingParameter pagingParameter = new PagingParameter();
+    pagingParameter.setSort("unknown:asc");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> pagingParameter.pageable(true, Workflow.class));
+  }
+
+  @Test
+  void testFirstKeysetPageStartsAtInitialPosition() {
+    PagingParameter pagingParameter = new PagingParameter();
+
+    assertTrue(pagingParameter.scrollPosition(Workflow.class).isInitial());
+    assertEquals(20, pagingParameter.limit().max());
+  }
+
+  @Test
+  void testNextCursorRoundTripsKeysWithTheirTypes() {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("createdAt", LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000));
+    keys.put("id", 1_234_567_890_123L);
+    PagingParameter pagingParameter = new PagingParameter();
+    Window<String> window =
+        Window.from(List.of("a", "b"), index -> ScrollPosition.forward(keys), true);
+
+    ResponsePage<String> page = new ResponsePage<>(window, pagingParameter);
+    pagingParameter.setCursor(page.getPageInfo().getNextCursor());
+    KeysetScrollPosition position =
+        (KeysetScrollPosition) pagingParameter.scrollPosition(Workflow.class);
+
+    assertTrue(page.getPageInfo().getHasNext());
+    assertNull(page.getPageInfo().getTotalCount());
+    assertEquals(keys, position.getKeys());
+    assertEquals(ScrollPosition.Direction.FORWARD, position.getDirection());
+  }
+
+  @Test
+  void testLastKeysetPageHasNoCursor() {
+    Window<String> window =
+        Window.from(
+            List.of("a"), index -> ScrollPosition.forward(Map.of("id", 1L)), false);
+
+    ResponsePage<String> page =
+        new ResponsePage<>(window, window.getContent(), new PagingParameter(), 1L);
+
+    assertFalse(page.getPageInfo().getHasNext());
+    assertNull(page.getPageInfo().getNextCursor());
+    assertEquals(1L, page.getPageInfo().getTotalCount());
+  }
+
+  @Test
+  void testCursorOfAnotherSortIsRejected() {
+    PagingParameter pagingParameter = new PagingParameter();
+    pagingParameter.setCursor(
+        PageCursor.encode(ScrollPosition.forward(Map.of("id", 1L)), "id:asc"));
+
+    assertThrows(BaseException.class, () -> pagingParameter.scrollPosition(Workflow.class));
+  }
+
+  @Test
+  void testMalformedCursorIsRejected() {
+    PagingParameter pagingParameter = new PagingParameter();
+    pagingParameter.setCursor("not-a-cursor");
+
+    assertThrows(BaseException.class, () -> pagingParameter.scrollPosition(Workflow.class));
+  }
+}
@@ -0,0 +1,91 @@
+package com.flowhub.base.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two in-memory databases stand in for the primary and the replica.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+class ReplicaRoutingDataSourceTest {
+
+  private final DataSource primary = database("primary");
+
+  private final DataSource replica = database("replica");
+
+  @BeforeEach
+  void setUp() {
+    new JdbcTemplate(replica).execute("create table if not exists replica_lag (seconds int)");
+    new JdbcTemplate(replica).execute("delete from replica_lag");
+  }
+
+  @Test
+  void testReadOnlyTransactionsGoToTheReplica() {
+    ReplicaLagGuard guard = guard(0);
+
+    assertTrue(guard.isReplicaUsable());
+    assertEquals("replica", currentDatabase(guard, true));
+    assertEquals("primary", currentDatabase(guard, false));
+  }
+
+  @Test
+  void testLaggingReplicaFallsBackToPrimary() {
+    ReplicaLagGuard guard = guard(60);
+
+    assertFalse(guard.isReplicaUsable());
+    assertEquals("primary", currentDatabase(guard, true));
+  }
+
+  @Test
+  void testUnreachableReplicaFallsBackToPrimary() {
+    ReplicaLagGuard guard =
+        new ReplicaLagGuard(
+            replica,
+            "select seconds from missing_table",
+            Duration.ofSeconds(5),
+            new SimpleMeterRegistry());
+    guard.check();
+
+    assertFalse(guard.isReplicaUsable());
+    assertEquals("primary", currentDatabase(guard, true));
+  }
+
+  private ReplicaLagGuard guard(int lagSeconds) {
+    new JdbcTemplate(replica).update("insert into replica_lag values (?)", lagSeconds);
+    ReplicaLagGuard guard =
+        new ReplicaLagGuard(
+            replica,
+            "select seconds from replica_lag",
+            Duration.ofSeconds(5),
+            new SimpleMeterRegistry());
+    guard.check();
+    return guard;
+  }
+
+  private String currentDatabase(ReplicaLagGuard guard, boolean readOnly) {
+    DataSource dataSource = ReplicaDataSourceConfig.routingDataSource(primary, replica, guard);
+    TransactionTemplate transactionTemplate =
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    transactionTemplate.setReadOnly(readOnly);
+    return transactionTemplate.execute(
+        status ->
+            new JdbcTemplate(dataSource).queryForObject("select lower(database())", String.class));
+  }
+
+  private static DataSource database(String name) {
+    return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+  }
+}
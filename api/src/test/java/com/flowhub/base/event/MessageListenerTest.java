@@ -0,0 +1,166 @@
+package com.flowhub.base.event;
+
+import com.flowhub.base.redis.HistoryMessageRepository;
+import com.flowhub.base.utils.JsonUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class MessageListenerTest {
+
+  private static final String TIER_TOPIC = "TEST_EVENT.FLOWHUB.RETRIES.10S";
+
+  private final MessageInterceptor messageInterceptor = mock(MessageInterceptor.class);
+
+  private final HistoryMessageRepository historyMessageRepository =
+      mock(HistoryMessageRepository.class);
+
+  private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+  @BeforeEach
+  void setUp() {
+    when(historyMessageRepository.put(any())).thenReturn(Boolean.TRUE);
+  }
+
+  @Test
+  void testBatchHandledAtOnceIsAcknowledgedOnce() {
+    TestListener listener = listener(true, null);
+
+    listener.batchMessageListener(records("a", "b", "c"), acknowledgment, 300, 10);
+
+    assertEquals(List.of("a", "b", "c"), listener.batch);
+    assertEquals(List.of(), listener.single);
+    verify(acknowledgment, times(1)).acknowledge();
+    verify(messageInterceptor, never()).convertAndSendRetriesEvent(any());
+  }
+
+  @Test
+  void testFailedBatchFallsBackToSingleRecordsAndRetriesOnlyFailures() {
+    TestListener listener = listener(false, "b");
+
+    listener.batchMessageListener(records("a", "b", "c"), acknowledgment, 300, 10);
+
+    assertEquals(List.of("a", "b", "c"), listener.single);
+    verify(acknowledgment, times(1)).acknowledge();
+    ArgumentCaptor<RetriesMessageData> retries = ArgumentCaptor.forClass(RetriesMessageData.class);
+    verify(messageInterceptor, times(1)).convertAndSendRetriesEvent(retries.capture());
+    assertEquals("key-b", retries.getValue().getMessageKey());
+  }
+
+  @Test
+  void testRecordsBehindANotYetDueRetryKeepItsPosition() {
+    RetriesTopics retriesTopics = mock(RetriesTopics.class);
+    when(retriesTopics.delayOf(TIER_TOPIC)).thenReturn(10_000L);
+    Consumer<?, ?> consumer = mock(Consumer.class);
+    TestListener listener = listener(true, null);
+    listener.setRetriesTopics(retriesTopics);
+    TopicPartition topicPartition = new TopicPartition(TIER_TOPIC, 0);
+    long now = System.currentTimeMillis();
+
+    // both records of one poll are delivered although the first one paused the partition
+    deliver(listener, consumer, "a", 5, now);
+    deliver(listener, consumer, "b", 6, now);
+
+    verify(consumer, times(2)).seek(topicPartition, 5L);
+    verify(consumer, never()).seek(topicPartition, 6L);
+    verify(retriesTopics, times(1)).pause(any(), any());
+    verify(acknowledgment, never()).acknowledge();
+
+    long due = now - 10_000;
+    deliver(listener, consumer, "a", 5, due);
+    deliver(listener, consumer, "b", 6, due);
+
+    assertEquals(List.of("a", "b"), listener.single);
+    verify(acknowledgment, times(2)).acknowledge();
+  }
+
+  private TestListener listener(boolean batchSucceeds, String failing) {
+    TestListener listener = new TestListener(batchSucceeds, failing);
+    listener.setMessageInterceptor(messageInterceptor);
+    listener.setHistoryMessageRepository(historyMessageRepository);
+    return listener;
+  }
+
+  private void deliver(
+      TestListener listener, Consumer<?, ?> consumer, String content, long offset, long timestamp) {
+    listener.messageRetriesListener(
+        retries(content),
+        TIER_TOPIC,
+        "0",
+        String.valueOf(offset),
+        timestamp,
+        acknowledgment,
+        consumer);
+  }
+
+  private static String retries(String content) {
+    MessageData<String> data = new MessageData<>("TEST", content);
+    return JsonUtils.toJson(new RetriesMessageData<>(content, data, "TEST_EVENT", 300, 3));
+  }
+
+  private static List<ConsumerRecord<String, String>> records(String... contents) {
+    List<ConsumerRecord<String, String>> records = new ArrayList<>();
+    for (int i = 0; i < contents.length; i++) {
+      records.add(
+          new ConsumerRecord<>(
+              "TEST_EVENT",
+              0,
+              i,
+              "key-" + contents[i],
+              JsonUtils.toJson(new MessageData<>("TEST", contents[i]))));
+    }
+    return records;
+  }
+
+  private static class TestListener extends MessageListener<String> {
+
+    private final boolean batchSucceeds;
+
+    private final String failing;
+
+    private final List<String> batch = new ArrayList<>();
+
+    private final List<String> single = new ArrayList<>();
+
+    private TestListener(boolean batchSucceeds, String failing) {
+      this.batchSucceeds = batchSucceeds;
+      this.failing = failing;
+    }
+
+    @Override
+    protected boolean handleMessageEvents(String topic, List<MessageData<String>> inputs) {
+      if (!batchSucceeds) {
+        throw new IllegalStateException("batch failed");
+      }
+      inputs.forEach(input -> batch.add(input.getContent()));
+      return true;
+    }
+
+    @Override
+    protected void handleMessageEvent(
+        String topic, String partition, String offset, MessageData<String> input) {
+      single.add(input.getContent());
+      if (input.getContent().equals(failing)) {
+        throw new IllegalStateException("record failed");
+      }
+    }
+  }
+}
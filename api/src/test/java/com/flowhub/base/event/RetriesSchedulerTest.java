@@ -0,0 +1,27 @@
+package com.flowhub.base.event;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class RetriesSchedulerTest {
+
+  @Test
+  void testBackoffDoublesEachRetryWithinJitter() {
+    assertEquals(500, RetriesScheduler.backoff(1000, 1, 60_000, 0));
+    assertEquals(999, RetriesScheduler.backoff(1000, 1, 60_000, 0.999));
+    assertEquals(2000, RetriesScheduler.backoff(1000, 3, 60_000, 0));
+    assertEquals(3999, RetriesScheduler.backoff(1000, 3, 60_000, 0.99975));
+  }
+
+  @Test
+  void testBackoffIsCappedAtMaxDelay() {
+    assertEquals(30_000, RetriesScheduler.backoff(1000, 10, 60_000, 0));
+    assertEquals(30_000, RetriesScheduler.backoff(1000, 100, 60_000, 0));
+    assertEquals(30_000, RetriesScheduler.backoff(Long.MAX_VALUE / 2, 3, 60_000, 0));
+  }
+}
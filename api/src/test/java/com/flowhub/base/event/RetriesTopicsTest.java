@@ -0,0 +1,52 @@
+package com.flowhub.base.event;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class RetriesTopicsTest {
+
+  private final RetriesTopics retriesTopics =
+      new RetriesTopics("flowhub", true, List.of("10S", "1S", "1M", "10M"), null, null);
+
+  @Test
+  void testTopicsFollowTiers() {
+    assertArrayEquals(
+        new String[] {
+          "EVENT.FLOWHUB.RETRIES.1S",
+          "EVENT.FLOWHUB.RETRIES.10S",
+          "EVENT.FLOWHUB.RETRIES.1M",
+          "EVENT.FLOWHUB.RETRIES.10M"
+        },
+        retriesTopics.topics("EVENT"));
+    assertEquals(60_000, retriesTopics.delayOf("EVENT.FLOWHUB.RETRIES.1M"));
+    assertEquals(-1, retriesTopics.delayOf("EVENT.FLOWHUB.RETRIES"));
+  }
+
+  @Test
+  void testRetryMovesUpTiersThenToDeadLetter() {
+    RetriesMessageData<String> retries =
+        new RetriesMessageData<>("1", new MessageData<>("TEST", "a"), "EVENT", 300, 10);
+    retries.setDestination("EVENT.FLOWHUB.RETRIES");
+
+    assertEquals("EVENT.FLOWHUB.RETRIES.1S", retriesTopics.route(retries));
+    // 4.8 seconds never runs early in the 1 second tier
+    retries.setRetriesNo(5);
+    assertEquals("EVENT.FLOWHUB.RETRIES.10S", retriesTopics.route(retries));
+    retries.setRetriesNo(7);
+    assertEquals("EVENT.FLOWHUB.RETRIES.1M", retriesTopics.route(retries));
+    retries.setRetriesNo(10);
+    assertEquals("EVENT.FLOWHUB.RETRIES.10M", retriesTopics.route(retries));
+    retries.setRepeatCount(30);
+    retries.setRetriesNo(30);
+    assertEquals("EVENT.FLOWHUB.RETRIES.10M", retriesTopics.route(retries));
+    retries.setRetriesNo(31);
+    assertEquals("EVENT.FLOWHUB.RETRIES.DLT", retriesTopics.route(retries));
+  }
+}
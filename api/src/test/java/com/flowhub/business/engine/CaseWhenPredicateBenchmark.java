@@ -0,0 +1,91 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.enums.TaskType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * Compares the former parse-per-completion CASE_WHEN evaluation with {@link
+ * CaseWhenPredicateCache}. Run with {@code main} from the test classpath.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaseWhenPredicateBenchmark {
+
+  private static final String EXPRESSION =
+      "['amount'] > 100 and ['channel'] == 'WEB' and ['retries'] < 3";
+
+  private final CaseWhenPredicateCache predicateCache = new CaseWhenPredicateCache();
+
+  private final Map<String, Object> outputParameters = new HashMap<>();
+
+  private TaskNode taskNode;
+
+  private Expression interpretedExpression;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(CaseWhenPredicateBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  @Setup
+  public void setup() {
+    outputParameters.put("amount", 250);
+    outputParameters.put("channel", "WEB");
+    outputParameters.put("retries", 1);
+    taskNode =
+        TaskNode.builder()
+            .id(1L)
+            .version(0L)
+            .type(TaskType.CASE_WHEN)
+            .expressionDef(EXPRESSION)
+            .requiredInputParameters(List.of())
+            .requiredOutputParameters(List.of())
+            .predecessors(Set.of())
+            .build();
+    interpretedExpression = new SpelExpressionParser().parseExpression(EXPRESSION);
+  }
+
+  @Benchmark
+  public Boolean parsePerEvaluation() {
+    return new SpelExpressionParser()
+        .parseExpression(EXPRESSION)
+        .getValue(outputParameters, Boolean.class);
+  }
+
+  @Benchmark
+  public Boolean cachedInterpreted() {
+    return interpretedExpression.getValue(outputParameters, Boolean.class);
+  }
+
+  @Benchmark
+  public boolean cachedCompiled() {
+    return predicateCache.test(taskNode, outputParameters);
+  }
+}
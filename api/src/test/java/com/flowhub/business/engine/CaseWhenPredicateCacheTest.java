@@ -0,0 +1,57 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.enums.TaskType;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class CaseWhenPredicateCacheTest {
+
+  private final CaseWhenPredicateCache predicateCache = new CaseWhenPredicateCache();
+
+  @Test
+  void testPropertyAndIndexerSyntaxOnOutputMap() {
+    Map<String, Object> output = Map.of("amount", 250, "channel", "WEB");
+
+    assertTrue(predicateCache.test(node(1L, 0L, "amount > 100"), output));
+    assertTrue(predicateCache.test(node(2L, 0L, "['channel'] == 'WEB'"), output));
+    assertFalse(predicateCache.test(node(3L, 0L, "amount > 1000"), output));
+  }
+
+  @Test
+  void testRepeatedEvaluationAfterCompilation() {
+    TaskNode taskNode = node(4L, 0L, "amount > 100");
+    for (int i = 0; i < 10; i++) {
+      assertTrue(predicateCache.test(taskNode, Map.of("amount", 101)));
+      assertFalse(predicateCache.test(taskNode, Map.of("amount", 99)));
+    }
+  }
+
+  @Test
+  void testNewVersionIsParsedAgain() {
+    Map<String, Object> output = Map.of("amount", 250);
+
+    assertTrue(predicateCache.test(node(5L, 0L, "amount > 100"), output));
+    assertFalse(predicateCache.test(node(5L, 1L, "amount > 1000"), output));
+  }
+
+  private static TaskNode node(Long id, Long version, String expression) {
+    return TaskNode.builder()
+        .id(id)
+        .version(version)
+        .type(TaskType.CASE_WHEN)
+        .expressionDef(expression)
+        .requiredInputParameters(List.of())
+        .requiredOutputParameters(List.of())
+        .predecessors(Set.of())
+        .build();
+  }
+}
@@ -0,0 +1,118 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.ForkDynamic;
+import com.flowhub.business.entity.ForkDynamicChunk;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.repository.db.ForkDynamicChunkRepository;
+import com.flowhub.business.repository.db.ForkDynamicRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class ForkDynamicCoordinatorTest {
+
+  private final ForkDynamicRepository forkDynamicRepository = mock(ForkDynamicRepository.class);
+
+  private final ForkDynamicChunkRepository forkDynamicChunkRepository =
+      mock(ForkDynamicChunkRepository.class);
+
+  private final List<ForkDynamicChunk> storedChunks = new ArrayList<>();
+
+  private ForkDynamic fork;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(forkDynamicRepository.save(any()))
+        .thenAnswer(
+            invocation -> {
+              fork = invocation.getArgument(0);
+              return fork;
+            });
+    when(forkDynamicRepository.findByDeletedFalseAndForkTaskId(anyLong()))
+        .thenAnswer(invocation -> Optional.ofNullable(fork));
+    when(forkDynamicChunkRepository.saveAll(any()))
+        .thenAnswer(
+            invocation -> {
+              storedChunks.addAll((List<ForkDynamicChunk>) invocation.getArgument(0));
+              return invocation.getArgument(0);
+            });
+    when(forkDynamicChunkRepository.findByForkTaskIdAndChunkNoBetweenOrderByChunkNo(
+            anyLong(), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation ->
+                storedChunks.stream()
+                    .filter(chunk -> chunk.getChunkNo() >= (Integer) invocation.getArgument(1))
+                    .filter(chunk -> chunk.getChunkNo() <= (Integer) invocation.getArgument(2))
+                    .toList());
+  }
+
+  @Test
+  void testChildrenAreReleasedWithinTheWindow() {
+    ForkDynamicCoordinator coordinator =
+        new ForkDynamicCoordinator(forkDynamicRepository, forkDynamicChunkRepository, 100, 200);
+
+    ForkDynamicRelease first = coordinator.start(forkTask(), items(450));
+    assertEquals(200, first.getItems().size());
+    assertEquals(0, first.getFromIndex());
+    assertEquals(
+        List.of(2, 3, 4), storedChunks.stream().map(ForkDynamicChunk::getChunkNo).toList());
+
+    ForkDynamicRelease notEnough = coordinator.finish(1L, 50, 0).orElseThrow();
+    assertTrue(notEnough.getItems().isEmpty());
+
+    ForkDynamicRelease second = coordinator.finish(1L, 150, 1).orElseThrow();
+    assertEquals(200, second.getFromIndex());
+    assertEquals(200, second.getItems().get(0));
+    assertEquals(200, second.getItems().size());
+    assertFalse(second.isDone());
+
+    ForkDynamicRelease last = coordinator.finish(1L, 200, 0).orElseThrow();
+    assertEquals(400, last.getFromIndex());
+    assertEquals(50, last.getItems().size());
+
+    ForkDynamicRelease done = coordinator.finish(1L, 50, 0).orElseThrow();
+    assertTrue(done.isDone());
+    assertEquals(450, done.getTotal());
+    assertEquals(1, done.getFailed());
+  }
+
+  @Test
+  void testEmptyForkIsDoneImmediately() {
+    ForkDynamicCoordinator coordinator =
+        new ForkDynamicCoordinator(forkDynamicRepository, forkDynamicChunkRepository, 100, 200);
+
+    ForkDynamicRelease release = coordinator.start(forkTask(), List.of());
+
+    assertTrue(release.isDone());
+    assertTrue(release.getItems().isEmpty());
+    assertTrue(storedChunks.isEmpty());
+  }
+
+  private static Task forkTask() {
+    Task task = new Task();
+    task.setId(1L);
+    task.setWorkflowId(10L);
+    return task;
+  }
+
+  private static List<Integer> items(int size) {
+    return IntStream.range(0, size).boxed().toList();
+  }
+}
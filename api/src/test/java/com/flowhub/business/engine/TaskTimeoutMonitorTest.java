@@ -0,0 +1,110 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.service.DeciderService;
+import com.flowhub.business.store.InMemoryExecutionStore;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class TaskTimeoutMonitorTest {
+
+  private final InMemoryExecutionStore executionStore = new InMemoryExecutionStore();
+
+  private final DeciderService deciderService = mock(DeciderService.class);
+
+  private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+  private final TaskTimeoutMonitor monitor =
+      new TaskTimeoutMonitor(
+          executionStore,
+          deciderService,
+          transactionTemplate,
+          "flowhub",
+          Duration.ofMillis(10),
+          64,
+          Duration.ofSeconds(60),
+          Duration.ofSeconds(30),
+          10);
+
+  @BeforeEach
+  void setUp() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
+  @Test
+  void testClaimedDeadlinesFireOnce() {
+    long now = System.currentTimeMillis();
+    Task due = task(now + 50);
+    task(now + 120_000);
+    monitor.start();
+    try {
+      monitor.claim();
+      // the lease taken by the first claim keeps the deadline off the second one
+      monitor.claim();
+
+      verify(deciderService, timeout(2_000)).timeOutTasks(List.of(due.getId()));
+      verify(deciderService, after(200).times(1)).timeOutTasks(any());
+    } finally {
+      monitor.stop();
+    }
+  }
+
+  @Test
+  void testHeartbeatedTaskTimesOutAtItsNewDeadline() {
+    long now = System.currentTimeMillis();
+    Task task = task(now + 50);
+    monitor.start();
+    try {
+      monitor.claim();
+      executionStore.heartbeat(List.of(task.getId()), now);
+      // the heartbeat freed the lease, the claim schedules the deadline it moved to
+      monitor.claim();
+
+      verify(deciderService, after(500).never()).timeOutTasks(any());
+      verify(deciderService, timeout(2_000)).timeOutTasks(List.of(task.getId()));
+    } finally {
+      monitor.stop();
+    }
+  }
+
+  private Task task(long deadline) {
+    Workflow workflow =
+        Workflow.builder()
+            .workflowStatus(WorkflowStatus.RUNNING)
+            .pendingTasks(1)
+            .finishedTasks(0)
+            .build();
+    executionStore.createWorkflow(workflow);
+    Task task =
+        Task.builder()
+            .workflowId(workflow.getId())
+            .taskDefId(1L)
+            .taskStatus(TaskStatus.IN_PROGRESS)
+            .deadline(deadline)
+            .responseTimeout(1_000L)
+            .build();
+    executionStore.createTasks(List.of(task));
+    return task;
+  }
+}
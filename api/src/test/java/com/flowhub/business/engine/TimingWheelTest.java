@@ -0,0 +1,50 @@
+package com.flowhub.business.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class TimingWheelTest {
+
+  @Test
+  void testFiresEachValueAtItsTick() {
+    TimingWheel<String> wheel = new TimingWheel<>(1, 8, 0);
+    assertTrue(wheel.schedule(5, "near"));
+    assertTrue(wheel.schedule(70, "overflow"));
+    assertTrue(wheel.schedule(1_000, "far"));
+    List<String> expired = new ArrayList<>();
+
+    wheel.advance(4, expired::add);
+    assertTrue(expired.isEmpty());
+    wheel.advance(5, expired::add);
+    assertEquals(List.of("near"), expired);
+    wheel.advance(69, expired::add);
+    assertEquals(List.of("near"), expired);
+    wheel.advance(70, expired::add);
+    assertEquals(List.of("near", "overflow"), expired);
+    wheel.advance(999, expired::add);
+    assertEquals(2, expired.size());
+    assertEquals(1, wheel.size());
+    wheel.advance(1_000, expired::add);
+    assertEquals(List.of("near", "overflow", "far"), expired);
+    assertEquals(0, wheel.size());
+    assertEquals(Long.MAX_VALUE, wheel.nextExpiration());
+  }
+
+  @Test
+  void testRejectsValuesAlreadyDue() {
+    TimingWheel<String> wheel = new TimingWheel<>(10, 8, 100);
+
+    assertFalse(wheel.schedule(105, "current tick"));
+    assertTrue(wheel.schedule(110, "next tick"));
+    assertEquals(110, wheel.nextExpiration());
+  }
+}
@@ -0,0 +1,144 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.base.event.MessageData;
+import com.flowhub.business.dto.message.WorkflowMessage;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.event.OutboxPublisher;
+import com.flowhub.business.payload.FileSystemPayloadStore;
+import com.flowhub.business.payload.PayloadExternalizer;
+import com.flowhub.business.store.InMemoryExecutionStore;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class WaitTimerTest {
+
+  private static final Long WORKFLOW_DEF_ID = 100L;
+
+  private static final Long TASK_DEF_ID = 1L;
+
+  @TempDir
+  Path directory;
+
+  private final InMemoryExecutionStore executionStore = new InMemoryExecutionStore();
+
+  private final WorkflowGraphRegistry workflowGraphRegistry = mock(WorkflowGraphRegistry.class);
+
+  private final OutboxPublisher outboxPublisher = mock(OutboxPublisher.class);
+
+  private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testFiredWaitIsSentWithResolvedInput() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    doAnswer(
+            invocation -> {
+              invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+    WorkflowGraph graph = mock(WorkflowGraph.class);
+    when(graph.getNode(TASK_DEF_ID))
+        .thenReturn(
+            TaskNode.builder()
+                .id(TASK_DEF_ID)
+                .workflowDefId(WORKFLOW_DEF_ID)
+                .workflowDefName("order")
+                .taskDefName("wait")
+                .sink("flowhub.task.wait")
+                .build());
+    when(workflowGraphRegistry.get(WORKFLOW_DEF_ID)).thenReturn(Optional.of(graph));
+    PayloadExternalizer payloadExternalizer =
+        new PayloadExternalizer(new FileSystemPayloadStore(directory.toString()), true, 256, true);
+    Map<String, Object> input = Map.of("document", "x".repeat(1024));
+    Workflow workflow = this.workflow();
+    // inputs reference the blobs of the workflow or of the tasks they were copied from
+    Map<String, Object> externalized = payloadExternalizer.externalize(workflow.getId(), input);
+    assertTrue(PayloadExternalizer.isReference(externalized.get("document")));
+    Task task = this.task(workflow, System.currentTimeMillis() + 50, externalized);
+    WaitTimer waitTimer =
+        new WaitTimer(
+            executionStore,
+            workflowGraphRegistry,
+            outboxPublisher,
+            payloadExternalizer,
+            transactionTemplate,
+            "flowhub",
+            Duration.ofMillis(1),
+            64,
+            Duration.ofSeconds(60),
+            Duration.ofSeconds(30),
+            10);
+    waitTimer.start();
+    try {
+      waitTimer.claim();
+
+      ArgumentCaptor<MessageData<WorkflowMessage>> message =
+          ArgumentCaptor.forClass(MessageData.class);
+      verify(outboxPublisher, timeout(2_000))
+          .toOutboxMessage(eq("flowhub.task.wait"), anyString(), message.capture());
+      assertEquals(task.getId(), message.getValue().getContent().getTaskId());
+      assertEquals(input, message.getValue().getContent().getInputParameters());
+    } finally {
+      waitTimer.stop();
+    }
+  }
+
+  private Workflow workflow() {
+    Workflow workflow =
+        Workflow.builder()
+            .workflowStatus(WorkflowStatus.RUNNING)
+            .pendingTasks(1)
+            .finishedTasks(0)
+            .build();
+    executionStore.createWorkflow(workflow);
+    return workflow;
+  }
+
+  private Task task(Workflow workflow, long waiting, Map<String, Object> inputParameters) {
+    Task task =
+        Task.builder()
+            .workflowId(workflow.getId())
+            .workflowDefId(WORKFLOW_DEF_ID)
+            .taskDefId(TASK_DEF_ID)
+            .correlationId("order-1024")
+            .taskStatus(TaskStatus.IN_PROGRESS)
+            .waiting(waiting)
+            .inputParameters(inputParameters)
+            .build();
+    executionStore.createTasks(List.of(task));
+    return task;
+  }
+}
@@ -0,0 +1,115 @@
+package com.flowhub.business.engine;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+import com.flowhub.business.entity.WorkflowDef;
+import com.flowhub.business.repository.db.TaskDefEdgeRepository;
+import com.flowhub.business.repository.db.TaskDefRepository;
+import com.flowhub.business.repository.db.WorkflowDefRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class WorkflowGraphRegistryTest {
+
+  private static final Long WORKFLOW_DEF_ID = 100L;
+
+  private final WorkflowDefRepository workflowDefRepository = mock(WorkflowDefRepository.class);
+
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+  private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+
+  private final WorkflowGraphRegistry registry =
+      new WorkflowGraphRegistry(
+          workflowDefRepository,
+          mock(TaskDefRepository.class),
+          mock(TaskDefEdgeRepository.class),
+          jdbcTemplate,
+          entityManagerFactory,
+          Duration.ZERO);
+
+  @BeforeEach
+  void setUp() {
+    when(entityManagerFactory.getCache()).thenReturn(mock(Cache.class));
+    SessionFactory sessionFactory = mock(SessionFactory.class);
+    when(sessionFactory.getCache()).thenReturn(mock(org.hibernate.Cache.class));
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+  }
+
+  @Test
+  void testGraphChangedOnAnotherInstanceIsRebuilt() {
+    when(workflowDefRepository.findByDeletedFalseAndId(WORKFLOW_DEF_ID))
+        .thenReturn(Optional.of(workflowDef(0L)), Optional.of(workflowDef(1L)));
+    assertEquals(0L, registry.get(WORKFLOW_DEF_ID).orElseThrow().getVersion());
+    versions(0L);
+
+    assertEquals(0L, registry.get(WORKFLOW_DEF_ID).orElseThrow().getVersion());
+    versions(1L);
+
+    assertEquals(1L, registry.getByName("order").orElseThrow().getVersion());
+    verify(entityManagerFactory.getCache(), times(1)).evict(WorkflowDef.class, WORKFLOW_DEF_ID);
+  }
+
+  @Test
+  void testGraphDeletedOnAnotherInstanceIsEvicted() {
+    when(workflowDefRepository.findByDeletedFalseAndId(WORKFLOW_DEF_ID))
+        .thenReturn(Optional.of(workflowDef(0L)), Optional.empty());
+    registry.get(WORKFLOW_DEF_ID);
+    versions();
+
+    assertTrue(registry.get(WORKFLOW_DEF_ID).isEmpty());
+    assertTrue(registry.get(WORKFLOW_DEF_ID).isEmpty());
+  }
+
+  @Test
+  void testRefreshInsideATransactionWaitsForCommit() {
+    when(workflowDefRepository.findByDeletedFalseAndId(WORKFLOW_DEF_ID))
+        .thenReturn(Optional.of(workflowDef(0L)));
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      registry.refresh(WORKFLOW_DEF_ID);
+
+      verify(workflowDefRepository, never()).findByDeletedFalseAndId(WORKFLOW_DEF_ID);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      verify(workflowDefRepository).findByDeletedFalseAndId(WORKFLOW_DEF_ID);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private void versions(Long... versions) {
+    when(jdbcTemplate.queryForList(
+            eq(WorkflowGraphRegistry.VERSION_QUERY), eq(Long.class), eq(WORKFLOW_DEF_ID)))
+        .thenReturn(List.of(versions));
+  }
+
+  private static WorkflowDef workflowDef(Long version) {
+    WorkflowDef workflowDef = new WorkflowDef();
+    workflowDef.setId(WORKFLOW_DEF_ID);
+    workflowDef.setVersion(version);
+    workflowDef.setWorkflowDefName("order");
+    return workflowDef;
+  }
+}
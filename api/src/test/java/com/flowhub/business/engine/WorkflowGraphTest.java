@@ -0,0 +1,79 @@
+package com.flowhub.business.engine;
+
+import com.flowhub.business.entity.TaskDef;
+import com.flowhub.business.entity.TaskDefEdge;
+import com.flowhub.business.entity.WorkflowDef;
+import com.flowhub.business.enums.TaskType;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class WorkflowGraphTest {
+
+  @Test
+  void testCompileResolvesSuccessorsStartAndSinkNodes() {
+    WorkflowGraph graph =
+        WorkflowGraph.compile(
+            workflowDef(),
+            List.of(
+                taskDef(1L, TaskType.SWITCH),
+                taskDef(2L, TaskType.BROADCAST),
+                taskDef(3L, TaskType.BROADCAST),
+                taskDef(4L, TaskType.JOIN)),
+            List.of(edge(1L, 2L), edge(1L, 3L), edge(2L, 4L), edge(3L, 4L)));
+
+    assertEquals(List.of(1L), graph.getStartNodes().stream().map(TaskNode::getId).toList());
+    assertEquals(List.of(4L), graph.getSinkNodes().stream().map(TaskNode::getId).toList());
+    assertEquals(
+        List.of(2L, 3L), graph.getSuccessors(1L).stream().map(TaskNode::getId).toList());
+    assertEquals(Set.of(2L, 3L), graph.getJoinPredecessors(4L));
+    assertTrue(graph.getSuccessors(4L).isEmpty());
+  }
+
+  @Test
+  void testCompileDoesNotMatchIdsThatAreSubstringsOfOthers() {
+    WorkflowGraph graph =
+        WorkflowGraph.compile(
+            workflowDef(),
+            List.of(
+                taskDef(1L, TaskType.SWITCH),
+                taskDef(11L, TaskType.SWITCH),
+                taskDef(2L, TaskType.SWITCH)),
+            List.of(edge(11L, 2L)));
+
+    assertTrue(graph.getSuccessors(1L).isEmpty());
+    assertEquals(List.of(2L), graph.getSuccessors(11L).stream().map(TaskNode::getId).toList());
+  }
+
+  private static WorkflowDef workflowDef() {
+    WorkflowDef workflowDef = new WorkflowDef();
+    workflowDef.setId(100L);
+    workflowDef.setVersion(0L);
+    workflowDef.setWorkflowDefName("order");
+    return workflowDef;
+  }
+
+  private static TaskDef taskDef(Long id, TaskType type) {
+    TaskDef taskDef = new TaskDef();
+    taskDef.setId(id);
+    taskDef.setWorkflowDefId(100L);
+    taskDef.setType(type);
+    taskDef.setTaskDefName("task-" + id);
+    return taskDef;
+  }
+
+  private static TaskDefEdge edge(Long fromTaskDefId, Long toTaskDefId) {
+    return TaskDefEdge.builder()
+        .workflowDefId(100L)
+        .fromTaskDefId(fromTaskDefId)
+        .toTaskDefId(toTaskDefId)
+        .build();
+  }
+}
@@ -0,0 +1,54 @@
+package com.flowhub.business.job;
+
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.job.ExecutionPartitionMaintainer.PartitionBound;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class ExecutionPartitionMaintainerTest {
+
+  @Test
+  void testPartitionBoundsAreParsed() {
+    PartitionBound legacy =
+        PartitionBound.parse("tbl_task_legacy", "FOR VALUES FROM (MINVALUE) TO ('4194304')");
+    assertEquals(Long.MIN_VALUE, legacy.from());
+    assertEquals(4194304L, legacy.to());
+
+    PartitionBound daily =
+        PartitionBound.parse("tbl_task_p20261017", "FOR VALUES FROM ('4194304') TO (8388608)");
+    assertEquals(4194304L, daily.from());
+    assertEquals(8388608L, daily.to());
+
+    assertNull(PartitionBound.parse("tbl_task_default", "DEFAULT"));
+  }
+
+  @Test
+  void testIdBoundsFollowTime() {
+    Snowflake snowflake = Snowflake.getInstance();
+    Instant start = Instant.parse("2026-10-17T00:00:00Z");
+    long bound = snowflake.minIdAt(start);
+
+    assertEquals(start.toEpochMilli(), snowflake.parse(bound)[0]);
+    assertTrue(bound <= snowflake.nextId());
+    assertEquals(
+        "tbl_task_p20261017",
+        ExecutionPartitionMaintainer.partitionName(ExecutionPartitionMaintainer.TASK_TABLE, start));
+  }
+
+  @Test
+  void testLegacyIndexNamesFitAnIdentifier() {
+    assertEquals(
+        "idx_task_deadline_legacy", ExecutionPartitionMaintainer.legacyName("idx_task_deadline"));
+    String legacy = ExecutionPartitionMaintainer.legacyName("i".repeat(63));
+    assertEquals(63, legacy.length());
+    assertTrue(legacy.endsWith("_legacy"));
+  }
+}
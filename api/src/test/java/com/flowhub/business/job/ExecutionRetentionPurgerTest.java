@@ -0,0 +1,43 @@
+package com.flowhub.business.job;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class ExecutionRetentionPurgerTest {
+
+  private static final Duration MAX_STATEMENT_TIME = Duration.ofMillis(500);
+
+  @Test
+  void testBatchShrinksAfterSlowStatement() {
+    assertEquals(
+        500,
+        ExecutionRetentionPurger.nextBatchSize(
+            1000, Duration.ofMillis(800), MAX_STATEMENT_TIME, 1000));
+    assertEquals(
+        ExecutionRetentionPurger.MIN_BATCH_SIZE,
+        ExecutionRetentionPurger.nextBatchSize(
+            15, Duration.ofSeconds(5), MAX_STATEMENT_TIME, 1000));
+  }
+
+  @Test
+  void testBatchGrowsBackAfterFastStatement() {
+    assertEquals(
+        400,
+        ExecutionRetentionPurger.nextBatchSize(
+            200, Duration.ofMillis(50), MAX_STATEMENT_TIME, 1000));
+    assertEquals(
+        1000,
+        ExecutionRetentionPurger.nextBatchSize(
+            800, Duration.ofMillis(50), MAX_STATEMENT_TIME, 1000));
+    assertEquals(
+        300,
+        ExecutionRetentionPurger.nextBatchSize(
+            300, Duration.ofMillis(400), MAX_STATEMENT_TIME, 1000));
+  }
+}
@@ -0,0 +1,125 @@
+package com.flowhub.business.payload;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class PayloadExternalizerTest {
+
+  private static final long OWNER = 42L;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testLargeValuesAreReplacedByReferencesAndResolvedBack() {
+    PayloadExternalizer externalizer = externalizer(true);
+    String document = "x".repeat(1024);
+    Map<String, Object> parameters =
+        Map.of("document", document, "items", List.of(document, document), "amount", 10);
+
+    Map<String, Object> externalized = externalizer.externalize(OWNER, parameters);
+
+    assertTrue(PayloadExternalizer.isReference(externalized.get("document")));
+    assertTrue(PayloadExternalizer.isReference(externalized.get("items")));
+    assertEquals(10, externalized.get("amount"));
+    assertEquals(parameters, externalizer.resolve(externalized));
+  }
+
+  @Test
+  void testSmallParametersAreReturnedUnchanged() {
+    PayloadExternalizer externalizer = externalizer(true);
+    Map<String, Object> parameters = Map.of("name", "order", "items", List.of(1, 2, 3));
+
+    assertSame(parameters, externalizer.externalize(OWNER, parameters));
+    assertSame(parameters, externalizer.resolve(parameters));
+  }
+
+  @Test
+  void testSameContentIsStoredOnce() throws Exception {
+    PayloadExternalizer externalizer = externalizer(true);
+    String document = "y".repeat(1024);
+
+    Map<String, Object> first = externalizer.externalize(OWNER, Map.of("a", document));
+    Map<String, Object> second = externalizer.externalize(OWNER, Map.of("b", document));
+
+    assertEquals(first.get("a"), second.get("b"));
+    try (Stream<Path> files = Files.walk(directory)) {
+      assertEquals(1, files.filter(Files::isRegularFile).count());
+    }
+  }
+
+  @Test
+  void testPreparedPayloadsAreWrittenOnlyWhenStored() throws Exception {
+    PayloadExternalizer externalizer = externalizer(true);
+    Map<String, Object> parameters = Map.of("a", "v".repeat(1024));
+
+    PayloadExternalizer.Externalized prepared = externalizer.prepare(OWNER, parameters);
+
+    assertTrue(PayloadExternalizer.isReference(prepared.parameters().get("a")));
+    try (Stream<Path> files = Files.walk(directory)) {
+      assertEquals(0, files.filter(Files::isRegularFile).count());
+    }
+    prepared.store();
+    assertEquals(parameters, externalizer.resolve(prepared.parameters()));
+  }
+
+  @Test
+  void testDispatchKeepsReferencesWhenWorkersShareTheStore() {
+    PayloadExternalizer externalizer = externalizer(false);
+    Map<String, Object> externalized =
+        externalizer.externalize(OWNER, Map.of("a", "z".repeat(1024)));
+
+    assertSame(externalized, externalizer.forDispatch(externalized));
+  }
+
+  @Test
+  void testReferenceOutsideTheStoreIsRejected() {
+    PayloadExternalizer externalizer = externalizer(true);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            externalizer.resolve(
+                Map.of("a", Map.of(PayloadExternalizer.PAYLOAD_REF, "../../etc/passwd"))));
+  }
+
+  @Test
+  void testPayloadsAreDeletedWithTheirOwner() {
+    PayloadExternalizer externalizer = externalizer(true);
+    String document = "w".repeat(1024);
+    Map<String, Object> owned = externalizer.externalize(OWNER, Map.of("a", document));
+    Map<String, Object> other = externalizer.externalize(OWNER + 1, Map.of("a", document));
+
+    new FileSystemPayloadStore(directory.toString()).delete(List.of(OWNER));
+
+    assertThrows(UncheckedIOException.class, () -> externalizer.resolve(owned));
+    assertEquals(document, externalizer.resolve(other).get("a"));
+  }
+
+  @Test
+  void testEnablingWithoutAStoreDirectoryFails() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new PayloadExternalizer(new FileSystemPayloadStore(""), true, 512, true));
+  }
+
+  private PayloadExternalizer externalizer(boolean resolveOnDispatch) {
+    return new PayloadExternalizer(
+        new FileSystemPayloadStore(directory.toString()), true, 512, resolveOnDispatch);
+  }
+}
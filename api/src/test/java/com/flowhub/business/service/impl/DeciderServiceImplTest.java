@@ -0,0 +1,237 @@
+package com.flowhub.business.service.impl;
+
+import com.flowhub.business.dto.message.WorkflowMessage;
+import com.flowhub.business.engine.CaseWhenPredicateCache;
+import com.flowhub.business.engine.ForkDynamicCoordinator;
+import com.flowhub.business.engine.ForkDynamicRelease;
+import com.flowhub.business.engine.TaskNode;
+import com.flowhub.business.engine.TaskTimeoutMonitor;
+import com.flowhub.business.engine.WaitTimer;
+import com.flowhub.business.engine.WorkflowGraph;
+import com.flowhub.business.engine.WorkflowGraphRegistry;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.TaskType;
+import com.flowhub.business.enums.TimeoutPolicy;
+import com.flowhub.business.enums.WorkflowStatus;
+import com.flowhub.business.event.OutboxPublisher;
+import com.flowhub.business.payload.FileSystemPayloadStore;
+import com.flowhub.business.payload.PayloadExternalizer;
+import com.flowhub.business.store.InMemoryExecutionStore;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class DeciderServiceImplTest {
+
+  private static final long WORKFLOW_DEF_ID = 1L;
+
+  private static final long TASK_DEF_ID = 2L;
+
+  private final InMemoryExecutionStore executionStore = spy(new InMemoryExecutionStore());
+
+  private final WorkflowGraphRegistry workflowGraphRegistry = mock(WorkflowGraphRegistry.class);
+
+  private final WorkflowGraph workflowGraph = mock(WorkflowGraph.class);
+
+  private final OutboxPublisher outboxPublisher = mock(OutboxPublisher.class);
+
+  private final ForkDynamicCoordinator forkDynamicCoordinator = mock(ForkDynamicCoordinator.class);
+
+  private final DeciderServiceImpl deciderService =
+      new DeciderServiceImpl(
+          executionStore,
+          workflowGraphRegistry,
+          mock(CaseWhenPredicateCache.class),
+          outboxPublisher,
+          new PayloadExternalizer(new FileSystemPayloadStore(""), false, 16384, false),
+          forkDynamicCoordinator,
+          mock(WaitTimer.class),
+          mock(TaskTimeoutMonitor.class));
+
+  @Test
+  void testTimedOutTaskIsRetriedThenFailsItsWorkflow() throws InterruptedException {
+    register(TimeoutPolicy.RETRY, 1L);
+    Workflow workflow = workflow();
+    Task task = dispatched(workflow, null);
+
+    deciderService.timeOutTasks(List.of(task.getId()));
+
+    List<Task> retried = inProgress();
+    assertEquals(1, retried.size());
+    assertNotEquals(task.getId(), retried.get(0).getId());
+    assertEquals(1, retried.get(0).getTimeoutCount());
+    assertEquals(WorkflowStatus.RUNNING, workflow.getWorkflowStatus());
+    assertEquals(1, workflow.getPendingTasks());
+    verify(outboxPublisher).convertAndSendAll(any());
+
+    // the retry is due one millisecond after it was scheduled
+    Thread.sleep(5);
+    deciderService.timeOutTasks(List.of(retried.get(0).getId()));
+
+    assertEquals(WorkflowStatus.FAILED, workflow.getWorkflowStatus());
+    verify(outboxPublisher, times(1)).convertAndSendAll(any());
+  }
+
+  @Test
+  void testTimedOutForkChildCountsAsFailedChild() {
+    register(TimeoutPolicy.FAIL, 60_000L);
+    Workflow workflow = workflow();
+    Task child = dispatched(workflow, 7L);
+
+    deciderService.timeOutTasks(List.of(child.getId()));
+
+    verify(forkDynamicCoordinator).finish(7L, 1, 1);
+    assertEquals(WorkflowStatus.RUNNING, workflow.getWorkflowStatus());
+    assertTrue(inProgress().isEmpty());
+  }
+
+  @Test
+  void testHeartbeatMovesTheDeadline() {
+    register(TimeoutPolicy.FAIL, 60_000L);
+    Workflow workflow = workflow();
+    Task task = dispatched(workflow, null);
+
+    deciderService.heartbeat(List.of(WorkflowMessage.builder().taskId(task.getId()).build()));
+    deciderService.timeOutTasks(List.of(task.getId()));
+
+    assertEquals(WorkflowStatus.RUNNING, workflow.getWorkflowStatus());
+    assertTrue(executionStore.findInProgressTask(task.getId()).isPresent());
+    verify(outboxPublisher, never()).convertAndSendAll(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testForkChildrenAndOutputDoNotCopyTheForkedList() {
+    TaskNode forkNode =
+        TaskNode.builder()
+            .id(TASK_DEF_ID)
+            .workflowDefId(WORKFLOW_DEF_ID)
+            .workflowDefName("order")
+            .taskDefName("ship")
+            .type(TaskType.FORK_DYNAMIC)
+            .sink("ship")
+            .expressionDef("parcels")
+            .build();
+    when(workflowGraph.getNode(TASK_DEF_ID)).thenReturn(forkNode);
+    when(workflowGraph.getInputTemplate()).thenReturn(Map.of());
+    when(workflowGraphRegistry.get(WORKFLOW_DEF_ID)).thenReturn(Optional.of(workflowGraph));
+    Workflow workflow = workflow();
+    Task fork =
+        dispatched(workflow, null, Map.of("parcels", List.of("a", "b", "c"), "orderId", 1));
+    Task first = dispatched(workflow, fork.getId());
+    Task second = dispatched(workflow, fork.getId());
+    when(forkDynamicCoordinator.finish(fork.getId(), 1, 0))
+        .thenReturn(
+            Optional.of(new ForkDynamicRelease(List.of("c"), 2, false, 3, 0)),
+            Optional.of(new ForkDynamicRelease(List.of(), 0, true, 3, 0)));
+
+    deciderService.finishTask(completed(first));
+    deciderService.finishTask(completed(second));
+
+    ArgumentCaptor<List<Task>> children = ArgumentCaptor.forClass(List.class);
+    verify(executionStore, times(4)).createTasks(children.capture());
+    assertEquals(
+        Map.of(
+            "orderId",
+            1,
+            ForkDynamicCoordinator.FORK_ITEM,
+            "c",
+            ForkDynamicCoordinator.FORK_ITEM_INDEX,
+            2),
+        children.getValue().get(0).getInputParameters());
+    ArgumentCaptor<Task> finishedFork = ArgumentCaptor.forClass(Task.class);
+    verify(executionStore).finishEngineTask(finishedFork.capture());
+    assertEquals(
+        Map.of(
+            "orderId",
+            1,
+            ForkDynamicCoordinator.FORKED_TASKS,
+            3,
+            ForkDynamicCoordinator.FAILED_TASKS,
+            0),
+        finishedFork.getValue().getOutputParameters());
+  }
+
+  private void register(TimeoutPolicy timeoutPolicy, Long responseTimeout) {
+    TaskNode taskNode =
+        TaskNode.builder()
+            .id(TASK_DEF_ID)
+            .workflowDefId(WORKFLOW_DEF_ID)
+            .workflowDefName("order")
+            .taskDefName("charge")
+            .type(TaskType.BROADCAST)
+            .sink("charge")
+            .responseTimeout(responseTimeout)
+            .timeoutPolicy(timeoutPolicy)
+            .timeoutRetryCount(1)
+            .build();
+    when(workflowGraph.getNode(TASK_DEF_ID)).thenReturn(taskNode);
+    when(workflowGraphRegistry.get(WORKFLOW_DEF_ID)).thenReturn(Optional.of(workflowGraph));
+  }
+
+  private Workflow workflow() {
+    Workflow workflow =
+        Workflow.builder()
+            .workflowStatus(WorkflowStatus.RUNNING)
+            .workflowDefId(WORKFLOW_DEF_ID)
+            .pendingTasks(1)
+            .finishedTasks(0)
+            .build();
+    executionStore.createWorkflow(workflow);
+    return workflow;
+  }
+
+  /** Stores a task dispatched to a worker whose deadline just passed. */
+  private Task dispatched(Workflow workflow, Long parentTaskId) {
+    return dispatched(workflow, parentTaskId, null);
+  }
+
+  private Task dispatched(
+      Workflow workflow, Long parentTaskId, Map<String, Object> inputParameters) {
+    Task task =
+        Task.builder()
+            .workflowId(workflow.getId())
+            .workflowDefId(WORKFLOW_DEF_ID)
+            .taskDefId(TASK_DEF_ID)
+            .parentTaskId(parentTaskId)
+            .inputParameters(inputParameters)
+            .taskStatus(TaskStatus.IN_PROGRESS)
+            .deadline(System.currentTimeMillis() - 1)
+            .responseTimeout(60_000L)
+            .build();
+    executionStore.createTasks(List.of(task));
+    return task;
+  }
+
+  private static WorkflowMessage completed(Task task) {
+    return WorkflowMessage.builder()
+        .taskId(task.getId())
+        .taskStatus(TaskStatus.COMPLETED)
+        .workerName("worker")
+        .build();
+  }
+
+  private List<Task> inProgress() {
+    long now = System.currentTimeMillis();
+    return executionStore.claimDueTimeouts(Long.MAX_VALUE, "test", now, now, 10);
+  }
+}
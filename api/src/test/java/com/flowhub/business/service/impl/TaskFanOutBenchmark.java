@@ -0,0 +1,199 @@
+package com.flowhub.business.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import com.flowhub.base.data.BaseEntity;
+import com.flowhub.base.event.MessageData;
+import com.flowhub.base.utils.Snowflake;
+import com.flowhub.business.dto.message.WorkflowMessage;
+import com.flowhub.business.entity.OutboxMessage;
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.event.OutboxPublisher;
+import com.flowhub.business.repository.db.JoinArrivalRepository;
+import com.flowhub.business.repository.db.OutboxMessageRepository;
+import com.flowhub.business.repository.db.TaskRepository;
+import com.flowhub.business.repository.db.WorkflowRepository;
+import com.flowhub.business.store.ExecutionStore;
+import com.flowhub.business.store.PostgresExecutionStore;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures the persistence half of a decider fan-out: {@link ExecutionStore#createTasks} of the
+ * Postgres store followed by {@link OutboxPublisher#convertAndSendAll} for the dispatch messages,
+ * in one transaction, with Hibernate JDBC batching off ({@code 1}) and at the configured size
+ * ({@code 500}). An H2 TCP server on localhost stands in for PostgreSQL, so every statement pays a
+ * loopback round-trip; against a remote database the gap only grows with network latency.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskFanOutBenchmark {
+
+  private static final String SINK = "flowhub.task.payment";
+
+  @Param({"10", "100", "1000"})
+  private int fanOut;
+
+  @Param({"1", "500"})
+  private int jdbcBatchSize;
+
+  private Server server;
+
+  private HikariDataSource dataSource;
+
+  private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private TransactionTemplate transactionTemplate;
+
+  private ExecutionStore executionStore;
+
+  private OutboxPublisher outboxPublisher;
+
+  private Map<String, Object> inputParameters;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TaskFanOutBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws SQLException {
+    Snowflake.getInstance(1);
+    // Hibernate logs every statement at the default DEBUG level, which would dominate the score
+    Configurator.setRootLevel(org.apache.logging.log4j.Level.WARN);
+    server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl(
+        String.format("jdbc:h2:tcp://localhost:%d/mem:fanout;DB_CLOSE_DELAY=-1", server.getPort()));
+    entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+    entityManagerFactoryBean.setDataSource(dataSource);
+    entityManagerFactoryBean.setPackagesToScan(Task.class.getPackageName());
+    entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    entityManagerFactoryBean.setJpaPropertyMap(
+        Map.of(
+            "hibernate.hbm2ddl.auto", "create-drop",
+            "hibernate.jdbc.batch_size", jdbcBatchSize,
+            "hibernate.order_inserts", true));
+    entityManagerFactoryBean.afterPropertiesSet();
+    EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+    JpaRepositoryFactory repositories =
+        new JpaRepositoryFactory(
+            SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+    executionStore =
+        new PostgresExecutionStore(
+            repositories.getRepository(WorkflowRepository.class),
+            repositories.getRepository(TaskRepository.class),
+            repositories.getRepository(JoinArrivalRepository.class),
+            false);
+    outboxPublisher =
+        new OutboxPublisher(repositories.getRepository(OutboxMessageRepository.class));
+    inputParameters = Map.of("orderId", 1024L, "amount", 250, "channel", "WEB");
+  }
+
+  @TearDown(Level.Iteration)
+  public void truncate() {
+    jdbcTemplate.execute("truncate table tbl_task");
+    jdbcTemplate.execute("truncate table tbl_outbox_message");
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    entityManagerFactoryBean.destroy();
+    dataSource.close();
+    server.stop();
+  }
+
+  @Benchmark
+  public int createTasksAndPublish() {
+    return transactionTemplate.execute(
+        status -> {
+          LocalDateTime now = LocalDateTime.now();
+          List<Task> tasks = new ArrayList<>(fanOut);
+          for (int i = 0; i < fanOut; i++) {
+            tasks.add(
+                Task.builder()
+                    .correlationId("order-1024")
+                    .workflowId(1L)
+                    .taskDefId((long) i)
+                    .taskDefName("task-" + i)
+                    .workflowDefId(1L)
+                    .workflowDefName("order")
+                    .taskStatus(TaskStatus.IN_PROGRESS)
+                    .inputParameters(inputParameters)
+                    .startedAt(now)
+                    .build());
+            audit(tasks.get(i), now);
+          }
+          executionStore.createTasks(tasks);
+          List<OutboxMessage> messages = new ArrayList<>(tasks.size());
+          for (Task task : tasks) {
+            messages.add(
+                outboxPublisher.toOutboxMessage(
+                    SINK,
+                    WorkflowMessage.partitionKey("order", task.getCorrelationId()),
+                    new MessageData<>(
+                        "order:" + task.getCorrelationId(),
+                        WorkflowMessage.builder()
+                            .taskId(task.getId())
+                            .taskDefName(task.getTaskDefName())
+                            .inputParameters(task.getInputParameters())
+                            .correlationId(task.getCorrelationId())
+                            .taskStatus(TaskStatus.IN_PROGRESS)
+                            .build())));
+            audit(messages.get(messages.size() - 1), now);
+          }
+          outboxPublisher.convertAndSendAll(messages);
+          return tasks.size() + messages.size();
+        });
+  }
+
+  /** Fills the columns Spring Data auditing fills in the application, it is not wired here. */
+  private static void audit(BaseEntity entity, LocalDateTime now) {
+    entity.setCreatedAt(now);
+    entity.setUpdatedAt(now);
+    entity.setCreatedBy("benchmark");
+    entity.setUpdatedBy("benchmark");
+  }
+}
@@ -0,0 +1,144 @@
+package com.flowhub.business.store;
+
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author haidv
+ * @version 1.0
+ */
+class InMemoryExecutionStoreTest {
+
+  private final InMemoryExecutionStore store = new InMemoryExecutionStore();
+
+  @Test
+  void testTaskFinishesOnce() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, null);
+    store.createTasks(List.of(task));
+
+    Optional<Task> finished =
+        store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", Map.of("a", 1));
+
+    assertTrue(finished.isPresent());
+    assertEquals(workflow.getId(), finished.get().getWorkflowId());
+    assertEquals(Map.of("a", 1), finished.get().getOutputParameters());
+    assertFalse(store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null).isPresent());
+    assertFalse(store.findInProgressTask(task.getId()).isPresent());
+  }
+
+  @Test
+  void testJoinCompletesOnLastDistinctMember() {
+    Long workflowId = workflow(2).getId();
+
+    Optional<JoinState> first = store.arriveJoin(workflowId, 9L, 2, 1L, Map.of("a", 1));
+    Optional<JoinState> duplicate = store.arriveJoin(workflowId, 9L, 2, 1L, null);
+    Optional<JoinState> last = store.arriveJoin(workflowId, 9L, 2, 2L, Map.of("b", 2));
+
+    assertFalse(first.orElseThrow().isComplete());
+    assertTrue(duplicate.isEmpty());
+    assertTrue(last.orElseThrow().isComplete());
+    assertEquals("{\"a\":1,\"b\":2}", last.get().getMergedOutput().replace(" ", ""));
+  }
+
+  @Test
+  void testWorkflowCompletesWhenNothingIsOutstanding() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+    assertEquals(1, claim("node").size());
+    store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null);
+    WorkflowProgressDelta delta = new WorkflowProgressDelta();
+    delta.add(0);
+
+    Map<Long, Integer> pendingTasks = store.progress(Map.of(workflow.getId(), delta));
+
+    assertEquals(Map.of(workflow.getId(), 0), pendingTasks);
+    assertEquals(WorkflowStatus.COMPLETED, workflow.getWorkflowStatus());
+    assertTrue(store.progress(Map.of(workflow.getId(), delta)).isEmpty());
+    assertTrue(claim("other").isEmpty());
+  }
+
+  @Test
+  void testWaitIsClaimedUntilItsLeaseExpires() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+    long now = System.currentTimeMillis();
+
+    assertEquals("a", claim("a").get(0).getLeaseOwner());
+    assertTrue(claim("b").isEmpty());
+    List<Task> expired = store.claimDueWaits(now + 1, "b", now + 60_001, now + 120_000, 10);
+    assertEquals("b", expired.get(0).getLeaseOwner());
+  }
+
+  @Test
+  void testWaitIsDispatchedOnce() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+
+    assertEquals(List.of(task.getId()), store.markWaitsDispatched(List.of(task.getId())));
+    assertTrue(store.markWaitsDispatched(List.of(task.getId())).isEmpty());
+    assertTrue(claim("node").isEmpty());
+  }
+
+  @Test
+  void testHeartbeatMovesDeadlineUntilTaskTimesOut() {
+    Workflow workflow = workflow(1);
+    long now = System.currentTimeMillis();
+    Task task = task(workflow, null);
+    task.setResponseTimeout(1_000L);
+    task.setDeadline(now);
+    store.createTasks(List.of(task));
+    List<Long> taskIds = List.of(task.getId());
+
+    assertEquals(1, store.claimDueTimeouts(now + 1, "a", now, now + 60_000, 10).size());
+    assertEquals(taskIds, store.heartbeat(taskIds, now));
+    assertTrue(store.timeOutTasks(taskIds, now).isEmpty());
+    List<Task> claimed = store.claimDueTimeouts(now + 1_001, "b", now, now + 60_000, 10);
+    assertEquals(now + 1_000, claimed.get(0).getDeadline());
+
+    List<Task> timedOut = store.timeOutTasks(taskIds, now + 1_000);
+
+    assertEquals(TaskStatus.TIMED_OUT, timedOut.get(0).getTaskStatus());
+    assertTrue(store.timeOutTasks(taskIds, now + 1_000).isEmpty());
+    assertTrue(store.heartbeat(taskIds, now + 1_000).isEmpty());
+    assertFalse(store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null).isPresent());
+  }
+
+  private List<Task> claim(String owner) {
+    long now = System.currentTimeMillis();
+    return store.claimDueWaits(now + 1, owner, now, now + 60_000, 10);
+  }
+
+  private Workflow workflow(int pendingTasks) {
+    Workflow workflow =
+        Workflow.builder()
+            .workflowStatus(WorkflowStatus.RUNNING)
+            .pendingTasks(pendingTasks)
+            .finishedTasks(0)
+            .build();
+    store.createWorkflow(workflow);
+    return workflow;
+  }
+
+  private static Task task(Workflow workflow, Long waiting) {
+    return Task.builder()
+        .workflowId(workflow.getId())
+        .taskDefId(1L)
+        .taskStatus(TaskStatus.IN_PROGRESS)
+        .waiting(waiting)
+        .build();
+  }
+}
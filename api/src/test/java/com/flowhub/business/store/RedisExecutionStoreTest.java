@@ -0,0 +1,227 @@
+package com.flowhub.business.store;
+
+import com.flowhub.business.entity.Task;
+import com.flowhub.business.entity.Workflow;
+import com.flowhub.business.enums.TaskStatus;
+import com.flowhub.business.enums.WorkflowStatus;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import redis.embedded.RedisServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the scripts of {@link RedisExecutionStore} against an embedded Redis.
+ *
+ * @author haidv
+ * @version 1.0
+ */
+class RedisExecutionStoreTest {
+
+  private static RedisServer redisServer;
+
+  private static LettuceConnectionFactory connectionFactory;
+
+  private RedisExecutionStore store;
+
+  @BeforeAll
+  static void startRedis() throws IOException {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    redisServer = new RedisServer(port);
+    redisServer.start();
+    connectionFactory =
+        new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+  }
+
+  @AfterAll
+  static void stopRedis() throws IOException {
+    connectionFactory.destroy();
+    redisServer.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    store =
+        new RedisExecutionStore(
+            new StringRedisTemplate(connectionFactory), "test:", Duration.ofDays(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      connection.serverCommands().flushDb();
+    }
+  }
+
+  @Test
+  void testTaskFinishesOnce() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, null);
+    store.createTasks(List.of(task));
+
+    Optional<Task> finished =
+        store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", Map.of("a", 1));
+
+    assertTrue(finished.isPresent());
+    assertEquals(workflow.getId(), finished.get().getWorkflowId());
+    assertEquals(Map.of("a", 1), finished.get().getOutputParameters());
+    assertFalse(store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null).isPresent());
+    assertFalse(store.findInProgressTask(task.getId()).isPresent());
+  }
+
+  @Test
+  void testJoinCompletesOnLastDistinctMember() {
+    Long workflowId = workflow(2).getId();
+
+    Optional<JoinState> first = store.arriveJoin(workflowId, 9L, 2, 1L, Map.of("a", 1));
+    Optional<JoinState> duplicate = store.arriveJoin(workflowId, 9L, 2, 1L, null);
+    Optional<JoinState> last = store.arriveJoin(workflowId, 9L, 2, 2L, Map.of("b", 2));
+
+    assertFalse(first.orElseThrow().isComplete());
+    assertTrue(duplicate.isEmpty());
+    assertTrue(last.orElseThrow().isComplete());
+    assertEquals("{\"a\":1,\"b\":2}", last.get().getMergedOutput().replace(" ", ""));
+  }
+
+  @Test
+  void testWorkflowCompletesWhenNothingIsOutstanding() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+    assertEquals(1, claim("node").size());
+    store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null);
+    WorkflowProgressDelta delta = new WorkflowProgressDelta();
+    delta.add(0);
+
+    Map<Long, Integer> pendingTasks = store.progress(Map.of(workflow.getId(), delta));
+
+    assertEquals(Map.of(workflow.getId(), 0), pendingTasks);
+    assertTrue(store.progress(Map.of(workflow.getId(), delta)).isEmpty());
+    assertTrue(claim("other").isEmpty());
+  }
+
+  @Test
+  void testWaitIsClaimedUntilItsLeaseExpires() throws InterruptedException {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+    long now = System.currentTimeMillis();
+
+    // leases expire with their key, on the clock of the server
+    List<Task> leased = store.claimDueWaits(now + 1, "a", now, now + 1_000, 10);
+    assertEquals("a", leased.get(0).getLeaseOwner());
+    assertTrue(claim("b").isEmpty());
+    Thread.sleep(1_100);
+    assertEquals("b", claim("b").get(0).getLeaseOwner());
+  }
+
+  @Test
+  void testWaitIsDispatchedOnce() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+
+    assertEquals(List.of(task.getId()), store.markWaitsDispatched(List.of(task.getId())));
+    assertTrue(store.markWaitsDispatched(List.of(task.getId())).isEmpty());
+    assertTrue(claim("node").isEmpty());
+  }
+
+  @Test
+  void testHeartbeatMovesDeadlineUntilTaskTimesOut() {
+    Workflow workflow = workflow(1);
+    long now = System.currentTimeMillis();
+    Task task = task(workflow, null);
+    task.setResponseTimeout(1_000L);
+    task.setDeadline(now);
+    store.createTasks(List.of(task));
+    List<Long> taskIds = List.of(task.getId());
+
+    assertEquals(1, store.claimDueTimeouts(now + 1, "a", now, now + 60_000, 10).size());
+    assertEquals(taskIds, store.heartbeat(taskIds, now));
+    assertTrue(store.timeOutTasks(taskIds, now).isEmpty());
+    List<Task> claimed = store.claimDueTimeouts(now + 1_001, "b", now, now + 60_000, 10);
+    assertEquals(now + 1_000, claimed.get(0).getDeadline());
+
+    List<Task> timedOut = store.timeOutTasks(taskIds, now + 1_000);
+
+    assertEquals(TaskStatus.TIMED_OUT, timedOut.get(0).getTaskStatus());
+    assertTrue(store.timeOutTasks(taskIds, now + 1_000).isEmpty());
+    assertTrue(store.heartbeat(taskIds, now + 1_000).isEmpty());
+    assertFalse(store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null).isPresent());
+  }
+
+  @Test
+  void testRolledBackWritesAreUndone() {
+    Workflow workflow = workflow(1);
+    Task task = task(workflow, System.currentTimeMillis() - 1);
+    store.createTasks(List.of(task));
+    WorkflowProgressDelta delta = new WorkflowProgressDelta();
+    delta.add(0);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      assertTrue(store.finishTask(task.getId(), TaskStatus.COMPLETED, "worker", null).isPresent());
+      assertTrue(store.arriveJoin(workflow.getId(), 9L, 2, 1L, Map.of("a", 1)).isPresent());
+      assertEquals(Map.of(workflow.getId(), 0), store.progress(Map.of(workflow.getId(), delta)));
+      for (TransactionSynchronization synchronization :
+          TransactionSynchronizationManager.getSynchronizations()) {
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+      }
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertTrue(store.findInProgressTask(task.getId()).isPresent());
+    assertEquals(1, claim("node").size());
+    Optional<JoinState> arrived = store.arriveJoin(workflow.getId(), 9L, 2, 1L, Map.of("a", 1));
+    assertEquals(1, arrived.orElseThrow().getArrivedCount());
+    assertEquals(Map.of(workflow.getId(), 0), store.progress(Map.of(workflow.getId(), delta)));
+  }
+
+  private List<Task> claim(String owner) {
+    long now = System.currentTimeMillis();
+    return store.claimDueWaits(now + 1, owner, now, now + 60_000, 10);
+  }
+
+  private Workflow workflow(int pendingTasks) {
+    Workflow workflow =
+        Workflow.builder()
+            .workflowStatus(WorkflowStatus.RUNNING)
+            .pendingTasks(pendingTasks)
+            .finishedTasks(0)
+            .build();
+    store.createWorkflow(workflow);
+    return workflow;
+  }
+
+  private static Task task(Workflow workflow, Long waiting) {
+    return Task.builder()
+        .workflowId(workflow.getId())
+        .taskDefId(1L)
+        .taskStatus(TaskStatus.IN_PROGRESS)
+        .waiting(waiting)
+        .build();
+  }
+}